@@ -0,0 +1,64 @@
+package com.wobserver.vcollections;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Maps the elements of a source {@link Spliterator}, and splits as the source splits.
+ *
+ * @param <S> the type of the source elements
+ * @param <T> the type of the mapped elements
+ */
+class MappedSpliterator<S, T> implements Spliterator<T> {
+
+	private static final int KEPT_CHARACTERISTICS = Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.IMMUTABLE | Spliterator.CONCURRENT;
+
+	private final Spliterator<S> source;
+	private final Function<? super S, ? extends T> mapper;
+	private final boolean distinct;
+
+	/**
+	 * @param source   the spliterator the elements are taken from
+	 * @param mapper   the function maps the source elements
+	 * @param distinct indicates if the mapped elements are distinct
+	 */
+	MappedSpliterator(Spliterator<S> source, Function<? super S, ? extends T> mapper, boolean distinct) {
+		this.source = source;
+		this.mapper = mapper;
+		this.distinct = distinct;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		return this.source.tryAdvance(item -> action.accept(this.mapper.apply(item)));
+	}
+
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		this.source.forEachRemaining(item -> action.accept(this.mapper.apply(item)));
+	}
+
+	@Override
+	public Spliterator<T> trySplit() {
+		Spliterator<S> prefix = this.source.trySplit();
+		if (prefix == null) {
+			return null;
+		}
+		return new MappedSpliterator<>(prefix, this.mapper, this.distinct);
+	}
+
+	@Override
+	public long estimateSize() {
+		return this.source.estimateSize();
+	}
+
+	@Override
+	public int characteristics() {
+		int result = this.source.characteristics() & KEPT_CHARACTERISTICS;
+		if (this.distinct) {
+			result |= Spliterator.DISTINCT;
+		}
+		return result;
+	}
+}
@@ -1,7 +1,11 @@
 package com.wobserver.vcollections;
 
+import com.wobserver.vcollections.storages.IDequeStorage;
+import com.wobserver.vcollections.storages.IIndexedStorage;
+import com.wobserver.vcollections.storages.ILongKeyStorage;
 import com.wobserver.vcollections.storages.IMapper;
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.OutOfSpaceException;
 import com.wobserver.vcollections.storages.PrimitiveTypesMapperFactory;
 import java.util.*;
 import java.util.function.Consumer;
@@ -12,17 +16,62 @@ import java.util.stream.StreamSupport;
 
 public class VArrayList<K, V> implements List<V> {
 
+	private static final int READ_BATCH_SIZE = 1000;
+
 	private final IStorage<K, V> storage;
 	private final IMapper<K, Long> keyMapper;
+	/**
+	 * The storage addressed by the indexes without boxing them into keys,
+	 * or null if the storage is not an {@link ILongKeyStorage} keyed by the indexes.
+	 */
+	private final ILongKeyStorage<V> longKeyStorage;
+	/**
+	 * The storage shifting the items by moving blocks of slots,
+	 * or null if the storage is not an {@link IIndexedStorage} keyed by the indexes.
+	 */
+	private final IIndexedStorage<V> indexedStorage;
+	/**
+	 * The storage keeping the items without empty indexes, which shifts the following items itself
+	 * when an item is inserted or removed, or null if the storage is not an {@link IDequeStorage} keyed by the indexes.
+	 */
+	private final IDequeStorage<V> dequeStorage;
 
 	public VArrayList(IStorage<K, V> storage, IMapper<K, Long> keyMapper) {
 		this.storage = storage;
 		this.keyMapper = keyMapper;
-	}
-
+		this.longKeyStorage = null;
+		this.indexedStorage = null;
+		this.dequeStorage = null;
+	}
+
+	/**
+	 * If the keyType is {@link Long} and the storage is an {@link ILongKeyStorage},
+	 * the items are accessed through the primitive entry points of the storage,
+	 * and if the storage is an {@link IIndexedStorage} the items are shifted by moving blocks of slots.
+	 * If the storage is an {@link IDequeStorage} the items are inserted and removed by the storage,
+	 * which shifts the following items, and the first and the last items are inserted and removed directly.
+	 *
+	 * @param storage the storage the items are stored in
+	 * @param keyType the type of the keys
+	 */
 	public VArrayList(IStorage<K, V> storage, Class<K> keyType) {
 		this.storage = storage;
 		this.keyMapper = PrimitiveTypesMapperFactory.make(keyType, Long.class);
+		if (Long.class.equals(keyType) && storage instanceof ILongKeyStorage) {
+			this.longKeyStorage = (ILongKeyStorage<V>) storage;
+		} else {
+			this.longKeyStorage = null;
+		}
+		if (this.longKeyStorage instanceof IIndexedStorage) {
+			this.indexedStorage = (IIndexedStorage<V>) this.longKeyStorage;
+		} else {
+			this.indexedStorage = null;
+		}
+		if (this.longKeyStorage instanceof IDequeStorage) {
+			this.dequeStorage = (IDequeStorage<V>) this.longKeyStorage;
+		} else {
+			this.dequeStorage = null;
+		}
 	}
 
 	@Override
@@ -67,7 +116,7 @@ public class VArrayList<K, V> implements List<V> {
 			action.accept(after);
 			if (before != null) {
 				if (!before.equals(after)) {
-					this.storage.update(this.getKeyFor(index), after);
+					this.updateAt(index, after);
 				}
 			}  
 		}
@@ -123,10 +172,19 @@ public class VArrayList<K, V> implements List<V> {
 			return false;
 		}
 		long end = this.storage.entries() - 1;
+		if (this.dequeStorage != null) {
+			this.dequeStorage.remove(found);
+			return true;
+		}
+		if (this.indexedStorage != null) {
+			this.indexedStorage.move(found + 1L, found, end - found);
+			this.indexedStorage.remove(end);
+			return true;
+		}
 		for (long i = found; i < end; ++i) {
-			this.storage.swap(this.getKeyFor(i), this.getKeyFor(i + 1L));
+			this.swapAt(i, i + 1L);
 		}
-		this.storage.delete(this.getKeyFor(end));
+		this.deleteAt(end);
 		return true;
 	}
 
@@ -137,25 +195,48 @@ public class VArrayList<K, V> implements List<V> {
 
 	@Override
 	public boolean addAll(Collection<? extends V> c) {
-		c.stream().forEach(this.storage::create);
+		this.storage.createAll(new ArrayList<>(c));
 		return true;
 	}
 
 	@Override
 	public boolean addAll(int index, Collection<? extends V> c) {
 		long shiftSize = c.size();
-		long i;
-		for (i = this.storage.entries() - 1; index <= i; --i) {
-			K key = this.getKeyFor(i);
-			V value = this.storage.read(key);
-			this.storage.update(this.getKeyFor(i + shiftSize), value);
-		}
-		// The storage is in an ionconsistent state now, with duplicated values
-		i = index;
+		long end = this.storage.entries();
+		if (this.dequeStorage != null) {
+			this.dequeStorage.insertAll(index, new ArrayList<>(c));
+			return true;
+		}
+		if (this.indexedStorage != null) {
+			if (this.storage.capacity() != IStorage.NO_MAX_SIZE && this.storage.capacity() < end + shiftSize) {
+				throw new OutOfSpaceException();
+			}
+			List<V> items = new ArrayList<>(c);
+			// the items after the current end are put first, so the values are not moved after empty slots
+			for (long position = end; position < index + shiftSize; ++position) {
+				this.indexedStorage.put(position, items.get((int) (position - index)));
+			}
+			this.indexedStorage.move(index, index + shiftSize, end - index);
+			for (long position = index; position < Math.min(end, index + shiftSize); ++position) {
+				this.indexedStorage.put(position, items.get((int) (position - index)));
+			}
+			return true;
+		}
+		List<K> shiftedKeys = new ArrayList<>();
+		for (long i = index; i < end; ++i) {
+			shiftedKeys.add(this.getKeyFor(i));
+		}
+		Map<K, V> shiftedValues = this.storage.readAll(shiftedKeys);
+		Map<K, V> entries = new HashMap<>();
+		for (long i = index; i < end; ++i) {
+			entries.put(this.getKeyFor(i + shiftSize), shiftedValues.get(this.getKeyFor(i)));
+		}
+		long i = index;
 		for (Iterator<? extends V> it = c.iterator(); it.hasNext(); ++i) {
 			V item = it.next();
-			this.storage.update(this.getKeyFor(i), item);
+			entries.put(this.getKeyFor(i), item);
 		}
+		this.storage.updateAll(entries);
 		return true;
 	}
 
@@ -171,11 +252,21 @@ public class VArrayList<K, V> implements List<V> {
 		}
 		final long originalEnd = this.storage.entries();
 		boolean removed = false;
+		if (this.dequeStorage != null) {
+			// the storage shifts the following items at every removal, so the items are visited from the end
+			for (long index = originalEnd - 1L; 0L <= index; --index) {
+				if (filter.test(this.dequeStorage.get(index))) {
+					this.dequeStorage.remove(index);
+					removed = true;
+				}
+			}
+			return removed;
+		}
 		final long end = this.storage.entries();
 		for (long index = 0L; index < end; ++index) {
-			V value = this.storage.read(this.getKeyFor(index));
+			V value = this.readAt(index);
 			if (filter.test(value)) {
-				this.storage.delete(this.getKeyFor(index));
+				this.deleteAt(index);
 				removed = true;
 			}
 		}
@@ -187,11 +278,14 @@ public class VArrayList<K, V> implements List<V> {
 
 	@Override
 	public boolean retainAll(Collection<?> c) {
+		if (this.dequeStorage != null) {
+			return this.removeIf(value -> !c.contains(value));
+		}
 		final long end = this.storage.entries();
 		for (long index = 0; index < end; ++index) {
-			V value = this.storage.read(this.getKeyFor(index));
+			V value = this.readAt(index);
 			if (!c.contains(value)) {
-				this.storage.delete(this.getKeyFor(index));
+				this.deleteAt(index);
 
 			}
 		}
@@ -205,15 +299,13 @@ public class VArrayList<K, V> implements List<V> {
 		final long end = this.storage.entries();
 		long next;
 		// Put the start position to an index, which exists.
-		for (; start < end && this.storage.has(this.getKeyFor(start)); ++start) ;
+		for (; start < end && this.hasAt(start); ++start) ;
 		while (start < end) {
-			K startKey = this.getKeyFor(start);
 			V value = null;
-			for (next = start + 1L; next < originalEnd && !this.storage.has(this.getKeyFor(next)); ++next) ;
-			K nextKey = this.getKeyFor(next);
-			value = this.storage.read(nextKey);
-			this.storage.update(startKey, value);
-			this.storage.delete(nextKey);
+			for (next = start + 1L; next < originalEnd && !this.hasAt(next); ++next) ;
+			value = this.readAt(next);
+			this.updateAt(start, value);
+			this.deleteAt(next);
 			++start;
 			result = true;
 		}
@@ -236,8 +328,7 @@ public class VArrayList<K, V> implements List<V> {
 		if (this.size() <= index) {
 			throw new ArrayIndexOutOfBoundsException();
 		}
-		K key = this.getKeyFor(index);
-		return this.storage.read(key);
+		return this.readAt(index);
 	}
 
 	@Override
@@ -245,9 +336,8 @@ public class VArrayList<K, V> implements List<V> {
 		if (this.size() <= index) {
 			throw new ArrayIndexOutOfBoundsException();
 		}
-		K key = this.getKeyFor(index);
-		V removed = this.storage.read(key);
-		this.storage.update(key, element);
+		V removed = this.readAt(index);
+		this.updateAt(index, element);
 		return removed;
 	}
 
@@ -256,19 +346,30 @@ public class VArrayList<K, V> implements List<V> {
 		if (this.size() <= index) {
 			throw new IndexOutOfBoundsException();
 		}
-		K indexPosition = this.getKeyFor(index);
-		if (this.storage.read(indexPosition) == null) {
-			this.storage.update(indexPosition, element);
+		if (this.readAt(index) == null) {
+			this.updateAt(index, element);
+			return;
+		}
+		if (this.dequeStorage != null) {
+			if (index == 0) {
+				this.dequeStorage.addFirst(element);
+			} else {
+				this.dequeStorage.insertAll(index, List.of(element));
+			}
+			return;
+		}
+		if (this.indexedStorage != null) {
+			this.indexedStorage.move(index, index + 1L, this.size() - index);
+			this.indexedStorage.put(index, element);
 			return;
 		}
 
 		Long position = Long.valueOf(this.size() - 1);
 		for (; index <= position; --position) {
-			K positionKey = this.getKeyFor(position);
-			V value = this.storage.read(positionKey);
-			this.storage.update(this.getKeyFor(position + 1), value);
+			V value = this.readAt(position);
+			this.updateAt(position + 1, value);
 		}
-		this.storage.update(this.getKeyFor(position), element);
+		this.updateAt(position, element);
 	}
 
 	@Override
@@ -277,11 +378,28 @@ public class VArrayList<K, V> implements List<V> {
 			throw new IndexOutOfBoundsException();
 		}
 		long end = this.storage.entries() - 1;
+		if (this.dequeStorage != null) {
+			if (index == 0) {
+				return this.dequeStorage.removeFirst();
+			}
+			if (index == end) {
+				return this.dequeStorage.removeLast();
+			}
+			V result = this.dequeStorage.get(index);
+			this.dequeStorage.remove(index);
+			return result;
+		}
+		if (this.indexedStorage != null) {
+			V result = this.indexedStorage.get(index);
+			this.indexedStorage.move(index + 1L, index, end - index);
+			this.indexedStorage.remove(end);
+			return result;
+		}
 		for (long i = index; i < end; ++i) {
-			this.storage.swap(this.getKeyFor(i), this.getKeyFor(i + 1L));
+			this.swapAt(i, i + 1L);
 		}
-		V result = this.storage.read(this.getKeyFor(end + 1L));
-		this.storage.delete(this.getKeyFor(end));
+		V result = this.readAt(end + 1L);
+		this.deleteAt(end);
 		
 		return result;
 	}
@@ -296,8 +414,7 @@ public class VArrayList<K, V> implements List<V> {
 			isEqual = v -> o.equals(v);
 		}
 		for (index = 0L; index < this.size(); ++index) {
-			K key = this.getKeyFor(index);
-			V value = this.storage.read(key);
+			V value = this.readAt(index);
 			if (isEqual.test(value)) {
 				return index.intValue();
 			}
@@ -339,22 +456,94 @@ public class VArrayList<K, V> implements List<V> {
 
 	@Override
 	public Spliterator<V> spliterator() {
-//		throw new NotImplementedException();
-		return null;
+		return new IndexRangeSpliterator(0L, this.storage.entries());
 	}
 
 	@Override
 	public Stream<V> stream() {
-		Iterator<V> sourceIterator = this.iterator();
-		return StreamSupport.stream(
-				Spliterators.spliteratorUnknownSize(sourceIterator, Spliterator.ORDERED), false
-		);
+		return StreamSupport.stream(this.spliterator(), false);
 	}
 
 	@Override
 	public Stream<V> parallelStream() {
-//		throw new NotImplementedException();
-		return null;
+		return StreamSupport.stream(this.spliterator(), true);
+	}
+
+	/**
+	 * Splits the list by halving the range of indexes,
+	 * and reads the remaining items of a range by batches.
+	 */
+	private class IndexRangeSpliterator implements Spliterator<V> {
+		private long index;
+		private final long fence;
+
+		IndexRangeSpliterator(long index, long fence) {
+			this.index = index;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super V> action) {
+			if (this.fence <= this.index) {
+				return false;
+			}
+			action.accept(VArrayList.this.readAt(this.index++));
+			return true;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super V> action) {
+			IIndexedStorage<V> indexedStorage = VArrayList.this.indexedStorage;
+			IDequeStorage<V> dequeStorage = VArrayList.this.dequeStorage;
+			if (indexedStorage != null || dequeStorage != null) {
+				while (this.index < this.fence) {
+					long end = Math.min(this.fence, this.index + READ_BATCH_SIZE);
+					List<V> range = indexedStorage != null ? indexedStorage.getRange(this.index, end) : dequeStorage.getRange(this.index, end);
+					range.forEach(action);
+					this.index = end;
+				}
+				return;
+			}
+			ILongKeyStorage<V> longKeyStorage = VArrayList.this.longKeyStorage;
+			if (longKeyStorage != null) {
+				for (; this.index < this.fence; ++this.index) {
+					action.accept(longKeyStorage.get(this.index));
+				}
+				return;
+			}
+			while (this.index < this.fence) {
+				long end = Math.min(this.fence, this.index + READ_BATCH_SIZE);
+				List<K> keys = new ArrayList<>((int) (end - this.index));
+				for (; this.index < end; ++this.index) {
+					keys.add(VArrayList.this.getKeyFor(this.index));
+				}
+				Map<K, V> values = VArrayList.this.storage.readAll(keys);
+				for (K key : keys) {
+					action.accept(values.get(key));
+				}
+			}
+		}
+
+		@Override
+		public Spliterator<V> trySplit() {
+			long middle = (this.index + this.fence) >>> 1;
+			if (middle <= this.index) {
+				return null;
+			}
+			Spliterator<V> prefix = new IndexRangeSpliterator(this.index, middle);
+			this.index = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return this.fence - this.index;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
 	}
 
 
@@ -376,8 +565,7 @@ public class VArrayList<K, V> implements List<V> {
 			if (VArrayList.this.storage.entries() <= this.index) {
 				throw new IndexOutOfBoundsException();
 			}
-			K key = VArrayList.this.getKeyFor(this.index);
-			V result = VArrayList.this.storage.read(key);
+			V result = VArrayList.this.readAt(this.index);
 			this.modified = false;
 			++this.index;
 			return result;
@@ -408,8 +596,7 @@ public class VArrayList<K, V> implements List<V> {
 			if (this.index < 0) {
 				throw new IndexOutOfBoundsException();
 			}
-			K key = VArrayList.this.getKeyFor(this.index);
-			V result = VArrayList.this.storage.read(key);
+			V result = VArrayList.this.readAt(this.index);
 			this.modified = false;
 			--this.index;
 			return result;
@@ -432,8 +619,7 @@ public class VArrayList<K, V> implements List<V> {
 			if (this.modified) {
 				throw new IllegalStateException();
 			}
-			K key = VArrayList.this.getKeyFor(this.index);
-			VArrayList.this.storage.update(key, v);
+			VArrayList.this.updateAt(this.index, v);
 		}
 
 		@Override
@@ -441,21 +627,69 @@ public class VArrayList<K, V> implements List<V> {
 			if (this.modified) {
 				throw new IllegalStateException();
 			}
+			IDequeStorage<V> dequeStorage = VArrayList.this.dequeStorage;
+			if (dequeStorage != null) {
+				dequeStorage.insertAll(this.index, List.of(v));
+				this.modified = true;
+				return;
+			}
+			IIndexedStorage<V> indexedStorage = VArrayList.this.indexedStorage;
+			if (indexedStorage != null) {
+				indexedStorage.move(this.index, this.index + 1L, VArrayList.this.storage.entries() - this.index);
+				indexedStorage.put(this.index, v);
+				this.modified = true;
+				return;
+			}
 
 			Long position = VArrayList.this.storage.entries() - 1;
 			for (; index <= position; --position) {
-				K positionKey = VArrayList.this.getKeyFor(position);
-				V value = VArrayList.this.storage.read(positionKey);
-				K nextPosition = VArrayList.this.getKeyFor(position + 1);
-				VArrayList.this.storage.update(nextPosition, value);
+				V value = VArrayList.this.readAt(position);
+				VArrayList.this.updateAt(position + 1, value);
 			}
-			K key = VArrayList.this.getKeyFor(this.index);
-			VArrayList.this.storage.update(key, v);
+			VArrayList.this.updateAt(this.index, v);
 			this.modified = true;
 		}
 	}
 
 
+	private V readAt(long index) {
+		if (this.longKeyStorage != null) {
+			return this.longKeyStorage.get(index);
+		}
+		return this.storage.read(this.getKeyFor(index));
+	}
+
+	private void updateAt(long index, V value) {
+		if (this.longKeyStorage != null) {
+			this.longKeyStorage.put(index, value);
+			return;
+		}
+		this.storage.update(this.getKeyFor(index), value);
+	}
+
+	private boolean hasAt(long index) {
+		if (this.longKeyStorage != null) {
+			return this.longKeyStorage.contains(index);
+		}
+		return this.storage.has(this.getKeyFor(index));
+	}
+
+	private void deleteAt(long index) {
+		if (this.longKeyStorage != null) {
+			this.longKeyStorage.remove(index);
+			return;
+		}
+		this.storage.delete(this.getKeyFor(index));
+	}
+
+	private void swapAt(long index1, long index2) {
+		if (this.longKeyStorage != null) {
+			this.longKeyStorage.swap(index1, index2);
+			return;
+		}
+		this.storage.swap(this.getKeyFor(index1), this.getKeyFor(index2));
+	}
+
 	private K getKeyFor(int index) {
 		return this.keyMapper.decode((long) index);
 	}
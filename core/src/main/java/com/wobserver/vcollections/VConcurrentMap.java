@@ -0,0 +1,104 @@
+package com.wobserver.vcollections;
+
+import com.wobserver.vcollections.storages.IStorage;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A {@link VMap} implements the {@link ConcurrentMap} interface.
+ * <p>
+ * The conditional operations are executed by the conditional operations of the storage
+ * ({@link IStorage#putIfAbsent(Object, Object)}, {@link IStorage#replace(Object, Object, Object)},
+ * {@link IStorage#delete(Object, Object)} and {@link IStorage#compute(Object, BiFunction)}),
+ * hence they are atomic if the underlying storage executes them atomically.
+ * Null keys and values are not supported.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class VConcurrentMap<K, V> extends VMap<K, V> implements ConcurrentMap<K, V> {
+
+	private final IStorage<K, V> storage;
+
+	public VConcurrentMap(IStorage<K, V> storage) {
+		super(storage);
+		this.storage = storage;
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		return this.storage.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		if (value == null) {
+			return false;
+		}
+		return this.storage.delete(key, value);
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		if (key == null || oldValue == null || newValue == null) {
+			throw new NullPointerException();
+		}
+		return this.storage.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		Object[] replaced = new Object[1];
+		this.storage.compute(key, (k, oldValue) -> {
+			replaced[0] = oldValue;
+			return oldValue == null ? null : value;
+		});
+		return (V) replaced[0];
+	}
+
+	@Override
+	public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+		if (key == null || mappingFunction == null) {
+			throw new NullPointerException();
+		}
+		V value = this.storage.read(key);
+		if (value != null) {
+			return value;
+		}
+		return this.storage.compute(key, (k, oldValue) -> oldValue == null ? mappingFunction.apply(k) : oldValue);
+	}
+
+	@Override
+	public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null || remappingFunction == null) {
+			throw new NullPointerException();
+		}
+		return this.storage.compute(key, (k, oldValue) -> oldValue == null ? null : remappingFunction.apply(k, oldValue));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (key == null) {
+			throw new NullPointerException();
+		}
+		return super.compute(key, remappingFunction);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (key == null || value == null) {
+			throw new NullPointerException();
+		}
+		return super.merge(key, value, remappingFunction);
+	}
+}
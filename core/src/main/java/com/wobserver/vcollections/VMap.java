@@ -6,6 +6,7 @@ import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.Lookup;
 
 public class VMap<K, V> implements Map<K, V>, Serializable {
 
@@ -39,12 +40,12 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 
 	@Override
 	public boolean containsValue(Object value) {
-		for (Iterator<Entry<K, V>> it = this.storage.iterator(); it.hasNext(); ) {
-			Entry<K, V> item = it.next();
-			if (item.getValue() == null && value == null) {
+		for (Iterator<V> it = this.storage.valueIterator(); it.hasNext(); ) {
+			V item = it.next();
+			if (item == null && value == null) {
 				return true;
 			}
-			if (item.getValue().equals(value)) {
+			if (item != null && item.equals(value)) {
 				return true;
 			}
 		}
@@ -72,12 +73,7 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 
 	@Override
 	public void putAll(Map<? extends K, ? extends V> m) {
-		for (Iterator<? extends Entry<? extends K, ? extends V>> it = m.entrySet().iterator(); it.hasNext(); ) {
-			Entry<? extends K, ? extends V> entry = it.next();
-			K key = entry.getKey();
-			V value = entry.getValue();
-			this.storage.update(key, value);
-		}
+		this.storage.updateAll((Map<K, V>) m);
 	}
 
 	@Override
@@ -117,13 +113,12 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 		}
 
 		public final Spliterator<K> spliterator() {
-			throw new UnsupportedOperationException("Splititerator is not implemented in this version");
+			return new MappedSpliterator<>(VMap.this.storage.spliterator(), Entry::getKey, true);
 		}
 
 		public final void forEach(Consumer<? super K> action) {
-			for (Iterator<Entry<K, V>> it = VMap.this.storage.iterator(); it.hasNext(); ) {
-				Entry<K, V> entry = it.next();
-				K key = entry.getKey();
+			for (Iterator<K> it = VMap.this.storage.keyIterator(); it.hasNext(); ) {
+				K key = it.next();
 				action.accept(key);
 			}
 		}
@@ -157,13 +152,12 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 		}
 
 		public final Spliterator<V> spliterator() {
-			throw new UnsupportedOperationException("Splititerator is not implemented in this version");
+			return new MappedSpliterator<>(VMap.this.storage.spliterator(), Entry::getValue, false);
 		}
 
 		public final void forEach(Consumer<? super V> action) {
-			for (Iterator<Entry<K, V>> it = VMap.this.storage.iterator(); it.hasNext(); ) {
-				Entry<K, V> entry = it.next();
-				V value = entry.getValue();
+			for (Iterator<V> it = VMap.this.storage.valueIterator(); it.hasNext(); ) {
+				V value = it.next();
 				action.accept(value);
 			}
 		}
@@ -200,11 +194,8 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 			if (key == null) {
 				return false;
 			}
-			V item = VMap.this.get(key);
-			if (item == null) {
-				return e.getValue() == null;
-			}
-			return item.equals(e.getValue());
+			Lookup<V> lookup = VMap.this.storage.lookup(key);
+			return lookup.isPresent() && Objects.equals(lookup.get(), e.getValue());
 		}
 
 		public final boolean remove(Object o) {
@@ -218,7 +209,7 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 		}
 
 		public final Spliterator<Entry<K, V>> spliterator() {
-			throw new UnsupportedOperationException("Splititerator is not implemented in this version");
+			return VMap.this.storage.spliterator();
 		}
 
 		public final void forEach(Consumer<? super Entry<K, V>> action) {
@@ -231,10 +222,7 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 
 	@Override
 	public V getOrDefault(Object key, V defaultValue) {
-		if (!this.storage.has(key)) {
-			return defaultValue;
-		}
-		return this.storage.read(key);
+		return this.storage.lookup(key).orElse(defaultValue);
 	}
 
 	@Override
@@ -262,22 +250,33 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 
 	@Override
 	public V putIfAbsent(K key, V value) {
-		if (this.storage.has(key)) {
-			return this.storage.read(key);
-		}
-		this.storage.update(key, value);
-		return null;
+		return this.storage.putIfAbsent(key, value);
 	}
 
 	@Override
 	public boolean remove(Object key, Object value) {
-		Object curValue = this.storage.read(key);
-		if (!Objects.equals(curValue, value) ||
-				(curValue == null && !containsKey(key))) {
-			return false;
+		return this.storage.delete(key, value);
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		return this.storage.replace(key, oldValue, newValue);
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		if (remappingFunction == null) {
+			throw new NullPointerException();
 		}
-		this.storage.delete(key);
-		return true;
+		return this.storage.compute(key, remappingFunction);
+	}
+
+	@Override
+	public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		if (remappingFunction == null) {
+			throw new NullPointerException();
+		}
+		return this.storage.merge(key, value, remappingFunction);
 	}
 
 	abstract class VMapIterator {
@@ -301,17 +300,35 @@ public class VMap<K, V> implements Map<K, V>, Serializable {
 
 	}
 
-	final class KeyIterator extends VMap<K, V>.VMapIterator
-			implements Iterator<K> {
+	final class KeyIterator implements Iterator<K> {
+		private final Iterator<K> iterator = VMap.this.storage.keyIterator();
+
+		public final boolean hasNext() {
+			return this.iterator.hasNext();
+		}
+
 		public final K next() {
-			return nextEntry().getKey();
+			return this.iterator.next();
+		}
+
+		public final void remove() {
+			this.iterator.remove();
 		}
 	}
 
-	final class ValueIterator extends VMap<K, V>.VMapIterator
-			implements Iterator<V> {
+	final class ValueIterator implements Iterator<V> {
+		private final Iterator<V> iterator = VMap.this.storage.valueIterator();
+
+		public final boolean hasNext() {
+			return this.iterator.hasNext();
+		}
+
 		public final V next() {
-			return nextEntry().getValue();
+			return this.iterator.next();
+		}
+
+		public final void remove() {
+			this.iterator.remove();
 		}
 	}
 
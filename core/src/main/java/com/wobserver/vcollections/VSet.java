@@ -1,15 +1,32 @@
 package com.wobserver.vcollections;
 
+import com.wobserver.vcollections.storages.ISetStorage;
 import com.wobserver.vcollections.storages.IStorage;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
 
 public class VSet<T> implements Set<T> {
 
 	static private final Integer PRESENT = 1;
 	private IStorage<T, Integer> storage;
+	/**
+	 * The storage checking and combining the members in bulk,
+	 * or null if the storage is not an {@link ISetStorage}.
+	 */
+	private final ISetStorage<T> setStorage;
+
+	public VSet(IStorage<T, Integer> storage) {
+		this.storage = storage;
+		if (storage instanceof ISetStorage) {
+			this.setStorage = (ISetStorage<T>) storage;
+		} else {
+			this.setStorage = null;
+		}
+	}
 
 	@Override
 	public int size() {
@@ -31,20 +48,12 @@ public class VSet<T> implements Set<T> {
 
 	@Override
 	public Iterator<T> iterator() {
-		return new Iterator<T>() {
-
-			private Iterator<Map.Entry<T, Integer>> iterator = storage.iterator();
-
-			@Override
-			public boolean hasNext() {
-				return this.iterator.hasNext();
-			}
+		return this.storage.keyIterator();
+	}
 
-			@Override
-			public T next() {
-				return this.iterator.next().getKey();
-			}
-		};
+	@Override
+	public Spliterator<T> spliterator() {
+		return new MappedSpliterator<>(this.storage.spliterator(), Map.Entry::getKey, true);
 	}
 
 	@Override
@@ -71,26 +80,69 @@ public class VSet<T> implements Set<T> {
 
 	@Override
 	public boolean containsAll(Collection<?> c) {
+		if (this.setStorage != null) {
+			return this.setStorage.hasAll(c);
+		}
 		return c.stream().allMatch(this.storage::has);
 	}
 
 	@Override
 	public boolean addAll(Collection<? extends T> c) {
-		return c.stream().allMatch(this::add);
+		if (this.isCombinable(c)) {
+			return this.setStorage.union(((VSet<?>) c).storage);
+		}
+		Map<T, Integer> existing = this.storage.readAll((Collection<T>) c);
+		Map<T, Integer> entries = new HashMap<>();
+		for (T item : c) {
+			if (!existing.containsKey(item)) {
+				entries.put(item, PRESENT);
+			}
+		}
+		if (entries.isEmpty()) {
+			return false;
+		}
+		this.storage.updateAll(entries);
+		return true;
 	}
 
 	@Override
 	public boolean retainAll(Collection<?> c) {
-		return false;
+		if (this.isCombinable(c)) {
+			return this.setStorage.intersect(((VSet<?>) c).storage);
+		}
+		boolean result = false;
+		for (Iterator<T> it = this.storage.keyIterator(); it.hasNext(); ) {
+			if (!c.contains(it.next())) {
+				it.remove();
+				result = true;
+			}
+		}
+		return result;
 	}
 
 	@Override
 	public boolean removeAll(Collection<?> c) {
-		return c.stream().allMatch(this::remove);
+		if (this.isCombinable(c)) {
+			return this.setStorage.subtract(((VSet<?>) c).storage);
+		}
+		Map<T, Integer> existing = this.storage.readAll((Collection<T>) c);
+		if (existing.isEmpty()) {
+			return false;
+		}
+		this.storage.deleteAll(existing.keySet());
+		return true;
 	}
 
 	@Override
 	public void clear() {
 		this.storage.clear();
 	}
+
+	/**
+	 * @return true if the collection is a {@link VSet} whose members can be combined with the members of this set
+	 * by the storage, without reading them
+	 */
+	private boolean isCombinable(Collection<?> c) {
+		return this.setStorage != null && c instanceof VSet && this.setStorage.isCombinable(((VSet<?>) c).storage);
+	}
 }
@@ -1,6 +1,8 @@
 package com.wobserver.vcollections.builders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wobserver.vcollections.storages.ISerializer;
+import com.wobserver.vcollections.storages.SerializerFactory;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.HashMap;
@@ -169,4 +171,25 @@ public abstract class AbstractBuilder {
 		}
 		return (T) constructed;
 	}
+
+	/**
+	 * Makes a serializer by its name given to the {@link SerializerFactory}, or by the name
+	 * of a class implementing {@link ISerializer} having a constructor without parameters.
+	 *
+	 * @param name the name of the serializer or the name of its class
+	 * @param type the type of the serialized values
+	 * @param <T>  the type of the serialized values
+	 * @return the {@link ISerializer}
+	 * @throws InvalidConfigurationException if the serializer cannot be made
+	 */
+	protected <T> ISerializer<T> makeSerializer(String name, Class<T> type) {
+		if (!SerializerFactory.isSerializerName(name)) {
+			return this.invoke(name);
+		}
+		try {
+			return SerializerFactory.make(name, type);
+		} catch (IllegalArgumentException e) {
+			throw new InvalidConfigurationException(e, e.getMessage());
+		}
+	}
 }
@@ -3,14 +3,22 @@ package com.wobserver.vcollections.builders;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wobserver.vcollections.storages.FileStorage;
 import com.wobserver.vcollections.storages.IMapper;
+import com.wobserver.vcollections.storages.ISerializer;
+import com.wobserver.vcollections.storages.JacksonSerializer;
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.LogStructuredFileStorage;
 import com.wobserver.vcollections.storages.MemoryStorage;
 import com.wobserver.vcollections.storages.PrimitiveTypesMapperFactory;
+import com.wobserver.vcollections.storages.WriteBehindStorage;
 import java.io.IOException;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
 
 /**
- * Represents a builder responsible for building a {@link MemoryStorage}.
+ * Represents a builder responsible for building a {@link FileStorage},
+ * or a {@link LogStructuredFileStorage} if the logStructured option is set.
+ * If the writeBehind option is set, the storage is wrapped by a {@link WriteBehindStorage}.
  */
 public class FileStorageBuilder extends AbstractStorageBuilder implements IStorageBuilder {
 
@@ -19,6 +27,15 @@ public class FileStorageBuilder extends AbstractStorageBuilder implements IStora
 	public static final String KEY_MAPPER_CONFIG_KEY = "keyMapper";
 	public static final String PATH_CONFIG_KEY = "path";
 	public static final String VALUE_MAPPER_TYPE_CONFIG_KEY = "valueMapperType";
+	public static final String SERIALIZER_CONFIG_KEY = "serializer";
+	public static final String SHARD_LEVELS_CONFIG_KEY = "shardLevels";
+	public static final String LOG_STRUCTURED_CONFIG_KEY = "logStructured";
+	public static final String SEGMENT_SIZE_CONFIG_KEY = "segmentSize";
+	public static final String COMPACTION_THRESHOLD_CONFIG_KEY = "compactionThreshold";
+	public static final String WRITE_BEHIND_CONFIG_KEY = "writeBehind";
+	public static final String FLUSH_INTERVAL_CONFIG_KEY = "flushInterval";
+	public static final String FLUSH_WRITES_CONFIG_KEY = "flushWrites";
+	public static final String MAX_DIRTY_ENTRIES_CONFIG_KEY = "maxDirtyEntries";
 
 	@FunctionalInterface
 	public interface ValueTypeCollector {
@@ -68,17 +85,33 @@ public class FileStorageBuilder extends AbstractStorageBuilder implements IStora
 		}
 
 		Class<V> valueClass = this.getClassFor(config.valueType);
-		ObjectMapper valueMapper = this.invoke(config.valueMapperType);
+		ISerializer<V> serializer;
+		if (config.serializer != null) {
+			serializer = this.makeSerializer(config.serializer, valueClass);
+		} else {
+			ObjectMapper valueMapper = this.invoke(config.valueMapperType);
+			serializer = new JacksonSerializer<>(valueMapper, valueClass);
+		}
 		String path = config.path;
 
-		FileStorage<K, V> result = null;
+		IStorage<K, V> storage;
 		try {
-			result = new FileStorage<K, V>(keyMapper, valueClass, valueMapper, path, null, config.capacity);
+			if (config.logStructured) {
+				storage = new LogStructuredFileStorage<K, V>(keyMapper, serializer, path, null, config.capacity, config.segmentSize, config.compactionThreshold);
+			} else {
+				storage = new FileStorage<K, V>(keyMapper, serializer, path, null, config.capacity, config.shardLevels);
+			}
 		} catch (IOException e) {
 			throw new RuntimeException(e);
 		}
-		this.decorateWithKeyGenerator(result, config);
-		return result;
+		if (config.writeBehind) {
+			WriteBehindStorage<K, V> result = new WriteBehindStorage<>(storage, config.flushInterval, config.flushWrites, config.maxDirtyEntries);
+			return this.decorateWithKeyGenerator(result, config);
+		}
+		if (storage instanceof LogStructuredFileStorage) {
+			return this.decorateWithKeyGenerator((LogStructuredFileStorage<K, V>) storage, config);
+		}
+		return this.decorateWithKeyGenerator((FileStorage<K, V>) storage, config);
 	}
 
 	/**
@@ -117,6 +150,18 @@ public class FileStorageBuilder extends AbstractStorageBuilder implements IStora
 		return this;
 	}
 
+	/**
+	 * Sets the serializer writing the values into the files of
+	 * {@link com.wobserver.vcollections.storages.FileStorage}, instead of the value mapper type
+	 *
+	 * @param value the name of the serializer (json, smile, cbor, primitive) or the name of a class implementing {@link ISerializer}
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withSerializer(String value) {
+		this.configure(SERIALIZER_CONFIG_KEY, value);
+		return this;
+	}
+
 	/**
 	 * Sets the key mapper type class used for
 	 * {@link com.wobserver.vcollections.storages.FileStorage}
@@ -141,6 +186,98 @@ public class FileStorageBuilder extends AbstractStorageBuilder implements IStora
 		return this;
 	}
 
+	/**
+	 * Sets the number of nested shard directories the files are distributed into by
+	 * {@link com.wobserver.vcollections.storages.FileStorage}
+	 *
+	 * @param value the number of shard levels, 0 to put every file into the directory
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withShardLevels(int value) {
+		this.configure(SHARD_LEVELS_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets up if the built {@link IStorage} is a {@link LogStructuredFileStorage}
+	 * appending the updates to segment files instead of writing a file per entry
+	 *
+	 * @param value true if the storage is log structured
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withLogStructured(boolean value) {
+		this.configure(LOG_STRUCTURED_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the size of a segment file in bytes for
+	 * {@link com.wobserver.vcollections.storages.LogStructuredFileStorage}
+	 *
+	 * @param value the size of a segment, after which a new segment is started
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withSegmentSize(long value) {
+		this.configure(SEGMENT_SIZE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the ratio of overwritten and deleted records in a segment, above which the segment is compacted by
+	 * {@link com.wobserver.vcollections.storages.LogStructuredFileStorage}
+	 *
+	 * @param value the compaction threshold in (0, 1]
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withCompactionThreshold(double value) {
+		this.configure(COMPACTION_THRESHOLD_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets up if the updates are collected in memory and written to the files in batches by a {@link WriteBehindStorage}
+	 *
+	 * @param value true if the updates are written behind
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withWriteBehind(boolean value) {
+		this.configure(WRITE_BEHIND_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the time between two periodic flushes of the {@link WriteBehindStorage}
+	 *
+	 * @param value the flush interval in milliseconds, or 0 to disable periodic flushes
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withFlushInterval(long value) {
+		this.configure(FLUSH_INTERVAL_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the number of updates triggering a flush of the {@link WriteBehindStorage}
+	 *
+	 * @param value the number of updates, or 0 to disable flushes triggered by updates
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withFlushWrites(int value) {
+		this.configure(FLUSH_WRITES_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the maximal number of keys having updates not yet written by the {@link WriteBehindStorage}
+	 *
+	 * @param value the maximal number of pending keys, the caller flushes if it is reached
+	 * @return A {@link FileStorageBuilder} to set options further
+	 */
+	public FileStorageBuilder withMaxDirtyEntries(int value) {
+		this.configure(MAX_DIRTY_ENTRIES_CONFIG_KEY, value);
+		return this;
+	}
+
 
 	/**
 	 * The configuration possibilities inherited from the {@link AbstractStorageBuilder.Config}.
@@ -159,6 +296,39 @@ public class FileStorageBuilder extends AbstractStorageBuilder implements IStora
 
 		public String valueMapperType = "com.fasterxml.jackson.databind.ObjectMapper";
 
+		/**
+		 * The name of the serializer of the values, the value mapper type is used if it is not given
+		 */
+		public String serializer;
+
+		@Min(value = 0)
+		@Max(value = FileStorage.MAX_SHARD_LEVELS)
+		public int shardLevels = 0;
+
+		/**
+		 * Builds a {@link LogStructuredFileStorage} if it is true (default is false)
+		 */
+		public boolean logStructured = false;
+
+		@Min(value = 1)
+		public long segmentSize = LogStructuredFileStorage.DEFAULT_SEGMENT_SIZE;
+
+		public double compactionThreshold = LogStructuredFileStorage.DEFAULT_COMPACTION_THRESHOLD;
+
+		/**
+		 * Wraps the storage into a {@link WriteBehindStorage} if it is true (default is false)
+		 */
+		public boolean writeBehind = false;
+
+		@Min(value = 0)
+		public long flushInterval = 1000;
+
+		@Min(value = 0)
+		public int flushWrites = 0;
+
+		@Min(value = 1)
+		public int maxDirtyEntries = WriteBehindStorage.DEFAULT_MAX_DIRTY_ENTRIES;
+
 
 	}
 
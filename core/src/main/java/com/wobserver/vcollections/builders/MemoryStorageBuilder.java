@@ -1,13 +1,17 @@
 package com.wobserver.vcollections.builders;
 
+import com.wobserver.vcollections.storages.ConcurrentMemoryStorage;
 import com.wobserver.vcollections.storages.IStorage;
 import com.wobserver.vcollections.storages.MemoryStorage;
 
 /**
- * Represents a builder responsible for building a {@link MemoryStorage}.
+ * Represents a builder responsible for building a {@link MemoryStorage},
+ * or a {@link ConcurrentMemoryStorage} if the concurrent option is set.
  */
 public class MemoryStorageBuilder extends AbstractStorageBuilder implements IStorageBuilder {
 
+	public static final String CONCURRENT_CONFIG_KEY = "concurrent";
+
 	/**
 	 * Constructs a {@link IStorageBuilder}.
 	 */
@@ -25,6 +29,11 @@ public class MemoryStorageBuilder extends AbstractStorageBuilder implements ISto
 	public <K, V> IStorage<K, V> build() {
 		Config config = this.convertAndValidate(Config.class);
 
+		if (config.concurrent) {
+			ConcurrentMemoryStorage<K, V> result = new ConcurrentMemoryStorage<>(null, null, config.capacity);
+			this.decorateWithKeyGenerator(result, config);
+			return result;
+		}
 		MemoryStorage<K, V> result = new MemoryStorage<>(null, null, config.capacity);
 		this.decorateWithKeyGenerator(result, config);
 		return result;
@@ -40,11 +49,25 @@ public class MemoryStorageBuilder extends AbstractStorageBuilder implements ISto
 		return this;
 	}
 
+	/**
+	 * Sets up if the built {@link IStorage} is a thread-safe {@link ConcurrentMemoryStorage}
+	 * @param value true if the storage is accessed concurrently
+	 * @return {@link this} to provide further configurations.
+	 */
+	public MemoryStorageBuilder withConcurrent(boolean value) {
+		this.configure(CONCURRENT_CONFIG_KEY, value);
+		return this;
+	}
+
 	/**
 	 * The configuration possibilities inherited from the {@link AbstractStorageBuilder.Config}.
 	 */
 	public static class Config extends AbstractStorageBuilder.Config {
 
+		/**
+		 * Builds a thread-safe {@link ConcurrentMemoryStorage} if it is true (default is false)
+		 */
+		public boolean concurrent = false;
 	}
 
 
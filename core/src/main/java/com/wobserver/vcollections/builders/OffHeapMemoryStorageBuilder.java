@@ -0,0 +1,149 @@
+package com.wobserver.vcollections.builders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wobserver.vcollections.storages.IMapper;
+import com.wobserver.vcollections.storages.ISerializer;
+import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.JacksonSerializer;
+import com.wobserver.vcollections.storages.OffHeapMemoryStorage;
+import javax.validation.constraints.Min;
+
+/**
+ * Represents a builder responsible for building an {@link OffHeapMemoryStorage}.
+ * <p>
+ * The values are serialized by the mapper given by the {@link OffHeapMemoryStorageBuilder#VALUE_MAPPER_CONFIG_KEY},
+ * or if it is not provided, by the serializer given by the {@link OffHeapMemoryStorageBuilder#SERIALIZER_CONFIG_KEY},
+ * or by an {@link ObjectMapper} given by the {@link OffHeapMemoryStorageBuilder#VALUE_MAPPER_TYPE_CONFIG_KEY}
+ * for the {@link OffHeapMemoryStorageBuilder#VALUE_TYPE_CONFIG_KEY}.
+ */
+public class OffHeapMemoryStorageBuilder extends AbstractStorageBuilder implements IStorageBuilder {
+
+	public static final String VALUE_TYPE_CONFIG_KEY = "valueType";
+	public static final String VALUE_MAPPER_CONFIG_KEY = "valueMapper";
+	public static final String VALUE_MAPPER_TYPE_CONFIG_KEY = "valueMapperType";
+	public static final String SERIALIZER_CONFIG_KEY = "serializer";
+	public static final String SLAB_SIZE_CONFIG_KEY = "slabSize";
+
+	/**
+	 * Constructs a {@link IStorageBuilder}.
+	 */
+	public OffHeapMemoryStorageBuilder() {
+
+	}
+
+	/**
+	 * Builds an {@link OffHeapMemoryStorage} based on the provided configurations.
+	 *
+	 * @param <K> The type of the key for the {@link IStorage}.
+	 * @param <V> The type of the value for the {@link IStorage}.
+	 * @return Returns an {@link OffHeapMemoryStorage} set up with the given configurations
+	 */
+	@Override
+	public <K, V> IStorage<K, V> build() {
+		Config config = this.convertAndValidate(Config.class);
+		if (!(config.valueMapper != null ^ config.valueType != null)) {
+			throw new InvalidConfigurationException("Providing either " + VALUE_TYPE_CONFIG_KEY + " or " + VALUE_MAPPER_CONFIG_KEY + " is mandatory for " + this.getClass().getName() + ", but only one of it!");
+		}
+		IMapper<V, byte[]> valueMapper;
+		if (config.valueMapper != null) {
+			valueMapper = this.invoke(config.valueMapper);
+		} else {
+			Class<V> valueClass = this.getClassFor(config.valueType);
+			if (config.serializer != null) {
+				valueMapper = this.makeSerializer(config.serializer, valueClass).toMapper();
+			} else {
+				ObjectMapper objectMapper = this.invoke(config.valueMapperType);
+				valueMapper = new JacksonSerializer<>(objectMapper, valueClass).toMapper();
+			}
+		}
+		OffHeapMemoryStorage<K, V> result = new OffHeapMemoryStorage<>(null, valueMapper, config.slabSize, config.capacity);
+		this.decorateWithKeyGenerator(result, config);
+		return result;
+	}
+
+	/**
+	 * Sets up the capacity for the built {@link IStorage}
+	 *
+	 * @param value The capacity of the provided {@link IStorage}
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withCapacity(Long value) {
+		this.configure(CAPACITY_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the value type class serialized by the {@link ObjectMapper}
+	 *
+	 * @param value the name of the class of the value
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withValueType(String value) {
+		this.configure(VALUE_TYPE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the class of the {@link ObjectMapper} used to serialize the values of the value type
+	 *
+	 * @param value the name of the class of the object mapper
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withValueMapperType(String value) {
+		this.configure(VALUE_MAPPER_TYPE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the class implementing {@link IMapper} from the values to byte arrays.
+	 *
+	 * @param value the name of the class of the mapper used for serializing the value
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withValueMapper(String value) {
+		this.configure(VALUE_MAPPER_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the serializer of the values of the value type, instead of the value mapper type
+	 *
+	 * @param value the name of the serializer (json, smile, cbor, primitive) or the name of a class implementing {@link ISerializer}
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withSerializer(String value) {
+		this.configure(SERIALIZER_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the size of the slabs the values are allocated in
+	 *
+	 * @param value the size of a slab in bytes
+	 * @return {@link this} to provide further configurations.
+	 */
+	public OffHeapMemoryStorageBuilder withSlabSize(int value) {
+		this.configure(SLAB_SIZE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * The configuration possibilities inherited from the {@link AbstractStorageBuilder.Config}.
+	 */
+	public static class Config extends AbstractStorageBuilder.Config {
+
+		public String valueType;
+
+		public String valueMapper;
+
+		public String valueMapperType = "com.fasterxml.jackson.databind.ObjectMapper";
+
+		public String serializer;
+
+		/**
+		 * The size of a slab in bytes (default is {@link OffHeapMemoryStorage#DEFAULT_SLAB_SIZE})
+		 */
+		@Min(value = 16)
+		public int slabSize = OffHeapMemoryStorage.DEFAULT_SLAB_SIZE;
+	}
+}
@@ -12,7 +12,7 @@ public class RandomStringGenerator extends AbstractGenerator<String> {
 	 * Generates a random 46 character long string by using an UUID generator
 	 */
 	public RandomStringGenerator() {
-		this.supplier = UUID.randomUUID()::toString;
+		this.supplier = () -> UUID.randomUUID().toString();
 	}
 
 	/**
@@ -22,7 +22,7 @@ public class RandomStringGenerator extends AbstractGenerator<String> {
 	 */
 	public RandomStringGenerator(int minSize, int maxSize) {
 		if (minSize == maxSize && minSize == 0) {
-			this.supplier = UUID.randomUUID()::toString;
+			this.supplier = () -> UUID.randomUUID().toString();
 		} else {
 			this.supplier = () -> {
 				StringBuilder builder = new StringBuilder();
@@ -0,0 +1,223 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * This class provides a skeletal implementation for the storages keyed by indexes, such as
+ * {@link IIndexedStorage}s and {@link IDequeStorage}s, mapping the key based operations to the primitive
+ * index based ones, and iterating the occupied indexes in the order of their indexes.
+ *
+ * @param <V> the type of the value
+ */
+public abstract class AbstractIndexedStorage<V> implements ILongKeyStorage<V> {
+
+	protected final Long maxSize;
+
+	protected AbstractIndexedStorage(Long maxSize) {
+		this.maxSize = maxSize == null ? IStorage.NO_MAX_SIZE : maxSize;
+	}
+
+	/**
+	 * @return the index after the last occupied index
+	 */
+	public abstract long fence();
+
+	@Override
+	public Long capacity() {
+		return this.maxSize;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.maxSize <= this.entries();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.entries() == 0L;
+	}
+
+	/**
+	 * Appends the value after the last occupied slot
+	 *
+	 * @return the index of the slot the value is stored in
+	 */
+	@Override
+	public Long create(V value) {
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		long key = this.fence();
+		this.put(key, value);
+		return key;
+	}
+
+	@Override
+	public V read(Object key) {
+		long index = toIndex(key);
+		if (index < 0) {
+			return null;
+		}
+		return this.get(index);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		long index = toIndex(key);
+		if (index < 0 || !this.contains(index)) {
+			return Lookup.absent();
+		}
+		return Lookup.of(this.get(index));
+	}
+
+	@Override
+	public boolean has(Object key) {
+		long index = toIndex(key);
+		if (index < 0) {
+			return false;
+		}
+		return this.contains(index);
+	}
+
+	@Override
+	public void update(Long key, V value) {
+		this.put(key, value);
+	}
+
+	@Override
+	public void delete(Object key) {
+		long index = toIndex(key);
+		if (index < 0) {
+			return;
+		}
+		this.remove(index);
+	}
+
+	@Override
+	public void swap(Long key1, Long key2) {
+		this.swap(key1.longValue(), key2.longValue());
+	}
+
+	@Override
+	public Iterator<Map.Entry<Long, V>> iterator() {
+		return new IndexIterator<>() {
+			@Override
+			Map.Entry<Long, V> get(long index) {
+				return new IndexedEntry(index, AbstractIndexedStorage.this.get(index));
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Long> keyIterator() {
+		return new IndexIterator<>() {
+			@Override
+			Long get(long index) {
+				return index;
+			}
+		};
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		return new IndexIterator<>() {
+			@Override
+			V get(long index) {
+				return AbstractIndexedStorage.this.get(index);
+			}
+		};
+	}
+
+	/**
+	 * Checks the indexes of a {@link IIndexedStorage#move(long, long, long)} operation
+	 */
+	protected static void checkRange(long from, long to, long length) {
+		if (from < 0 || to < 0 || length < 0) {
+			throw new IndexOutOfBoundsException("Cannot move " + length + " slots from " + from + " to " + to);
+		}
+	}
+
+	/**
+	 * @return the index for the key, or -1 if the key cannot be an index
+	 */
+	private static long toIndex(Object key) {
+		if (!(key instanceof Long)) {
+			return -1L;
+		}
+		long result = (Long) key;
+		return result < 0 ? -1L : result;
+	}
+
+	private abstract class IndexIterator<T> implements Iterator<T> {
+		private long next = -1L;
+		private long last = -1L;
+
+		IndexIterator() {
+			this.advance();
+		}
+
+		abstract T get(long index);
+
+		@Override
+		public boolean hasNext() {
+			return this.next < AbstractIndexedStorage.this.fence();
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next;
+			this.advance();
+			return this.get(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			AbstractIndexedStorage.this.remove(this.last);
+			this.last = -1L;
+		}
+
+		private void advance() {
+			long fence = AbstractIndexedStorage.this.fence();
+			for (++this.next; this.next < fence && !AbstractIndexedStorage.this.contains(this.next); ++this.next) ;
+		}
+	}
+
+	private final class IndexedEntry implements Map.Entry<Long, V> {
+		private final long index;
+		private V value;
+
+		IndexedEntry(long index, V value) {
+			this.index = index;
+			this.value = value;
+		}
+
+		@Override
+		public Long getKey() {
+			return this.index;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			AbstractIndexedStorage.this.put(this.index, value);
+			return result;
+		}
+	}
+}
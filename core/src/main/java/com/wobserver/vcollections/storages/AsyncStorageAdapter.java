@@ -0,0 +1,48 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Adapts an {@link IStorage} to an {@link IAsyncStorage} by running the blocking
+ * operations of the storage on an {@link Executor}.
+ * <p>
+ * <b>Note</b>: the operations are executed concurrently if the executor has more than one thread,
+ * hence a multi-threaded executor should only be used for storages tolerating concurrent access.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class AsyncStorageAdapter<K, V> implements IAsyncStorage<K, V> {
+
+	private final IStorage<K, V> storage;
+	private final Executor executor;
+
+	public AsyncStorageAdapter(IStorage<K, V> storage, Executor executor) {
+		if (storage == null || executor == null) {
+			throw new NullPointerException();
+		}
+		this.storage = storage;
+		this.executor = executor;
+	}
+
+	@Override
+	public CompletableFuture<V> readAsync(Object key) {
+		return CompletableFuture.supplyAsync(() -> this.storage.read(key), this.executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(K key, V value) {
+		return CompletableFuture.runAsync(() -> this.storage.update(key, value), this.executor);
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteAsync(Object key) {
+		return CompletableFuture.runAsync(() -> this.storage.delete(key), this.executor);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hasAsync(Object key) {
+		return CompletableFuture.supplyAsync(() -> this.storage.has(key), this.executor);
+	}
+}
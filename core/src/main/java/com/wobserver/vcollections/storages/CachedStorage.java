@@ -2,6 +2,7 @@ package com.wobserver.vcollections.storages;
 
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 public class CachedStorage<K, V> implements IStorage<K, V>, ICache {
 
@@ -42,19 +43,25 @@ public class CachedStorage<K, V> implements IStorage<K, V>, ICache {
 
 	@Override
 	public V read(Object key) {
-		if (this.subset.has(key)) {
+		return this.lookup(key).orElse(null);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		Lookup<V> cached = this.subset.lookup(key);
+		if (cached.isPresent()) {
 			++hits;
-			return this.subset.read(key);
+			return cached;
 		}
-		if (!this.superset.has(key)) {
-			return null;
+		Lookup<V> result = this.superset.lookup(key);
+		if (!result.isPresent()) {
+			return result;
 		}
 		++misses;
-		V result = this.superset.read(key);
 		if (this.onRead) {
 			if (keyType.isInstance(key)) {
 				K castedKey = (K) key;
-				this.subset.update(castedKey, result);
+				this.subset.update(castedKey, result.get());
 			}
 		}
 		return result;
@@ -76,6 +83,34 @@ public class CachedStorage<K, V> implements IStorage<K, V>, ICache {
 		this.subset.delete(key);
 	}
 
+	@Override
+	public V putIfAbsent(K key, V value) {
+		V result = this.superset.putIfAbsent(key, value);
+		this.subset.delete(key);
+		return result;
+	}
+
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		boolean result = this.superset.replace(key, expected, value);
+		this.subset.delete(key);
+		return result;
+	}
+
+	@Override
+	public boolean delete(Object key, Object expected) {
+		boolean result = this.superset.delete(key, expected);
+		this.subset.delete(key);
+		return result;
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V result = this.superset.compute(key, remappingFunction);
+		this.subset.delete(key);
+		return result;
+	}
+
 	@Override
 	public boolean has(Object key) {
 		if (this.subset.has(key)) {
@@ -113,6 +148,16 @@ public class CachedStorage<K, V> implements IStorage<K, V>, ICache {
 		return this.superset.iterator();
 	}
 
+	@Override
+	public Iterator<K> keyIterator() {
+		return this.superset.keyIterator();
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		return this.superset.valueIterator();
+	}
+
 	@Override
 	public void flush() {
 		this.subset.clear();
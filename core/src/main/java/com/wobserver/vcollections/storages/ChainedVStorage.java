@@ -144,12 +144,24 @@ public class ChainedVStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerato
 	 */
 	@Override
 	public V read(Object key) {
+		return this.lookup(key).orElse(null);
+	}
+
+	/**
+	 * Looks up the key in the underlying storages one by one, and returns the first found.
+	 *
+	 * @param key
+	 * @return
+	 */
+	@Override
+	public Lookup<V> lookup(Object key) {
 		for (IStorage<K, V> storage : this.storages) {
-			if (storage.has(key)) {
-				return storage.read(key);
+			Lookup<V> result = storage.lookup(key);
+			if (result.isPresent()) {
+				return result;
 			}
 		}
-		return null;
+		return Lookup.absent();
 	}
 
 	/**
@@ -4,6 +4,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
 import java.util.function.Consumer;
 import com.wobserver.vcollections.keygenerators.IKeyGenerator;
 import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
@@ -143,6 +144,12 @@ public class ClusteredVStorage<K, V> implements IStorage<K, V>, IAccessKeyGenera
 		return storage.read(key);
 	}
 
+	@Override
+	public Lookup<V> lookup(Object key) {
+		IStorage<K, V> storage = this.select(key);
+		return storage.lookup(key);
+	}
+
 	/**
 	 * If any storage has the key, then it will updates that
 	 * if no one has it, than the first not full will have it.
@@ -275,6 +282,85 @@ public class ClusteredVStorage<K, V> implements IStorage<K, V>, IAccessKeyGenera
 		return new ClusteredVStorageIterator();
 	}
 
+	/**
+	 * Returns with a spliterator splits by the underlying storages first,
+	 * and by the spliterator of the storage if only one storage remained.
+	 *
+	 * @return
+	 */
+	@Override
+	public Spliterator<Map.Entry<K, V>> spliterator() {
+		return new ClusteredVStorageSpliterator(0, this.storages.size());
+	}
+
+	private class ClusteredVStorageSpliterator implements Spliterator<Map.Entry<K, V>> {
+
+		private int shard;
+		private final int fence;
+		private Spliterator<Map.Entry<K, V>> actual;
+
+		ClusteredVStorageSpliterator(int shard, int fence) {
+			this.shard = shard;
+			this.fence = fence;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+			while (this.actual != null || this.shard < this.fence) {
+				if (this.actual == null) {
+					this.actual = ClusteredVStorage.this.storages.get(this.shard++).spliterator();
+				}
+				if (this.actual.tryAdvance(action)) {
+					return true;
+				}
+				this.actual = null;
+			}
+			return false;
+		}
+
+		@Override
+		public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+			if (this.actual != null) {
+				this.actual.forEachRemaining(action);
+				this.actual = null;
+			}
+			for (; this.shard < this.fence; ++this.shard) {
+				ClusteredVStorage.this.storages.get(this.shard).spliterator().forEachRemaining(action);
+			}
+		}
+
+		@Override
+		public Spliterator<Map.Entry<K, V>> trySplit() {
+			if (this.actual == null && 1 < this.fence - this.shard) {
+				int middle = (this.shard + this.fence) >>> 1;
+				Spliterator<Map.Entry<K, V>> prefix = new ClusteredVStorageSpliterator(this.shard, middle);
+				this.shard = middle;
+				return prefix;
+			}
+			if (this.actual == null && this.shard < this.fence) {
+				this.actual = ClusteredVStorage.this.storages.get(this.shard++).spliterator();
+			}
+			if (this.actual == null || this.shard < this.fence) {
+				return null;
+			}
+			return this.actual.trySplit();
+		}
+
+		@Override
+		public long estimateSize() {
+			long result = this.actual == null ? 0L : this.actual.estimateSize();
+			for (int i = this.shard; i < this.fence; ++i) {
+				result += ClusteredVStorage.this.storages.get(i).entries();
+			}
+			return result;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+
 	private class ClusteredVStorageIterator<E> implements Iterator<Map.Entry<K, V>> {
 
 		private boolean checked = false;
@@ -0,0 +1,358 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * A thread-safe in-memory storage backed by a {@link ConcurrentHashMap}.
+ * <p>
+ * Reads are lock-free, and writes only lock the bin of the key. The number of entries is
+ * taken from the striped counter of the map, so it does not contend between writers.
+ * Null keys and values are stored by replacing them with a placeholder.
+ * <p>
+ * The capacity is checked when a new key is inserted, but inserts of different keys
+ * are not serialized, hence concurrent inserts can exceed the capacity by the number of
+ * the concurrently inserting threads. {@link ConcurrentMemoryStorage#swap(Object, Object)}
+ * and the batched operations are not atomic.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class ConcurrentMemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K> {
+
+	private static final Object NULL = new Object();
+
+	private volatile IKeyGenerator<K> keyGenerator;
+	private final ConcurrentHashMap<Object, Object> map;
+	private final Long maxSize;
+
+	public ConcurrentMemoryStorage(IKeyGenerator<K> keyGenerator, Map<K, V> map, Long maxSize) {
+		this.map = new ConcurrentHashMap<>();
+		this.maxSize = maxSize == null ? IStorage.NO_MAX_SIZE : maxSize;
+		this.keyGenerator = keyGenerator;
+		if (map != null) {
+			map.forEach((key, value) -> this.map.put(mask(key), mask(value)));
+		}
+	}
+
+	@Override
+	public Long entries() {
+		return this.map.mappingCount();
+	}
+
+	@Override
+	public Long capacity() {
+		return this.maxSize;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.maxSize <= this.map.mappingCount();
+	}
+
+	@Override
+	public void clear() {
+		this.map.clear();
+	}
+
+	@Override
+	public boolean has(Object key) {
+		return this.map.containsKey(mask(key));
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.map.isEmpty();
+	}
+
+	@Override
+	public K create(V value) {
+		IKeyGenerator<K> keyGenerator = this.keyGenerator;
+		if (keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		K key = keyGenerator.get();
+		this.map.put(mask(key), mask(value));
+		return key;
+	}
+
+	@Override
+	public V read(Object key) {
+		return unmask(this.map.get(mask(key)));
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		Object value = this.map.get(mask(key));
+		if (value == null) {
+			return Lookup.absent();
+		}
+		return Lookup.of(unmask(value));
+	}
+
+	@Override
+	public void update(K key, V value) {
+		if (this.maxSize == NO_MAX_SIZE) {
+			this.map.put(mask(key), mask(value));
+			return;
+		}
+		this.map.compute(mask(key), (k, oldValue) -> {
+			if (oldValue == null && this.isFull()) {
+				throw new OutOfSpaceException();
+			}
+			return mask(value);
+		});
+	}
+
+	@Override
+	public void swap(K key1, K key2) {
+		Object value1 = this.map.get(mask(key1));
+		if (value1 == null) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		Object value2 = this.map.get(mask(key2));
+		if (value2 == null) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		this.map.put(mask(key1), value2);
+		this.map.put(mask(key2), value1);
+	}
+
+	@Override
+	public void delete(Object key) {
+		this.map.remove(mask(key));
+	}
+
+	@Override
+	public List<K> createAll(List<V> values) {
+		IKeyGenerator<K> keyGenerator = this.keyGenerator;
+		if (keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		this.checkCapacityFor(values.size());
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			K key = keyGenerator.get();
+			this.map.put(mask(key), mask(value));
+			result.add(key);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		for (K key : keys) {
+			Object value = this.map.get(mask(key));
+			if (value != null) {
+				result.put(key, unmask(value));
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		if (this.maxSize != NO_MAX_SIZE) {
+			long newEntries = entries.keySet().stream().filter(key -> !this.map.containsKey(mask(key))).count();
+			this.checkCapacityFor(newEntries);
+		}
+		entries.forEach((key, value) -> this.map.put(mask(key), mask(value)));
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		for (Object key : keys) {
+			this.map.remove(mask(key));
+		}
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return unmask(this.map.putIfAbsent(mask(key), mask(value)));
+		}
+		Object[] present = new Object[1];
+		this.map.compute(mask(key), (k, oldValue) -> {
+			if (oldValue != null) {
+				present[0] = oldValue;
+				return oldValue;
+			}
+			if (this.isFull()) {
+				throw new OutOfSpaceException();
+			}
+			return mask(value);
+		});
+		return unmask(present[0]);
+	}
+
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		return this.map.replace(mask(key), mask(expected), mask(value));
+	}
+
+	@Override
+	public boolean delete(Object key, Object expected) {
+		return this.map.remove(mask(key), mask(expected));
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		Object result = this.map.compute(mask(key), (k, oldValue) -> {
+			V newValue = remappingFunction.apply(key, unmask(oldValue));
+			if (newValue == null) {
+				return null;
+			}
+			if (oldValue == null && this.isFull()) {
+				throw new OutOfSpaceException();
+			}
+			return newValue;
+		});
+		return unmask(result);
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		Iterator<Map.Entry<Object, Object>> iterator = this.map.entrySet().iterator();
+		return new Iterator<Map.Entry<K, V>>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Map.Entry<K, V> next() {
+				return new ConcurrentMemoryEntry(iterator.next());
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	@Override
+	public Iterator<K> keyIterator() {
+		Iterator<Object> iterator = this.map.keySet().iterator();
+		return new Iterator<K>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				return unmask(iterator.next());
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		Iterator<Object> iterator = this.map.values().iterator();
+		return new Iterator<V>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public V next() {
+				return unmask(iterator.next());
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	/**
+	 * Splits as the spliterator of the underlying {@link ConcurrentHashMap}
+	 *
+	 * @return
+	 */
+	@Override
+	public Spliterator<Map.Entry<K, V>> spliterator() {
+		return this.map.entrySet().stream()
+				.<Map.Entry<K, V>>map(ConcurrentMemoryEntry::new)
+				.spliterator();
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	private void checkCapacityFor(long newEntries) {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return;
+		}
+		if (this.maxSize < this.map.mappingCount() + newEntries) {
+			throw new OutOfSpaceException();
+		}
+	}
+
+	private static Object mask(Object item) {
+		return item == null ? NULL : item;
+	}
+
+	private static <T> T unmask(Object item) {
+		return item == NULL ? null : (T) item;
+	}
+
+	private final class ConcurrentMemoryEntry implements Map.Entry<K, V> {
+		private final Object key;
+		private Object value;
+
+		ConcurrentMemoryEntry(Map.Entry<Object, Object> entry) {
+			this.key = entry.getKey();
+			this.value = entry.getValue();
+		}
+
+		@Override
+		public K getKey() {
+			return unmask(this.key);
+		}
+
+		@Override
+		public V getValue() {
+			return unmask(this.value);
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = unmask(this.value);
+			this.value = mask(value);
+			ConcurrentMemoryStorage.this.map.put(this.key, this.value);
+			return result;
+		}
+	}
+}
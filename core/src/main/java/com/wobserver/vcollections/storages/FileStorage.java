@@ -3,38 +3,116 @@ package com.wobserver.vcollections.storages;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
 import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.DirectoryStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
 import java.util.UUID;
-
-public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K> {
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A storage writing every entry into a separate file of a directory.
+ * <p>
+ * The names of the files are kept in memory, so checking the existence of a key, and reading
+ * a missing key does not touch the file system. The names are journaled into a manifest file of the directory,
+ * which is used to open the storage again without listing the directory. A name is appended to the manifest after
+ * its file is written, and its removal is appended before its file is deleted, so a file left by an interrupted
+ * modification is never listed by the manifest. The manifest is compacted when it is opened, when it holds
+ * much more records than names, and when the storage is closed. A directory without a readable manifest is
+ * listed in parallel. The directory must be modified only through the storage, the files added by others are
+ * not found until the manifest is deleted.
+ * <p>
+ * The names starting with {@link #MANIFEST_FILE_NAME} are reserved, the keys mapped to such a name are rejected.
+ * <p>
+ * The values are written by an {@link ISerializer}, by default JSON by the provided {@link ObjectMapper}.
+ * <p>
+ * The files can be distributed into subdirectories, so a directory does not hold too many files.
+ * With n shard levels, a file is placed under n nested directories named by the consecutive
+ * bytes of the hash of the file name in hex, each level having at most 256 subdirectories.
+ * The same number of shard levels must be used every time the directory is opened.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>, Closeable {
+
+	/**
+	 * The name of the file in the directory holding the names of the entries
+	 */
+	public static final String MANIFEST_FILE_NAME = ".vcollections-manifest";
+
+	/**
+	 * The maximal number of nested shard directories
+	 */
+	public static final int MAX_SHARD_LEVELS = 4;
+
+	private static final int MANIFEST_VERSION = 2;
+	private static final byte MANIFEST_ADD = 1;
+	private static final byte MANIFEST_REMOVE = 2;
+	// the number of records the manifest may hold before it is compacted, besides the twice of the names
+	private static final long MANIFEST_COMPACTION_THRESHOLD = 1024;
 
 	private long capacity;
 	private final String directory;
-	private final ObjectMapper valueMapper;
-	private final Class<V> valueType;
+	private final ISerializer<V> valueSerializer;
 	private IKeyGenerator<K> keyGenerator;
 	private long entries;
 	private IMapper<K, String> keyMapper;
+	private final Set<String> fileNames;
+	private final int shardLevels;
+	private final Set<Path> shards = new HashSet<>();
+	private final Path manifest;
+	private long manifestRecords;
 
 	public FileStorage(IMapper<K, String> keyMapper, Class<V> valueType, ObjectMapper valueMapper, String directory, IKeyGenerator<K> keyGenerator, Long capacity) throws IOException {
+		this(keyMapper, valueType, valueMapper, directory, keyGenerator, capacity, 0);
+	}
+
+	public FileStorage(IMapper<K, String> keyMapper, Class<V> valueType, ObjectMapper valueMapper, String directory, IKeyGenerator<K> keyGenerator, Long capacity, int shardLevels) throws IOException {
+		this(keyMapper, new JacksonSerializer<>(valueMapper, valueType), directory, keyGenerator, capacity, shardLevels);
+	}
+
+	public FileStorage(IMapper<K, String> keyMapper, ISerializer<V> valueSerializer, String directory, IKeyGenerator<K> keyGenerator, Long capacity, int shardLevels) throws IOException {
+		if (shardLevels < 0 || MAX_SHARD_LEVELS < shardLevels) {
+			throw new IllegalArgumentException("The number of shard levels must be between 0 and " + MAX_SHARD_LEVELS);
+		}
+		this.shardLevels = shardLevels;
 		this.keyMapper = keyMapper;
-		this.valueType = valueType;
-		this.valueMapper = valueMapper;
+		this.valueSerializer = valueSerializer;
 		this.directory = directory;
 		this.capacity = capacity;
 		this.keyGenerator = keyGenerator;
 
-		DirectoryStream<Path> directoryStream = Files.newDirectoryStream(Paths.get(this.directory));
-
-		for (Path path : directoryStream) {
-			++this.entries;
+		this.manifest = Paths.get(this.directory).resolve(MANIFEST_FILE_NAME);
+		Set<String> loaded = Files.exists(this.manifest) ? this.readManifest() : null;
+		this.fileNames = loaded != null ? loaded : this.listFileNames();
+		this.entries = this.fileNames.size();
+		if (loaded == null || this.isManifestOversized()) {
+			this.writeManifest();
 		}
 	}
 
@@ -76,14 +154,32 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 
 	@Override
 	public V read(Object key) {
-		Path folder = Paths.get(this.directory);
 		String fileName = this.getFileName(key);
-		Path destination = folder.resolve(fileName);
-		if (!Files.exists(destination)) {
+		if (!this.fileNames.contains(fileName)) {
 			return null;
 		}
+		Path destination = this.pathOf(fileName);
+		try {
+			return this.readFile(destination);
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Reads the file without checking its existence on the file system first
+	 */
+	@Override
+	public Lookup<V> lookup(Object key) {
+		String fileName = this.getFileName(key);
+		if (!this.fileNames.contains(fileName)) {
+			return Lookup.absent();
+		}
+		Path destination = this.pathOf(fileName);
 		try {
-			return this.valueMapper.readValue(destination.toFile(), this.valueType);
+			return Lookup.of(this.readFile(destination));
+		} catch (NoSuchFileException e) {
+			return Lookup.absent();
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
@@ -91,70 +187,153 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 
 	@Override
 	public void update(K key, V value) {
-		Path folder = Paths.get(this.directory);
-		String fileName = this.keyMapper.encode(key);
-		Path destination = folder.resolve(fileName);
-		boolean isNew = !Files.exists(destination);
+		String fileName = this.toFileName(key);
+		boolean isNew = !this.fileNames.contains(fileName);
 		if (isNew && this.isFull()) {
 			throw new OutOfSpaceException();
 		}
+		Path destination = isNew ? this.createPathOf(fileName) : this.pathOf(fileName);
 		try {
-			this.valueMapper.writeValue(destination.toFile(), value);
+			this.writeFile(destination, value);
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
 		if (isNew) {
-			++this.entries;
+			this.journal(MANIFEST_ADD, List.of(fileName));
 		}
 	}
 
 	@Override
 	public boolean has(Object key) {
-		Path folder = Paths.get(this.directory);
-		String fileName = this.getFileName(key);
-		return Files.exists(folder.resolve(fileName));
+		return this.fileNames.contains(this.getFileName(key));
 	}
 
 	@Override
 	public void delete(Object key) {
-		Path folder = Paths.get(this.directory);
 		String fileName = this.getFileName(key);
-		Path destination = folder.resolve(fileName);
-		if (!Files.exists(destination)) {
+		if (!this.fileNames.contains(fileName)) {
 			return;
 		}
+		this.journal(MANIFEST_REMOVE, List.of(fileName));
 		try {
-			Files.delete(destination);
-			--this.entries;
+			Files.deleteIfExists(this.pathOf(fileName));
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
 	}
 
+	@Override
+	public List<K> createAll(List<V> values) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException("Create operation without keyGenerator is not supported.");
+		}
+		if (this.capacity != NO_MAX_SIZE && this.capacity < this.entries + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		Map<K, V> entries = new HashMap<>();
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			K key = this.keyGenerator.get();
+			entries.put(key, value);
+			result.add(key);
+		}
+		this.updateAll(entries);
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		for (K key : keys) {
+			String fileName = this.getFileName(key);
+			if (!this.fileNames.contains(fileName)) {
+				continue;
+			}
+			Path destination = this.pathOf(fileName);
+			try {
+				result.put(key, this.readFile(destination));
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		Map<String, V> files = new HashMap<>();
+		long newEntries = 0;
+		for (Map.Entry<K, V> entry : entries.entrySet()) {
+			String fileName = this.toFileName(entry.getKey());
+			if (!this.fileNames.contains(fileName)) {
+				++newEntries;
+			}
+			files.put(fileName, entry.getValue());
+		}
+		if (0 < newEntries && this.capacity != NO_MAX_SIZE && this.capacity < this.entries + newEntries) {
+			throw new OutOfSpaceException();
+		}
+		List<String> added = new ArrayList<>();
+		try {
+			for (Map.Entry<String, V> file : files.entrySet()) {
+				boolean isNew = !this.fileNames.contains(file.getKey());
+				try {
+					this.writeFile(isNew ? this.createPathOf(file.getKey()) : this.pathOf(file.getKey()), file.getValue());
+				} catch (IOException e) {
+					throw new RuntimeException(e.getMessage());
+				}
+				if (isNew) {
+					added.add(file.getKey());
+				}
+			}
+		} finally {
+			// the files written before a failure are journaled as well
+			this.journal(MANIFEST_ADD, added);
+		}
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		Set<String> removed = new HashSet<>();
+		for (Object key : keys) {
+			String fileName = this.getFileName(key);
+			if (this.fileNames.contains(fileName)) {
+				removed.add(fileName);
+			}
+		}
+		this.journal(MANIFEST_REMOVE, removed);
+		for (String fileName : removed) {
+			try {
+				Files.deleteIfExists(this.pathOf(fileName));
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+		}
+	}
+
 	@Override
 	public void swap(K key1, K key2) {
-		Path folder = Paths.get(this.directory);
 		String fileName1 = this.getFileName(key1);
 		String fileName2 = this.getFileName(key2);
-		Path path1 = folder.resolve(fileName1);
-		Path path2 = folder.resolve(fileName2);
-		if (!Files.exists(path1)) {
+		if (!this.fileNames.contains(fileName1)) {
 			throw new KeyNotFoundException("key" + key1.toString() + " does not exists.");
 		}
-		if (!Files.exists(path2)) {
+		if (!this.fileNames.contains(fileName2)) {
 			throw new KeyNotFoundException("key" + key2.toString() + " does not exists.");
 		}
+		Path path1 = this.pathOf(fileName1);
+		Path path2 = this.pathOf(fileName2);
 		File file1 = path1.toFile();
 		File file2 = path2.toFile();
 		V value1 = null;
 		try {
-			value1 = this.valueMapper.readValue(file1, this.valueType);
+			value1 = this.readFile(path1);
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
 		file2.renameTo(file1);
 		try {
-			this.valueMapper.writeValue(file2, value1);
+			this.writeFile(path2, value1);
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
@@ -162,22 +341,68 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 
 	@Override
 	public void clear() {
-		Path folder = Paths.get(this.directory);
-		try (DirectoryStream<Path> stream = Files.newDirectoryStream(folder, entry -> Files.isRegularFile(entry))) {
-			for (Path entry : stream) {
-				Files.delete(entry);
-				--this.entries;
+		Set<String> removed = new HashSet<>(this.fileNames);
+		this.fileNames.clear();
+		this.entries = 0;
+		try {
+			this.writeManifest();
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+		try {
+			for (String fileName : removed) {
+				Files.deleteIfExists(this.pathOf(fileName));
 			}
 		} catch (IOException e) {
 			throw new RuntimeException(e.getMessage());
 		}
 	}
 
+	/**
+	 * Compacts the manifest. The manifest is kept up to date by every modification,
+	 * so a storage not closed is opened by the manifest as well.
+	 *
+	 * @throws IOException if the manifest cannot be written
+	 */
+	@Override
+	public void close() throws IOException {
+		if (this.manifestRecords != this.fileNames.size()) {
+			this.writeManifest();
+		}
+	}
+
 	@Override
 	public Iterator<Map.Entry<K, V>> iterator() {
 		return new EntryIterator();
 	}
 
+	/**
+	 * Iterates over the names of the entries kept in memory without reading the files
+	 */
+	@Override
+	public Iterator<K> keyIterator() {
+		return new KeyIterator();
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		return new ValueIterator();
+	}
+
+
+	/**
+	 * Splits the names of the entries existed when the spliterator was created,
+	 * so the files can be read in parallel
+	 */
+	@Override
+	public Spliterator<Map.Entry<K, V>> spliterator() {
+		return new FileSpliterator(new ArrayList<>(this.fileNames).spliterator());
+	}
+
+	@Override
+	public IStorageCursor<K, V> cursor() {
+		return new FileCursor();
+	}
 
 	private String getFileName(Object key) {
 		// TODO: add possibility to define your own!
@@ -187,6 +412,191 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 		return key.toString();
 	}
 
+	private V readFile(Path path) throws IOException {
+		return this.valueSerializer.deserialize(ByteBuffer.wrap(Files.readAllBytes(path)));
+	}
+
+	private void writeFile(Path path, V value) throws IOException {
+		ByteBuffer buffer = this.valueSerializer.serialize(value);
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+
+	/**
+	 * @return the name of the file of the key, which must not be a name reserved by the storage
+	 */
+	private String toFileName(K key) {
+		String result = this.keyMapper.encode(key);
+		if (result.startsWith(MANIFEST_FILE_NAME)) {
+			throw new IllegalArgumentException("The key " + key + " is mapped to the reserved file name " + result);
+		}
+		return result;
+	}
+
+	/**
+	 * Appends the records of the names to the manifest, applies them to the names kept in memory,
+	 * and compacts the manifest if it has grown too much
+	 */
+	private void journal(byte operation, Collection<String> fileNames) {
+		if (fileNames.isEmpty()) {
+			return;
+		}
+		try {
+			try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(this.manifest, StandardOpenOption.CREATE, StandardOpenOption.APPEND)))) {
+				for (String fileName : fileNames) {
+					output.writeByte(operation);
+					output.writeUTF(fileName);
+				}
+			}
+			this.manifestRecords += fileNames.size();
+			if (operation == MANIFEST_ADD) {
+				this.fileNames.addAll(fileNames);
+			} else {
+				this.fileNames.removeAll(fileNames);
+			}
+			this.entries = this.fileNames.size();
+			if (this.isManifestOversized()) {
+				this.writeManifest();
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	private boolean isManifestOversized() {
+		return 2 * this.fileNames.size() + MANIFEST_COMPACTION_THRESHOLD < this.manifestRecords;
+	}
+
+	/**
+	 * Replaces the manifest atomically by one holding the current names only
+	 */
+	private void writeManifest() throws IOException {
+		Path temporary = this.manifest.resolveSibling(MANIFEST_FILE_NAME + ".tmp");
+		try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			output.writeInt(MANIFEST_VERSION);
+			for (String fileName : this.fileNames) {
+				output.writeByte(MANIFEST_ADD);
+				output.writeUTF(fileName);
+			}
+		}
+		Files.move(temporary, this.manifest, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		this.manifestRecords = this.fileNames.size();
+	}
+
+	/**
+	 * Lists the entries of the directory, checking the type of the files in parallel.
+	 * If the files are sharded, the top level shards are walked in parallel.
+	 */
+	private Set<String> listFileNames() throws IOException {
+		Path folder = Paths.get(this.directory);
+		if (this.shardLevels == 0) {
+			try (Stream<Path> paths = Files.list(folder)) {
+				return paths
+						.parallel()
+						.filter(Files::isRegularFile)
+						.map(path -> path.getFileName().toString())
+						.filter(fileName -> !fileName.startsWith(MANIFEST_FILE_NAME))
+						.collect(Collectors.toCollection(HashSet::new));
+			}
+		}
+		List<Path> topShards;
+		try (Stream<Path> paths = Files.list(folder)) {
+			topShards = paths.filter(Files::isDirectory).collect(Collectors.toList());
+		}
+		return topShards
+				.parallelStream()
+				.flatMap(shard -> {
+					try (Stream<Path> paths = Files.find(shard, this.shardLevels, (path, attributes) -> attributes.isRegularFile())) {
+						return paths
+								.filter(path -> shard.relativize(path).getNameCount() == this.shardLevels)
+								.map(path -> path.getFileName().toString())
+								.collect(Collectors.toList())
+								.stream();
+					} catch (IOException e) {
+						throw new RuntimeException(e.getMessage());
+					}
+				})
+				.collect(Collectors.toCollection(HashSet::new));
+	}
+
+	/**
+	 * @return the path of the file of an entry
+	 */
+	private Path pathOf(String fileName) {
+		return this.shardOf(fileName).resolve(fileName);
+	}
+
+	/**
+	 * @return the path of the file of an entry after the shard directories are created
+	 */
+	private Path createPathOf(String fileName) {
+		Path shard = this.shardOf(fileName);
+		if (0 < this.shardLevels && !this.shards.contains(shard)) {
+			try {
+				Files.createDirectories(shard);
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+			this.shards.add(shard);
+		}
+		return shard.resolve(fileName);
+	}
+
+	private Path shardOf(String fileName) {
+		Path result = Paths.get(this.directory);
+		if (this.shardLevels == 0) {
+			return result;
+		}
+		int hash = fileName.hashCode();
+		// spreads the bits, so file names differing only at the end get into different shards
+		hash ^= (hash >>> 16);
+		hash *= 0x85EBCA6B;
+		hash ^= (hash >>> 13);
+		for (int level = 0; level < this.shardLevels; ++level) {
+			result = result.resolve(String.format("%02x", (hash >>> (8 * level)) & 0xFF));
+		}
+		return result;
+	}
+
+	/**
+	 * Replays the records of the manifest. A record cut by an interrupted append is dropped,
+	 * and the manifest is marked to be compacted, so no record is appended after it.
+	 *
+	 * @return the names of the entries journaled in the manifest, or null if the manifest cannot be used
+	 */
+	private Set<String> readManifest() {
+		try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(this.manifest)))) {
+			if (input.readInt() != MANIFEST_VERSION) {
+				return null;
+			}
+			Set<String> result = new HashSet<>();
+			this.manifestRecords = 0;
+			for (int operation = input.read(); operation != -1; operation = input.read()) {
+				String fileName;
+				try {
+					fileName = input.readUTF();
+				} catch (EOFException e) {
+					this.manifestRecords = Long.MAX_VALUE;
+					return result;
+				}
+				if (operation == MANIFEST_ADD) {
+					result.add(fileName);
+				} else if (operation == MANIFEST_REMOVE) {
+					result.remove(fileName);
+				} else {
+					return null;
+				}
+				++this.manifestRecords;
+			}
+			return result;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
 	@Override
 	public void setKeyGenerator(IKeyGenerator<K> value) {
 		this.keyGenerator = value;
@@ -198,45 +608,44 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 	}
 
 
+	/**
+	 * Iterates over the names of the entries existed when the iterator was created
+	 */
 	abstract class FileIterator {
-		private Iterator<Path> iterator;
-
-		FileIterator() {
-			Path folder = Paths.get(FileStorage.this.directory);
-			try {
-				this.iterator = Files.newDirectoryStream(folder, entry -> Files.isRegularFile(entry)).iterator();
-			} catch (IOException e) {
-				throw new RuntimeException(e.getMessage());
-			}
-		}
+		private final Iterator<String> iterator = new ArrayList<>(FileStorage.this.fileNames).iterator();
+		private Path last;
 
 		public final boolean hasNext() {
 			return this.iterator.hasNext();
 		}
 
 		public final Map.Entry<K, V> nextEntry() {
-			Path path = this.iterator.next();
-			return new FileStorage.FileEntry(path);
+			this.last = FileStorage.this.pathOf(this.iterator.next());
+			return new FileStorage.FileEntry(this.last);
 		}
 
 		public final void remove() {
-			this.iterator.remove();
+			if (this.last == null) {
+				throw new IllegalStateException();
+			}
+			FileStorage.this.delete(FileStorage.this.keyMapper.decode(this.last.getFileName().toString()));
+			this.last = null;
 		}
 	}
 
-//	final class KeyIterator extends FileStorage<K, V>.FileIterator
-//			implements Iterator<K> {
-//		public final K next() {
-//			return nextEntry().getKey();
-//		}
-//	}
-//
-//	final class ValueIterator extends FileStorage<K, V>.FileIterator
-//			implements Iterator<V> {
-//		public final V next() {
-//			return nextEntry().getValue();
-//		}
-//	}
+	final class KeyIterator extends FileStorage<K, V>.FileIterator
+			implements Iterator<K> {
+		public final K next() {
+			return nextEntry().getKey();
+		}
+	}
+
+	final class ValueIterator extends FileStorage<K, V>.FileIterator
+			implements Iterator<V> {
+		public final V next() {
+			return nextEntry().getValue();
+		}
+	}
 
 	final class EntryIterator extends FileStorage<K, V>.FileIterator
 			implements Iterator<Map.Entry<K, V>> {
@@ -245,6 +654,60 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 		}
 	}
 
+	private final class FileSpliterator implements Spliterator<Map.Entry<K, V>> {
+		private final Spliterator<String> fileNames;
+
+		FileSpliterator(Spliterator<String> fileNames) {
+			this.fileNames = fileNames;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+			return this.fileNames.tryAdvance(fileName -> action.accept(new FileEntry(FileStorage.this.pathOf(fileName))));
+		}
+
+		@Override
+		public Spliterator<Map.Entry<K, V>> trySplit() {
+			Spliterator<String> split = this.fileNames.trySplit();
+			return split == null ? null : new FileSpliterator(split);
+		}
+
+		@Override
+		public long estimateSize() {
+			return this.fileNames.estimateSize();
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.SIZED | Spliterator.SUBSIZED;
+		}
+	}
+
+	private final class FileCursor implements IStorageCursor<K, V> {
+		private final Iterator<String> iterator = new ArrayList<>(FileStorage.this.fileNames).iterator();
+
+		@Override
+		public List<Map.Entry<K, V>> fetch(int maxEntries) {
+			List<Map.Entry<K, V>> result = new ArrayList<>();
+			while (result.size() < maxEntries && this.iterator.hasNext()) {
+				Path path = FileStorage.this.pathOf(this.iterator.next());
+				K key = FileStorage.this.keyMapper.decode(path.getFileName().toString());
+				try {
+					V value = FileStorage.this.readFile(path);
+					result.add(new AbstractMap.SimpleEntry<>(key, value));
+				} catch (IOException e) {
+					throw new RuntimeException(e.getMessage());
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public boolean isFinished() {
+			return !this.iterator.hasNext();
+		}
+	}
+
 	// TODO: using objectfactory
 	private final class FileEntry implements Map.Entry<K, V> {
 
@@ -262,7 +725,7 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 		@Override
 		public V getValue() {
 			try {
-				return FileStorage.this.valueMapper.readValue(entryPath.toFile(), FileStorage.this.valueType);
+				return FileStorage.this.readFile(entryPath);
 			} catch (IOException e) {
 				throw new RuntimeException(e.getMessage());
 			}
@@ -271,8 +734,8 @@ public class FileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>
 		@Override
 		public V setValue(V value) {
 			try {
-				V oldValue = FileStorage.this.valueMapper.readValue(entryPath.toFile(), FileStorage.this.valueType);
-				FileStorage.this.valueMapper.writeValue(entryPath.toFile(), value);
+				V oldValue = FileStorage.this.readFile(entryPath);
+				FileStorage.this.writeFile(entryPath, value);
 				return oldValue;
 			} catch (IOException e) {
 				throw new RuntimeException(e.getMessage());
@@ -0,0 +1,73 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Represents the non-blocking counterpart of the single invocation mode CRUD operations of {@link IStorage}.
+ * <p>
+ * Storages having a non-blocking client (such as a redis storage) implement this interface natively,
+ * any other storage can be used through an {@link AsyncStorageAdapter}.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public interface IAsyncStorage<K, V> {
+
+	/**
+	 * Gives an {@link IAsyncStorage} for the provided storage.
+	 * <p>
+	 * If the storage implements {@link IAsyncStorage} it is returned as it is,
+	 * otherwise it is wrapped by an {@link AsyncStorageAdapter} running the operations on the given executor.
+	 *
+	 * @param storage  the storage we want to access asynchronously
+	 * @param executor the executor used if the storage does not support asynchronous operations natively
+	 * @param <K>      The type of the key
+	 * @param <V>      the type of the value
+	 * @return An {@link IAsyncStorage} to access the storage.
+	 */
+	static <K, V> IAsyncStorage<K, V> make(IStorage<K, V> storage, Executor executor) {
+		if (storage instanceof IAsyncStorage) {
+			return (IAsyncStorage<K, V>) storage;
+		}
+		return new AsyncStorageAdapter<>(storage, executor);
+	}
+
+	/**
+	 * Reads a value from the storage belongs to a given key.
+	 *
+	 * @param key the key to which a value belongs to
+	 * @return a future completed with the corresponding value or null if it does not found a value.
+	 * @see IStorage#read(Object)
+	 */
+	CompletableFuture<V> readAsync(Object key);
+
+	/**
+	 * Updates the storage for the given key,value pair.
+	 *
+	 * @param key   The key of the entry
+	 * @param value The value of the entry
+	 * @return a future completed when the update is done, or completed exceptionally with
+	 * {@link OutOfSpaceException} if the key is new and the storage is full
+	 * @see IStorage#update(Object, Object)
+	 */
+	CompletableFuture<Void> updateAsync(K key, V value);
+
+	/**
+	 * Deletes the value from the storage belongs to a key.
+	 *
+	 * @param key the key of the entry
+	 * @return a future completed when the delete is done
+	 * @see IStorage#delete(Object)
+	 */
+	CompletableFuture<Void> deleteAsync(Object key);
+
+	/**
+	 * Checks if the storage has the key
+	 *
+	 * @param key the key of the entry
+	 * @return a future completed with true if the key exists, false otherwise
+	 * @see IStorage#has(Object)
+	 */
+	CompletableFuture<Boolean> hasAsync(Object key);
+}
@@ -0,0 +1,20 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Iterator;
+
+/**
+ * Represents an iterator holding a resource of a storage, such as a server side cursor.
+ * <p>
+ * The resource is released when the iteration is exhausted. An iteration abandoned before its end
+ * should be closed, or else the resource is held until the storage releases it by itself.
+ *
+ * @param <T> the type of the iterated items
+ */
+public interface ICloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+	/**
+	 * Releases the resources the iterator holds.
+	 */
+	@Override
+	void close();
+}
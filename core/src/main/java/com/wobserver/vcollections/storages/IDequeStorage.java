@@ -0,0 +1,79 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a storage keeping its values densely, where the keys are the indexes {@code [0, entries())},
+ * and which adds and removes values at both of its ends in one operation.
+ * <p>
+ * Unlike the slots of an {@link IIndexedStorage}, the indexes have no holes: {@link #remove(long)} shifts
+ * the following values down by one, {@link #insertAll(long, List)} shifts them up, and {@link #put(long, Object)}
+ * accepts only an existing index or the index after the last value.
+ * <p>
+ * A {@link com.wobserver.vcollections.VArrayList} inserts and removes its items through these entry points
+ * if the storage implements this interface.
+ *
+ * @param <V> the type of the value
+ */
+public interface IDequeStorage<V> extends ILongKeyStorage<V> {
+
+	/**
+	 * Inserts the values before the value of the index, the indexes of the following values are increased
+	 * by the number of the inserted values.
+	 *
+	 * @param index  the index of the first inserted value, at most the number of the values
+	 * @param values the inserted values
+	 * @throws IndexOutOfBoundsException if the index is negative or after the last value
+	 * @throws OutOfSpaceException       if the values do not fit into the storage
+	 */
+	void insertAll(long index, List<V> values);
+
+	/**
+	 * Reads the values of the indexes {@code [from, to)}.
+	 * <p>
+	 * The default implementation reads the values one by one, storages able to read
+	 * a range of values at once should override it.
+	 *
+	 * @param from the index of the first value
+	 * @param to   the index after the last value
+	 * @return the values in the order of their indexes
+	 */
+	default List<V> getRange(long from, long to) {
+		List<V> result = new ArrayList<>((int) Math.max(0L, to - from));
+		for (long index = from; index < to; ++index) {
+			result.add(this.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Puts the value before the first slot, the indexes of the other values are increased by one.
+	 *
+	 * @param value the value
+	 * @throws OutOfSpaceException if the storage is full
+	 */
+	void addFirst(V value);
+
+	/**
+	 * Puts the value after the last slot.
+	 *
+	 * @param value the value
+	 * @throws OutOfSpaceException if the storage is full
+	 */
+	void addLast(V value);
+
+	/**
+	 * Removes the value of the first slot, the indexes of the other values are decreased by one.
+	 *
+	 * @return the removed value, or null if the storage is empty
+	 */
+	V removeFirst();
+
+	/**
+	 * Removes the value of the last slot.
+	 *
+	 * @return the removed value, or null if the storage is empty
+	 */
+	V removeLast();
+}
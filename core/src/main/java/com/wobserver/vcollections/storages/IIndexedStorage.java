@@ -0,0 +1,53 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a storage addressing its values by their positions, where the keys
+ * are the non-negative indexes of the slots the values are stored in.
+ * <p>
+ * {@link IStorage#create(Object)} appends the value after the last occupied slot,
+ * and a block of slots can be moved in one operation, so a {@link com.wobserver.vcollections.VArrayList}
+ * shifts its items at insertion and removal without reading and writing them one by one.
+ *
+ * @param <V> the type of the value
+ */
+public interface IIndexedStorage<V> extends ILongKeyStorage<V> {
+
+	/**
+	 * @return the index after the last occupied slot
+	 */
+	long fence();
+
+	/**
+	 * Moves the values of the slots {@code [from, from + length)} to the slots {@code [to, to + length)}.
+	 * <p>
+	 * The ranges can overlap, the values of the destination slots are overwritten,
+	 * and the source slots not covered by the destination range become empty.
+	 *
+	 * @param from   the index of the first moved slot
+	 * @param to     the index the first slot is moved to
+	 * @param length the number of moved slots
+	 * @throws IndexOutOfBoundsException if any of the indexes is negative
+	 */
+	void move(long from, long to, long length);
+
+	/**
+	 * Reads the values of the slots {@code [from, to)}.
+	 * <p>
+	 * The default implementation reads the slots one by one, storages able to read
+	 * a range of slots at once should override it.
+	 *
+	 * @param from the index of the first slot
+	 * @param to   the index after the last slot
+	 * @return the values of the slots in the order of their indexes, null for the empty slots
+	 */
+	default List<V> getRange(long from, long to) {
+		List<V> result = new ArrayList<>((int) Math.max(0L, to - from));
+		for (long index = from; index < to; ++index) {
+			result.add(this.get(index));
+		}
+		return result;
+	}
+}
@@ -0,0 +1,54 @@
+package com.wobserver.vcollections.storages;
+
+/**
+ * Represents an {@link IStorage} keyed by long values, which provides entry points
+ * taking primitive keys, so the keys are not boxed on access.
+ * <p>
+ * Virtual collections addressing their items by indexes (such as a {@link com.wobserver.vcollections.VArrayList})
+ * use these entry points if the storage implements this interface.
+ *
+ * @param <V> the type of the value
+ */
+public interface ILongKeyStorage<V> extends IStorage<Long, V> {
+
+	/**
+	 * Reads a value from the storage belongs to a given key.
+	 *
+	 * @param key the key to which a value belongs to
+	 * @return the corresponding value or null if it does not found a value.
+	 */
+	V get(long key);
+
+	/**
+	 * Updates or creates an entry for the given key.
+	 * <p>
+	 * The underlying implementation must check the available capacity if the key does not exist,
+	 * and throws {@link OutOfSpaceException} if there is not enough space to perform the operation.
+	 *
+	 * @param key   the key the value belongs to
+	 * @param value the value
+	 */
+	void put(long key, V value);
+
+	/**
+	 * @param key the key we want to check
+	 * @return true if the storage has an entry for the key, false otherwise
+	 */
+	boolean contains(long key);
+
+	/**
+	 * Deletes the entry belongs to the given key if it exists.
+	 *
+	 * @param key the key of the entry we want to delete
+	 */
+	void remove(long key);
+
+	/**
+	 * Swaps the values of two existing keys.
+	 *
+	 * @param key1 the first key
+	 * @param key2 the second key
+	 * @throws KeyNotFoundException if any of the keys does not exist
+	 */
+	void swap(long key1, long key2);
+}
@@ -0,0 +1,98 @@
+package com.wobserver.vcollections.storages;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Serializes values into {@link ByteBuffer}s and deserializes them from {@link ByteBuffer}s.
+ * <p>
+ * Storages keeping their values in binary form (files, off-heap memory, remote servers) use it to
+ * be independent from the format of the values. The implementations are selected by name
+ * through the {@link SerializerFactory}.
+ *
+ * @param <T> the type of the serialized values
+ */
+public interface ISerializer<T> {
+
+	/**
+	 * Creates a serializer from an {@link IMapper} to byte arrays.
+	 *
+	 * @param mapper the mapper encoding the values to byte arrays
+	 * @param <T>    the type of the serialized values
+	 * @return an {@link ISerializer} encoding the values by the mapper
+	 */
+	static <T> ISerializer<T> of(IMapper<T, byte[]> mapper) {
+		return new ISerializer<T>() {
+			@Override
+			public ByteBuffer serialize(T value) {
+				return ByteBuffer.wrap(mapper.encode(value));
+			}
+
+			@Override
+			public T deserialize(ByteBuffer buffer) {
+				if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.remaining() == buffer.array().length) {
+					buffer.position(buffer.limit());
+					return mapper.decode(buffer.array());
+				}
+				byte[] bytes = new byte[buffer.remaining()];
+				buffer.get(bytes);
+				return mapper.decode(bytes);
+			}
+		};
+	}
+
+	/**
+	 * Serializes the value. Null values are serialized as well.
+	 *
+	 * @param value the value to serialize
+	 * @return a buffer holding the serialized value between its position and limit
+	 */
+	ByteBuffer serialize(T value);
+
+	/**
+	 * Deserializes a value from the remaining bytes of the buffer. The buffer is consumed.
+	 *
+	 * @param buffer the buffer holding the serialized value between its position and limit
+	 * @return the deserialized value
+	 */
+	T deserialize(ByteBuffer buffer);
+
+	/**
+	 * Serializes the value into a stream. The implementations writing their output
+	 * incrementally override it to avoid the intermediate buffer.
+	 *
+	 * @param value  the value to serialize
+	 * @param output the stream the serialized value is written to
+	 * @throws IOException if the stream cannot be written
+	 */
+	default void serialize(T value, OutputStream output) throws IOException {
+		ByteBuffer buffer = this.serialize(value);
+		if (buffer.hasArray()) {
+			output.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+			return;
+		}
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		output.write(bytes);
+	}
+
+	/**
+	 * Creates an {@link IMapper} to byte arrays, for storages taking their values as byte arrays.
+	 *
+	 * @return an {@link IMapper} encoding the values by this serializer
+	 */
+	default IMapper<T, byte[]> toMapper() {
+		return IMapper.make(
+				value -> {
+					ByteBuffer buffer = this.serialize(value);
+					if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.position() == 0 && buffer.remaining() == buffer.array().length) {
+						return buffer.array();
+					}
+					byte[] result = new byte[buffer.remaining()];
+					buffer.get(result);
+					return result;
+				},
+				bytes -> this.deserialize(ByteBuffer.wrap(bytes)));
+	}
+}
@@ -0,0 +1,52 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Collection;
+
+/**
+ * Represents a storage keeping the members of a set as its keys, which checks the membership
+ * of several keys at once, and combines its members with the members of another storage in place,
+ * without reading them.
+ * <p>
+ * A {@link com.wobserver.vcollections.VSet} uses these entry points for its bulk operations if the storage
+ * implements this interface.
+ *
+ * @param <K> the type of the members
+ */
+public interface ISetStorage<K> extends IStorage<K, Integer> {
+
+	/**
+	 * @param keys the keys we want to check
+	 * @return true if the storage has an entry for all of the keys
+	 */
+	boolean hasAll(Collection<?> keys);
+
+	/**
+	 * @param other another storage
+	 * @return true if this storage can combine its members with the keys of the other storage in place
+	 */
+	boolean isCombinable(IStorage<?, ?> other);
+
+	/**
+	 * Adds the keys of the other storage to the members.
+	 *
+	 * @param other a storage this storage is combinable with
+	 * @return true if any member is added
+	 */
+	boolean union(IStorage<?, ?> other);
+
+	/**
+	 * Keeps only the members the other storage has a key for.
+	 *
+	 * @param other a storage this storage is combinable with
+	 * @return true if any member is removed
+	 */
+	boolean intersect(IStorage<?, ?> other);
+
+	/**
+	 * Removes the members the other storage has a key for.
+	 *
+	 * @param other a storage this storage is combinable with
+	 * @return true if any member is removed
+	 */
+	boolean subtract(IStorage<?, ?> other);
+}
@@ -1,7 +1,15 @@
 package com.wobserver.vcollections.storages;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
 
 /**
  * This interface is based on the CRUD schema (Create, Read, Update Delete), where every
@@ -89,6 +97,195 @@ public interface IStorage<K, V> {
 	 */
 	void delete(Object key);
 
+	/**
+	 * Creates an entry in the storage for every given value.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#create(Object)} for every value,
+	 * storages able to insert several entries at once should override it.
+	 *
+	 * @param values the values we want to insert
+	 * @return the generated keys in the order of the provided values
+	 * @throws KeyUniquenessViolationException if a key generated for a value is not unique in the storage
+	 * @throws OutOfSpaceException             if the storage does not have space for all of the values
+	 */
+	default List<K> createAll(List<V> values) {
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			result.add(this.create(value));
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up the key in the storage, and distinguishes the absent key
+	 * from the key associated with null.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#has(Object)} only if
+	 * the {@link IStorage#read(Object)} returns null, storages able to tell it in one call should override it.
+	 *
+	 * @param key the key we want to look up
+	 * @return the {@link Lookup} holds the value if the key has been found
+	 */
+	default Lookup<V> lookup(Object key) {
+		V value = this.read(key);
+		if (value != null || this.has(key)) {
+			return Lookup.of(value);
+		}
+		return Lookup.absent();
+	}
+
+	/**
+	 * Reads the values from the storage belong to the given keys.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#read(Object)} for every key,
+	 * storages able to read several entries at once should override it.
+	 *
+	 * @param keys the keys we want to read the values for
+	 * @return a map contains the found key value pairs. Keys not found in the storage
+	 * are omitted from the result, keys with null value are mapped to null.
+	 */
+	default Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		for (K key : keys) {
+			Lookup<V> lookup = this.lookup(key);
+			if (lookup.isPresent()) {
+				result.put(key, lookup.get());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the storage for every given key, value pair.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#update(Object, Object)} for every entry,
+	 * storages able to write several entries at once should override it.
+	 * Note that the default implementation may leave the storage partially updated
+	 * if it runs out of space during the operation.
+	 *
+	 * @param entries the key value pairs we want to update or create
+	 * @throws OutOfSpaceException if the storage does not have space for the new entries
+	 */
+	default void updateAll(Map<K, V> entries) {
+		for (Map.Entry<K, V> entry : entries.entrySet()) {
+			this.update(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Deletes the values from the storage belong to the given keys.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#delete(Object)} for every key,
+	 * storages able to delete several entries at once should override it.
+	 *
+	 * @param keys the keys we want to delete
+	 */
+	default void deleteAll(Collection<?> keys) {
+		for (Object key : keys) {
+			this.delete(key);
+		}
+	}
+
+	/**
+	 * Associates the value with the key if the key is not present in the storage.
+	 * <p>
+	 * The default implementation is not atomic, storages able to execute it
+	 * in one atomic step should override it.
+	 *
+	 * @param key   the key of the entry
+	 * @param value the value we want to associate with the key
+	 * @return the value the key is associated with, or null if the value has been stored
+	 * @throws OutOfSpaceException if the key is not present and the storage is full
+	 */
+	default V putIfAbsent(K key, V value) {
+		Lookup<V> lookup = this.lookup(key);
+		if (lookup.isPresent()) {
+			return lookup.get();
+		}
+		this.update(key, value);
+		return null;
+	}
+
+	/**
+	 * Replaces the value of the key if it is currently associated with the expected value.
+	 * <p>
+	 * The default implementation is not atomic, storages able to execute it
+	 * in one atomic step should override it.
+	 *
+	 * @param key      the key of the entry
+	 * @param expected the value the key is expected to be associated with
+	 * @param value    the new value
+	 * @return true if the value has been replaced, false otherwise
+	 */
+	default boolean replace(K key, V expected, V value) {
+		Lookup<V> lookup = this.lookup(key);
+		if (!lookup.isPresent() || !Objects.equals(lookup.get(), expected)) {
+			return false;
+		}
+		this.update(key, value);
+		return true;
+	}
+
+	/**
+	 * Deletes the key if it is currently associated with the expected value.
+	 * <p>
+	 * The default implementation is not atomic, storages able to execute it
+	 * in one atomic step should override it.
+	 *
+	 * @param key      the key of the entry
+	 * @param expected the value the key is expected to be associated with
+	 * @return true if the entry has been deleted, false otherwise
+	 */
+	default boolean delete(Object key, Object expected) {
+		Lookup<V> lookup = this.lookup(key);
+		if (!lookup.isPresent() || !Objects.equals(lookup.get(), expected)) {
+			return false;
+		}
+		this.delete(key);
+		return true;
+	}
+
+	/**
+	 * Computes the new value of the key from its current value (or null if the key is not present).
+	 * If the computed value is null the key is deleted.
+	 * <p>
+	 * The default implementation is not atomic, storages able to execute it
+	 * in one atomic step should override it.
+	 *
+	 * @param key               the key of the entry
+	 * @param remappingFunction the function computes the new value
+	 * @return the new value associated with the key, or null if there is none
+	 * @throws OutOfSpaceException if the key is not present and the storage is full
+	 */
+	default V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		V oldValue = this.read(key);
+		V newValue = remappingFunction.apply(key, oldValue);
+		if (newValue == null) {
+			this.delete(key);
+			return null;
+		}
+		this.update(key, newValue);
+		return newValue;
+	}
+
+	/**
+	 * Associates the key with the value if the key is not present,
+	 * otherwise with the merged value of the current and the given value.
+	 * If the merged value is null the key is deleted.
+	 * <p>
+	 * The default implementation invokes {@link IStorage#compute(Object, BiFunction)},
+	 * so it is atomic if the compute is atomic in the storage.
+	 *
+	 * @param key               the key of the entry
+	 * @param value             the value to associate or to merge with the current value
+	 * @param remappingFunction the function merges the current and the given value
+	 * @return the new value associated with the key, or null if there is none
+	 * @throws OutOfSpaceException if the key is not present and the storage is full
+	 */
+	default V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+		return this.compute(key, (k, oldValue) -> oldValue == null ? value : remappingFunction.apply(oldValue, value));
+	}
+
 	boolean has(Object key);
 
 	boolean isEmpty();
@@ -113,4 +310,83 @@ public interface IStorage<K, V> {
 
 	Iterator<Map.Entry<K, V>> iterator();
 
+	/**
+	 * Creates an iterator over the keys of the storage.
+	 * <p>
+	 * The default implementation takes the keys from the {@link IStorage#iterator()},
+	 * storages override it if the keys can be listed without reading the values.
+	 *
+	 * @return an {@link Iterator} over the keys of the storage
+	 */
+	default Iterator<K> keyIterator() {
+		Iterator<Map.Entry<K, V>> iterator = this.iterator();
+		return new Iterator<K>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				return iterator.next().getKey();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	/**
+	 * Creates an iterator over the values of the storage.
+	 * <p>
+	 * The default implementation takes the values from the {@link IStorage#iterator()}.
+	 *
+	 * @return an {@link Iterator} over the values of the storage
+	 */
+	default Iterator<V> valueIterator() {
+		Iterator<Map.Entry<K, V>> iterator = this.iterator();
+		return new Iterator<V>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public V next() {
+				return iterator.next().getValue();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	/**
+	 * Creates a {@link Spliterator} over the entries of the storage.
+	 * <p>
+	 * The default implementation is sized by {@link IStorage#entries()}, and splits
+	 * by taking batches from the {@link IStorage#iterator()}.
+	 *
+	 * @return a {@link Spliterator} over the entries of the storage
+	 */
+	default Spliterator<Map.Entry<K, V>> spliterator() {
+		return Spliterators.spliterator(this.iterator(), this.entries(), Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Opens a cursor to fetch the entries of the storage page by page.
+	 * <p>
+	 * The default implementation fetches the pages through the {@link IStorage#iterator()}.
+	 *
+	 * @return an {@link IStorageCursor} positioned before the first entry
+	 * @see StoragePublisher
+	 */
+	default IStorageCursor<K, V> cursor() {
+		return new IteratorCursor<>(this.iterator());
+	}
+
 }
@@ -0,0 +1,42 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a cursor fetching the entries of an {@link IStorage} page by page.
+ * <p>
+ * Storages able to retrieve several entries in one request (such as a SCAN in redis,
+ * or a batch of a cursor in mongo) provide their own cursor by overriding {@link IStorage#cursor()}.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public interface IStorageCursor<K, V> extends AutoCloseable {
+
+	/**
+	 * Fetches the next page of entries.
+	 * <p>
+	 * The returned page can be empty even if the cursor is not finished
+	 * (for example a SCAN iteration in redis can return an empty page).
+	 *
+	 * @param maxEntries the maximal number of entries the page can contain
+	 * @return the list of the fetched entries
+	 */
+	List<Map.Entry<K, V>> fetch(int maxEntries);
+
+	/**
+	 * Indicates if there is no more entry to fetch
+	 *
+	 * @return true if all of the entries have been fetched, false otherwise
+	 */
+	boolean isFinished();
+
+	/**
+	 * Releases the resources the cursor holds.
+	 */
+	@Override
+	default void close() {
+
+	}
+}
@@ -0,0 +1,317 @@
+package com.wobserver.vcollections.storages;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A file based {@link IIndexedStorage} storing the values in fixed size slots of one file.
+ * <p>
+ * The slot of an index starts at {@code index * slotSize} in the file, and holds a header followed by
+ * the value serialized by the provided value mapper. The header is 0 for an empty slot (so the
+ * not written parts of the file are empty slots), -1 for a null value, and the length of the
+ * serialized value plus one otherwise. Values not fitting into a slot are rejected.
+ * <p>
+ * Moving a block of slots copies the bytes of the block in large chunks, instead of
+ * reading and writing the values one by one. The storage is not thread-safe.
+ *
+ * @param <V> the type of the value
+ */
+public class IndexedFileStorage<V> extends AbstractIndexedStorage<V> implements IIndexedStorage<V>, Closeable {
+
+	private static final int HEADER_SIZE = Integer.BYTES;
+	private static final int EMPTY_HEADER = 0;
+	private static final int NULL_HEADER = -1;
+	private static final int MOVE_CHUNK_SIZE = 64 * 1024;
+
+	private final IMapper<V, byte[]> valueMapper;
+	private final FileChannel channel;
+	private final int slotSize;
+	private long entries = 0;
+	private long fence = 0;
+
+	/**
+	 * Opens or creates the file, and counts the occupied slots of an existing file.
+	 *
+	 * @param valueMapper the mapper serializes the values
+	 * @param path        the path of the file
+	 * @param slotSize    the size of a slot in bytes, including the header of 4 bytes
+	 * @param maxSize     the maximal number of entries, or {@link IStorage#NO_MAX_SIZE}
+	 * @throws IOException if the file cannot be opened or read
+	 */
+	public IndexedFileStorage(IMapper<V, byte[]> valueMapper, String path, int slotSize, Long maxSize) throws IOException {
+		super(maxSize);
+		if (valueMapper == null) {
+			throw new NullPointerException();
+		}
+		if (slotSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("The size of the slot must be greater than " + HEADER_SIZE);
+		}
+		this.valueMapper = valueMapper;
+		this.slotSize = slotSize;
+		this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		// the last slot can be shorter, as only the header and the value are written
+		this.fence = (this.channel.size() + slotSize - 1) / slotSize;
+		this.entries = this.count(0, this.fence);
+		this.shrinkFence();
+	}
+
+	@Override
+	public Long entries() {
+		return this.entries;
+	}
+
+	@Override
+	public long fence() {
+		return this.fence;
+	}
+
+	@Override
+	public void clear() {
+		try {
+			this.channel.truncate(0);
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+		this.entries = 0;
+		this.fence = 0;
+	}
+
+	@Override
+	public V get(long key) {
+		if (key < 0 || this.fence <= key) {
+			return null;
+		}
+		ByteBuffer slot = this.readSlot(key);
+		int header = slot.getInt();
+		if (header == EMPTY_HEADER || header == NULL_HEADER) {
+			return null;
+		}
+		byte[] bytes = new byte[header - 1];
+		slot.get(bytes);
+		return this.valueMapper.decode(bytes);
+	}
+
+	@Override
+	public boolean contains(long key) {
+		if (key < 0 || this.fence <= key) {
+			return false;
+		}
+		return this.readHeader(key) != EMPTY_HEADER;
+	}
+
+	@Override
+	public void put(long key, V value) {
+		if (key < 0) {
+			throw new IndexOutOfBoundsException("Index " + key + " is out of range");
+		}
+		byte[] bytes = value == null ? null : this.valueMapper.encode(value);
+		if (bytes != null && this.slotSize - HEADER_SIZE < bytes.length) {
+			throw new IllegalArgumentException("The serialized value (" + bytes.length + " bytes) does not fit into a slot of " + this.slotSize + " bytes");
+		}
+		boolean isNew = !this.contains(key);
+		if (isNew && this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		ByteBuffer slot = ByteBuffer.allocate(bytes == null ? HEADER_SIZE : HEADER_SIZE + bytes.length);
+		slot.putInt(bytes == null ? NULL_HEADER : bytes.length + 1);
+		if (bytes != null) {
+			slot.put(bytes);
+		}
+		slot.flip();
+		this.write(slot, this.positionOf(key));
+		if (isNew) {
+			++this.entries;
+			if (this.fence <= key) {
+				this.fence = key + 1;
+			}
+		}
+	}
+
+	@Override
+	public void remove(long key) {
+		if (!this.contains(key)) {
+			return;
+		}
+		this.writeHeader(key, EMPTY_HEADER);
+		--this.entries;
+		this.shrinkFence();
+	}
+
+	@Override
+	public void swap(long key1, long key2) {
+		if (!this.contains(key1)) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		if (!this.contains(key2)) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		ByteBuffer slot1 = this.readSlot(key1);
+		ByteBuffer slot2 = this.readSlot(key2);
+		this.write(slot2, this.positionOf(key1));
+		this.write(slot1, this.positionOf(key2));
+	}
+
+	@Override
+	public void move(long from, long to, long length) {
+		checkRange(from, to, length);
+		if (length == 0 || from == to) {
+			return;
+		}
+		long start = Math.min(from, to);
+		long end = Math.max(from, to) + length;
+		long before = this.count(start, end);
+		long chunkSlots = Math.max(1, MOVE_CHUNK_SIZE / this.slotSize);
+		ByteBuffer buffer = ByteBuffer.allocate((int) (chunkSlots * this.slotSize));
+		if (from < to) {
+			// copy backwards, so the overlapping source slots are read before they are overwritten
+			for (long remaining = length; 0 < remaining; ) {
+				long chunk = Math.min(remaining, chunkSlots);
+				remaining -= chunk;
+				this.copy(buffer, from + remaining, to + remaining, chunk);
+			}
+			this.fill(buffer, from, Math.min(to, from + length));
+		} else {
+			for (long done = 0; done < length; ) {
+				long chunk = Math.min(length - done, chunkSlots);
+				this.copy(buffer, from + done, to + done, chunk);
+				done += chunk;
+			}
+			this.fill(buffer, Math.max(from, to + length), from + length);
+		}
+		if (this.fence < to + length) {
+			this.fence = to + length;
+		}
+		this.entries += this.count(start, end) - before;
+		this.shrinkFence();
+	}
+
+	/**
+	 * Closes the underlying file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		this.channel.close();
+	}
+
+	private void copy(ByteBuffer buffer, long src, long dst, long slots) {
+		buffer.clear();
+		buffer.limit((int) (slots * this.slotSize));
+		this.read(buffer, this.positionOf(src));
+		// the not existing part of the file consists of empty slots
+		while (buffer.hasRemaining()) {
+			buffer.put((byte) 0);
+		}
+		buffer.flip();
+		this.write(buffer, this.positionOf(dst));
+	}
+
+	/**
+	 * Empties the slots {@code [start, end)}
+	 */
+	private void fill(ByteBuffer buffer, long start, long end) {
+		long chunkSlots = buffer.capacity() / this.slotSize;
+		for (; start < end; ) {
+			long chunk = Math.min(end - start, chunkSlots);
+			buffer.clear();
+			buffer.limit((int) (chunk * this.slotSize));
+			while (buffer.hasRemaining()) {
+				buffer.put((byte) 0);
+			}
+			buffer.flip();
+			this.write(buffer, this.positionOf(start));
+			start += chunk;
+		}
+	}
+
+	/**
+	 * @return the number of occupied slots in {@code [start, end)}
+	 */
+	private long count(long start, long end) {
+		long result = 0;
+		end = Math.min(end, this.fence);
+		long chunkSlots = Math.max(1, MOVE_CHUNK_SIZE / this.slotSize);
+		ByteBuffer buffer = ByteBuffer.allocate((int) (chunkSlots * this.slotSize));
+		while (start < end) {
+			long chunk = Math.min(end - start, chunkSlots);
+			buffer.clear();
+			buffer.limit((int) (chunk * this.slotSize));
+			int read = this.read(buffer, this.positionOf(start));
+			for (int offset = 0; offset + HEADER_SIZE <= read; offset += this.slotSize) {
+				if (buffer.getInt(offset) != EMPTY_HEADER) {
+					++result;
+				}
+			}
+			start += chunk;
+		}
+		return result;
+	}
+
+	private void shrinkFence() {
+		while (0 < this.fence && this.readHeader(this.fence - 1) == EMPTY_HEADER) {
+			--this.fence;
+		}
+	}
+
+	private ByteBuffer readSlot(long key) {
+		ByteBuffer result = ByteBuffer.allocate(this.slotSize);
+		this.read(result, this.positionOf(key));
+		result.flip();
+		return result;
+	}
+
+	private int readHeader(long key) {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		if (this.read(header, this.positionOf(key)) < HEADER_SIZE) {
+			return EMPTY_HEADER;
+		}
+		return header.getInt(0);
+	}
+
+	private void writeHeader(long key, int header) {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE);
+		buffer.putInt(header);
+		buffer.flip();
+		this.write(buffer, this.positionOf(key));
+	}
+
+	/**
+	 * Reads until the buffer is full or the end of the file is reached
+	 *
+	 * @return the number of bytes read
+	 */
+	private int read(ByteBuffer buffer, long position) {
+		int result = 0;
+		try {
+			while (buffer.hasRemaining()) {
+				int read = this.channel.read(buffer, position + result);
+				if (read < 0) {
+					break;
+				}
+				result += read;
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+		return result;
+	}
+
+	private void write(ByteBuffer buffer, long position) {
+		try {
+			while (buffer.hasRemaining()) {
+				position += this.channel.write(buffer, position);
+			}
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	private long positionOf(long key) {
+		return key * this.slotSize;
+	}
+}
@@ -0,0 +1,250 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Arrays;
+
+/**
+ * An in-memory {@link IIndexedStorage} storing the values in segmented arrays.
+ * <p>
+ * A value is addressed by its index directly: the upper bits of the index select the segment,
+ * the lower bits the slot in the segment. Segments are allocated when a slot in them is first written,
+ * so the storage grows without copying the stored values. Moving a block of slots is executed
+ * by {@link System#arraycopy(Object, int, Object, int, int)} per segment.
+ * <p>
+ * Empty slots hold null, and null values are stored by replacing them with a placeholder.
+ * The storage is not thread-safe.
+ *
+ * @param <V> the type of the value
+ */
+public class IndexedMemoryStorage<V> extends AbstractIndexedStorage<V> implements IIndexedStorage<V> {
+
+	private static final int SEGMENT_BITS = 12;
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_BITS;
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+	private static final long MAX_INDEX = ((long) Integer.MAX_VALUE << SEGMENT_BITS) - 1;
+	private static final Object NULL = new Object();
+
+	private Object[][] segments = new Object[16][];
+	private long entries = 0;
+	private long fence = 0;
+
+	public IndexedMemoryStorage(Long maxSize) {
+		super(maxSize);
+	}
+
+	@Override
+	public Long entries() {
+		return this.entries;
+	}
+
+	@Override
+	public long fence() {
+		return this.fence;
+	}
+
+	@Override
+	public void clear() {
+		this.segments = new Object[16][];
+		this.entries = 0;
+		this.fence = 0;
+	}
+
+	@Override
+	public V get(long key) {
+		return unmask(this.slot(key));
+	}
+
+	@Override
+	public boolean contains(long key) {
+		return this.slot(key) != null;
+	}
+
+	@Override
+	public void put(long key, V value) {
+		if (key < 0 || MAX_INDEX < key) {
+			throw new IndexOutOfBoundsException("Index " + key + " is out of range");
+		}
+		Object[] segment = this.segmentFor(key);
+		int offset = (int) (key & SEGMENT_MASK);
+		if (segment[offset] == null) {
+			if (this.isFull()) {
+				throw new OutOfSpaceException();
+			}
+			++this.entries;
+			if (this.fence <= key) {
+				this.fence = key + 1;
+			}
+		}
+		segment[offset] = mask(value);
+	}
+
+	@Override
+	public void remove(long key) {
+		if (this.slot(key) == null) {
+			return;
+		}
+		this.segments[(int) (key >>> SEGMENT_BITS)][(int) (key & SEGMENT_MASK)] = null;
+		--this.entries;
+		this.shrinkFence();
+	}
+
+	@Override
+	public void swap(long key1, long key2) {
+		Object value1 = this.slot(key1);
+		if (value1 == null) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		Object value2 = this.slot(key2);
+		if (value2 == null) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		this.segments[(int) (key1 >>> SEGMENT_BITS)][(int) (key1 & SEGMENT_MASK)] = value2;
+		this.segments[(int) (key2 >>> SEGMENT_BITS)][(int) (key2 & SEGMENT_MASK)] = value1;
+	}
+
+	@Override
+	public void move(long from, long to, long length) {
+		checkRange(from, to, length);
+		if (length == 0 || from == to) {
+			return;
+		}
+		if (MAX_INDEX < to + length - 1) {
+			throw new IndexOutOfBoundsException("Index " + (to + length - 1) + " is out of range");
+		}
+		long start = Math.min(from, to);
+		long end = Math.max(from, to) + length;
+		long before = this.count(start, end);
+		if (from < to) {
+			// copy backwards, so the overlapping source slots are read before they are overwritten
+			for (long remaining = length; 0 < remaining; ) {
+				long srcEnd = from + remaining;
+				long dstEnd = to + remaining;
+				int chunk = (int) Math.min(remaining, Math.min(((srcEnd - 1) & SEGMENT_MASK) + 1, ((dstEnd - 1) & SEGMENT_MASK) + 1));
+				this.copy(srcEnd - chunk, dstEnd - chunk, chunk);
+				remaining -= chunk;
+			}
+			this.fill(from, Math.min(to, from + length));
+		} else {
+			for (long done = 0; done < length; ) {
+				long src = from + done;
+				long dst = to + done;
+				int chunk = (int) Math.min(length - done, Math.min(SEGMENT_SIZE - (src & SEGMENT_MASK), SEGMENT_SIZE - (dst & SEGMENT_MASK)));
+				this.copy(src, dst, chunk);
+				done += chunk;
+			}
+			this.fill(Math.max(from, to + length), from + length);
+		}
+		if (this.fence < to + length) {
+			this.fence = to + length;
+		}
+		this.entries += this.count(start, end) - before;
+		this.shrinkFence();
+	}
+
+	/**
+	 * Copies the slots inside of one source and one destination segment
+	 */
+	private void copy(long src, long dst, int length) {
+		Object[] source = this.segment(src);
+		int srcOffset = (int) (src & SEGMENT_MASK);
+		int dstOffset = (int) (dst & SEGMENT_MASK);
+		if (source == null) {
+			Object[] destination = this.segment(dst);
+			if (destination != null) {
+				Arrays.fill(destination, dstOffset, dstOffset + length, null);
+			}
+			return;
+		}
+		System.arraycopy(source, srcOffset, this.segmentFor(dst), dstOffset, length);
+	}
+
+	/**
+	 * Empties the slots {@code [start, end)}
+	 */
+	private void fill(long start, long end) {
+		while (start < end) {
+			int offset = (int) (start & SEGMENT_MASK);
+			int chunk = (int) Math.min(end - start, SEGMENT_SIZE - offset);
+			Object[] segment = this.segment(start);
+			if (segment != null) {
+				Arrays.fill(segment, offset, offset + chunk, null);
+			}
+			start += chunk;
+		}
+	}
+
+	/**
+	 * @return the number of occupied slots in {@code [start, end)}
+	 */
+	private long count(long start, long end) {
+		long result = 0;
+		end = Math.min(end, this.fence);
+		while (start < end) {
+			int offset = (int) (start & SEGMENT_MASK);
+			int chunk = (int) Math.min(end - start, SEGMENT_SIZE - offset);
+			Object[] segment = this.segment(start);
+			if (segment != null) {
+				for (int i = offset; i < offset + chunk; ++i) {
+					if (segment[i] != null) {
+						++result;
+					}
+				}
+			}
+			start += chunk;
+		}
+		return result;
+	}
+
+	private void shrinkFence() {
+		while (0 < this.fence && this.slot(this.fence - 1) == null) {
+			if (this.segment(this.fence - 1) == null) {
+				this.fence = (this.fence - 1) & ~((long) SEGMENT_MASK);
+			} else {
+				--this.fence;
+			}
+		}
+	}
+
+	private Object slot(long key) {
+		if (key < 0 || this.fence <= key) {
+			return null;
+		}
+		Object[] segment = this.segment(key);
+		if (segment == null) {
+			return null;
+		}
+		return segment[(int) (key & SEGMENT_MASK)];
+	}
+
+	private Object[] segment(long key) {
+		int index = (int) (key >>> SEGMENT_BITS);
+		if (this.segments.length <= index) {
+			return null;
+		}
+		return this.segments[index];
+	}
+
+	private Object[] segmentFor(long key) {
+		int index = (int) (key >>> SEGMENT_BITS);
+		if (this.segments.length <= index) {
+			int length = this.segments.length;
+			while (length <= index) {
+				length = length < (Integer.MAX_VALUE >> 1) ? length << 1 : Integer.MAX_VALUE;
+			}
+			this.segments = Arrays.copyOf(this.segments, length);
+		}
+		Object[] result = this.segments[index];
+		if (result == null) {
+			result = new Object[SEGMENT_SIZE];
+			this.segments[index] = result;
+		}
+		return result;
+	}
+
+	private static Object mask(Object item) {
+		return item == null ? NULL : item;
+	}
+
+	private static <T> T unmask(Object item) {
+		return item == NULL ? null : (T) item;
+	}
+}
@@ -0,0 +1,32 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An {@link IStorageCursor} fetching the pages through the {@link IStorage#iterator()} of a storage.
+ */
+class IteratorCursor<K, V> implements IStorageCursor<K, V> {
+
+	private final Iterator<Map.Entry<K, V>> iterator;
+
+	IteratorCursor(Iterator<Map.Entry<K, V>> iterator) {
+		this.iterator = iterator;
+	}
+
+	@Override
+	public List<Map.Entry<K, V>> fetch(int maxEntries) {
+		List<Map.Entry<K, V>> result = new ArrayList<>();
+		while (result.size() < maxEntries && this.iterator.hasNext()) {
+			result.add(this.iterator.next());
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isFinished() {
+		return !this.iterator.hasNext();
+	}
+}
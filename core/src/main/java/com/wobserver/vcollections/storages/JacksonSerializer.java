@@ -0,0 +1,66 @@
+package com.wobserver.vcollections.storages;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * An {@link ISerializer} using Jackson.
+ * <p>
+ * The format is given by the factory of the {@link ObjectMapper}, so the same serializer writes JSON,
+ * Smile or CBOR. The reader and the writer are bound to the type when the serializer is created,
+ * so the type is not resolved again at every call.
+ *
+ * @param <T> the type of the serialized values
+ */
+public class JacksonSerializer<T> implements ISerializer<T> {
+
+	private final ObjectReader reader;
+	private final ObjectWriter writer;
+	private final ObjectWriter streamWriter;
+
+	public JacksonSerializer(ObjectMapper mapper, Class<T> type) {
+		this.reader = mapper.readerFor(type);
+		this.writer = mapper.writerFor(type);
+		this.streamWriter = this.writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+	}
+
+	@Override
+	public ByteBuffer serialize(T value) {
+		try {
+			return ByteBuffer.wrap(this.writer.writeValueAsBytes(value));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the value to the stream as it is generated, and leaves the stream open
+	 */
+	@Override
+	public void serialize(T value, OutputStream output) throws IOException {
+		this.streamWriter.writeValue(output, value);
+	}
+
+	/**
+	 * Parses the backing array of a heap buffer directly, and streams the content of a direct buffer
+	 */
+	@Override
+	public T deserialize(ByteBuffer buffer) {
+		try {
+			if (buffer.hasArray()) {
+				T result = this.reader.readValue(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+				buffer.position(buffer.limit());
+				return result;
+			}
+			return this.reader.readValue(new ByteBufferBackedInputStream(buffer));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+}
@@ -76,6 +76,19 @@ public class LRUMemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerat
 		return result;
 	}
 
+	@Override
+	public Lookup<V> lookup(Object key) {
+		Item item = this.map.get(key);
+		if (item == null) {
+			return Lookup.absent();
+		}
+		if (this.retentionInMs != NO_RETENTION_TIME && this.retentionInMs < System.currentTimeMillis() - item.created) {
+			this.map.remove(key);
+			return Lookup.absent();
+		}
+		return Lookup.of(item.value);
+	}
+
 	@Override
 	public void update(K key, V value) {
 		Item item = new Item(value);
@@ -0,0 +1,647 @@
+package com.wobserver.vcollections.storages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+
+/**
+ * A file based storage appending every update and delete to segment files of a directory.
+ * <p>
+ * A record holds a checksum, the length of the key and of the value, the key encoded by the key mapper
+ * and the value written by the value mapper. A delete appends a tombstone record having no value.
+ * The location of the last record of every key is kept in an in-memory index, which is rebuilt by
+ * replaying the segments in order when the storage is opened. A record failing the checksum
+ * (such as a partially written record after a crash) truncates its segment.
+ * <p>
+ * When the active segment reaches the segment size a new segment is started, and the sealed segments
+ * having a larger ratio of overwritten or deleted records than the compaction threshold are compacted
+ * on a background thread: their live records are appended to the active segment and the segment file is deleted.
+ * <p>
+ * The operations are synchronized, as the compaction runs concurrently with them.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class LogStructuredFileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>, Closeable {
+
+	/**
+	 * The default size of a segment in bytes, after which a new segment is started
+	 */
+	public static final long DEFAULT_SEGMENT_SIZE = 64L * 1024 * 1024;
+
+	/**
+	 * The default ratio of the garbage in a sealed segment, above which the segment is compacted
+	 */
+	public static final double DEFAULT_COMPACTION_THRESHOLD = 0.5;
+
+	private static final String SEGMENT_FILE_EXTENSION = ".segment";
+	private static final int HEADER_SIZE = 3 * Integer.BYTES;
+	private static final int NULL_VALUE_LENGTH = -1;
+	private static final int TOMBSTONE_LENGTH = -2;
+
+	private final IMapper<K, String> keyMapper;
+	private final IMapper<V, byte[]> valueMapper;
+	private final Path directory;
+	private final long capacity;
+	private final long segmentSize;
+	private final double compactionThreshold;
+	private final Map<K, Location> index = new HashMap<>();
+	private final TreeMap<Long, Segment> segments = new TreeMap<>();
+	private final ExecutorService compactor;
+	private IKeyGenerator<K> keyGenerator;
+	private Segment active;
+	/**
+	 * The id of the next segment. It is not reset by {@link #clear()}, so a compaction of a deleted segment
+	 * never takes a new segment for its own.
+	 */
+	private long nextSegmentId = 0L;
+	private boolean compactionScheduled = false;
+	private boolean closed = false;
+
+	public LogStructuredFileStorage(IMapper<K, String> keyMapper, Class<V> valueType, ObjectMapper valueMapper, String directory, IKeyGenerator<K> keyGenerator, Long capacity, long segmentSize, double compactionThreshold) throws IOException {
+		this(keyMapper, new JacksonSerializer<>(valueMapper, valueType), directory, keyGenerator, capacity, segmentSize, compactionThreshold);
+	}
+
+	public LogStructuredFileStorage(IMapper<K, String> keyMapper, ISerializer<V> valueSerializer, String directory, IKeyGenerator<K> keyGenerator, Long capacity, long segmentSize, double compactionThreshold) throws IOException {
+		if (segmentSize < 1) {
+			throw new IllegalArgumentException("The segment size must be positive");
+		}
+		if (compactionThreshold <= 0.0 || 1.0 < compactionThreshold) {
+			throw new IllegalArgumentException("The compaction threshold must be in (0, 1]");
+		}
+		this.keyMapper = keyMapper;
+		this.valueMapper = valueSerializer.toMapper();
+		this.directory = Paths.get(directory);
+		this.keyGenerator = keyGenerator;
+		this.capacity = capacity == null ? IStorage.NO_MAX_SIZE : capacity;
+		this.segmentSize = segmentSize;
+		this.compactionThreshold = compactionThreshold;
+		this.compactor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread result = new Thread(runnable, LogStructuredFileStorage.class.getSimpleName() + "-compactor");
+			result.setDaemon(true);
+			return result;
+		});
+		Files.createDirectories(this.directory);
+		this.replay();
+	}
+
+	public LogStructuredFileStorage(IMapper<K, String> keyMapper, Class<V> valueType, ObjectMapper valueMapper, String directory, IKeyGenerator<K> keyGenerator, Long capacity) throws IOException {
+		this(keyMapper, valueType, valueMapper, directory, keyGenerator, capacity, DEFAULT_SEGMENT_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	@Override
+	public synchronized Long entries() {
+		return Long.valueOf(this.index.size());
+	}
+
+	@Override
+	public Long capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public synchronized boolean isEmpty() {
+		return this.index.isEmpty();
+	}
+
+	@Override
+	public synchronized boolean isFull() {
+		if (this.capacity == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.capacity <= this.index.size();
+	}
+
+	@Override
+	public synchronized boolean has(Object key) {
+		return this.index.containsKey(key);
+	}
+
+	@Override
+	public synchronized K create(V value) {
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		if (this.keyGenerator == null) {
+			throw new NullPointerException("Create operation without keyGenerator is not supported.");
+		}
+		K key = this.keyGenerator.get();
+		this.update(key, value);
+		return key;
+	}
+
+	@Override
+	public synchronized V read(Object key) {
+		Location location = this.index.get(key);
+		if (location == null) {
+			return null;
+		}
+		return this.readValue(location);
+	}
+
+	@Override
+	public synchronized Lookup<V> lookup(Object key) {
+		Location location = this.index.get(key);
+		if (location == null) {
+			return Lookup.absent();
+		}
+		return Lookup.of(this.readValue(location));
+	}
+
+	@Override
+	public synchronized void update(K key, V value) {
+		if (this.isFull() && !this.index.containsKey(key)) {
+			throw new OutOfSpaceException();
+		}
+		byte[] valueBytes = value == null ? null : this.valueMapper.encode(value);
+		byte[] keyBytes = this.keyMapper.encode(key).getBytes(StandardCharsets.UTF_8);
+		Location location = this.append(keyBytes, valueBytes == null ? NULL_VALUE_LENGTH : valueBytes.length, valueBytes);
+		this.active.live += location.size;
+		this.release(this.index.put(key, location));
+	}
+
+	@Override
+	public synchronized void delete(Object key) {
+		Location location = this.index.remove(key);
+		if (location == null) {
+			return;
+		}
+		this.release(location);
+		byte[] keyBytes = this.keyMapper.encode((K) key).getBytes(StandardCharsets.UTF_8);
+		this.append(keyBytes, TOMBSTONE_LENGTH, null);
+	}
+
+	@Override
+	public synchronized void swap(K key1, K key2) {
+		Location location1 = this.index.get(key1);
+		if (location1 == null) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		Location location2 = this.index.get(key2);
+		if (location2 == null) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		V value1 = this.readValue(location1);
+		this.update(key1, this.readValue(location2));
+		this.update(key2, value1);
+	}
+
+	/**
+	 * Deletes all segments
+	 */
+	@Override
+	public synchronized void clear() {
+		for (Segment segment : this.segments.values()) {
+			segment.delete();
+		}
+		this.segments.clear();
+		this.index.clear();
+		this.active = null;
+	}
+
+	/**
+	 * Iterates over the keys existed when the iterator was created
+	 */
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		Iterator<K> keys = this.keyIterator();
+		return new Iterator<Map.Entry<K, V>>() {
+			private Map.Entry<K, V> next = this.fetch();
+			private K last;
+
+			@Override
+			public boolean hasNext() {
+				return this.next != null;
+			}
+
+			@Override
+			public Map.Entry<K, V> next() {
+				if (this.next == null) {
+					throw new NoSuchElementException();
+				}
+				Map.Entry<K, V> result = this.next;
+				this.last = result.getKey();
+				this.next = this.fetch();
+				return result;
+			}
+
+			@Override
+			public void remove() {
+				LogStructuredFileStorage.this.delete(this.last);
+			}
+
+			private Map.Entry<K, V> fetch() {
+				while (keys.hasNext()) {
+					K key = keys.next();
+					Lookup<V> lookup = LogStructuredFileStorage.this.lookup(key);
+					if (lookup.isPresent()) {
+						return new LogEntry(key, lookup.get());
+					}
+				}
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the keys existed when the iterator was created
+	 */
+	@Override
+	public Iterator<K> keyIterator() {
+		List<K> keys;
+		synchronized (this) {
+			keys = new ArrayList<>(this.index.keySet());
+		}
+		Iterator<K> iterator = keys.iterator();
+		return new Iterator<K>() {
+			private K last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				this.last = iterator.next();
+				return this.last;
+			}
+
+			@Override
+			public void remove() {
+				LogStructuredFileStorage.this.delete(this.last);
+			}
+		};
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	/**
+	 * Compacts the sealed segments exceeding the compaction threshold on the caller thread.
+	 */
+	public void compact() {
+		List<Segment> candidates = new ArrayList<>();
+		synchronized (this) {
+			for (Segment segment : this.segments.values()) {
+				if (segment != this.active && this.compactionThreshold <= segment.garbageRatio()) {
+					candidates.add(segment);
+				}
+			}
+		}
+		for (Segment segment : candidates) {
+			this.compact(segment);
+		}
+	}
+
+	/**
+	 * Stops the compaction, and closes the segment files
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		this.closed = true;
+		this.compactor.shutdownNow();
+		for (Segment segment : this.segments.values()) {
+			segment.channel.close();
+		}
+	}
+
+	/**
+	 * Copies the live records of a sealed segment to the active segment, and deletes the segment.
+	 * The lock is held only while one record is copied, so the storage is not blocked for the whole compaction.
+	 */
+	private void compact(Segment segment) {
+		long offset = 0;
+		while (offset < segment.size) {
+			Record record;
+			synchronized (this) {
+				// the segment may have been deleted by a clear, and its id may have been reused since
+				if (this.closed || this.segments.get(segment.id) != segment) {
+					return;
+				}
+				record = segment.read(offset);
+				if (record == null) {
+					break;
+				}
+				K key = this.keyMapper.decode(new String(record.key, StandardCharsets.UTF_8));
+				if (record.valueLength == TOMBSTONE_LENGTH) {
+					// the tombstone is needed only while an older segment may contain the deleted key
+					if (!this.index.containsKey(key) && this.segments.firstKey() < segment.id) {
+						this.append(record.key, TOMBSTONE_LENGTH, null);
+					}
+				} else {
+					Location location = this.index.get(key);
+					if (location != null && location.segment == segment.id && location.offset == offset) {
+						Location copied = this.append(record.key, record.valueLength, record.value);
+						this.active.live += copied.size;
+						this.index.put(key, copied);
+					}
+				}
+			}
+			offset += record.size();
+		}
+		synchronized (this) {
+			if (!this.closed && this.segments.remove(segment.id, segment)) {
+				segment.delete();
+			}
+		}
+	}
+
+	private void scheduleCompaction() {
+		if (this.compactionScheduled || this.compactor.isShutdown()) {
+			return;
+		}
+		this.compactionScheduled = true;
+		this.compactor.execute(() -> {
+			synchronized (this) {
+				this.compactionScheduled = false;
+			}
+			this.compact();
+		});
+	}
+
+	private Location append(byte[] keyBytes, int valueLength, byte[] valueBytes) {
+		if (this.active == null || this.segmentSize <= this.active.size) {
+			this.roll();
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + keyBytes.length + (valueBytes == null ? 0 : valueBytes.length));
+		buffer.putInt(checksum(keyBytes, valueLength, valueBytes));
+		buffer.putInt(keyBytes.length);
+		buffer.putInt(valueLength);
+		buffer.put(keyBytes);
+		if (valueBytes != null) {
+			buffer.put(valueBytes);
+		}
+		buffer.flip();
+		long offset = this.active.size;
+		this.active.write(buffer);
+		return new Location(this.active.id, offset, buffer.capacity());
+	}
+
+	private void roll() {
+		long id = this.nextSegmentId++;
+		this.active = Segment.open(this.directory.resolve(String.format("%020d%s", id, SEGMENT_FILE_EXTENSION)), id);
+		this.segments.put(id, this.active);
+		if (1 < this.segments.size()) {
+			this.scheduleCompaction();
+		}
+	}
+
+	private void release(Location location) {
+		if (location == null) {
+			return;
+		}
+		Segment segment = this.segments.get(location.segment);
+		if (segment != null) {
+			segment.live -= location.size;
+		}
+	}
+
+	private V readValue(Location location) {
+		Record record = this.segments.get(location.segment).read(location.offset);
+		if (record.valueLength == NULL_VALUE_LENGTH) {
+			return null;
+		}
+		return this.valueMapper.decode(record.value);
+	}
+
+	/**
+	 * Rebuilds the index by reading the segments in the order they were written
+	 */
+	private void replay() throws IOException {
+		List<Path> paths = new ArrayList<>();
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory, "*" + SEGMENT_FILE_EXTENSION)) {
+			stream.forEach(paths::add);
+		}
+		for (Path path : paths) {
+			String fileName = path.getFileName().toString();
+			long id = Long.parseLong(fileName.substring(0, fileName.length() - SEGMENT_FILE_EXTENSION.length()));
+			this.segments.put(id, Segment.open(path, id));
+		}
+		for (Segment segment : this.segments.values()) {
+			long offset = 0;
+			while (offset < segment.size) {
+				Record record = segment.read(offset);
+				if (record == null) {
+					segment.truncate(offset);
+					break;
+				}
+				K key = this.keyMapper.decode(new String(record.key, StandardCharsets.UTF_8));
+				if (record.valueLength == TOMBSTONE_LENGTH) {
+					this.release(this.index.remove(key));
+				} else {
+					Location location = new Location(segment.id, offset, record.size());
+					segment.live += location.size;
+					this.release(this.index.put(key, location));
+				}
+				offset += record.size();
+			}
+		}
+		if (!this.segments.isEmpty()) {
+			this.active = this.segments.lastEntry().getValue();
+			this.nextSegmentId = this.segments.lastKey() + 1L;
+		}
+	}
+
+	private static int checksum(byte[] keyBytes, int valueLength, byte[] valueBytes) {
+		CRC32 crc = new CRC32();
+		ByteBuffer lengths = ByteBuffer.allocate(2 * Integer.BYTES);
+		lengths.putInt(keyBytes.length);
+		lengths.putInt(valueLength);
+		crc.update(lengths.array());
+		crc.update(keyBytes);
+		if (valueBytes != null) {
+			crc.update(valueBytes);
+		}
+		return (int) crc.getValue();
+	}
+
+	private static final class Location {
+		private final long segment;
+		private final long offset;
+		private final int size;
+
+		Location(long segment, long offset, int size) {
+			this.segment = segment;
+			this.offset = offset;
+			this.size = size;
+		}
+	}
+
+	private static final class Record {
+		private final byte[] key;
+		private final int valueLength;
+		private final byte[] value;
+
+		Record(byte[] key, int valueLength, byte[] value) {
+			this.key = key;
+			this.valueLength = valueLength;
+			this.value = value;
+		}
+
+		int size() {
+			return HEADER_SIZE + this.key.length + (this.value == null ? 0 : this.value.length);
+		}
+	}
+
+	private static final class Segment {
+		private final long id;
+		private final Path path;
+		private final FileChannel channel;
+		private volatile long size;
+		/**
+		 * The number of bytes of the records the index refers to
+		 */
+		private long live = 0;
+
+		static Segment open(Path path, long id) {
+			try {
+				return new Segment(path, id, FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+		}
+
+		private Segment(Path path, long id, FileChannel channel) throws IOException {
+			this.path = path;
+			this.id = id;
+			this.channel = channel;
+			this.size = channel.size();
+		}
+
+		double garbageRatio() {
+			if (this.size == 0) {
+				return 0.0;
+			}
+			return 1.0 - (double) this.live / this.size;
+		}
+
+		void write(ByteBuffer buffer) {
+			try {
+				while (buffer.hasRemaining()) {
+					this.size += this.channel.write(buffer, this.size);
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+		}
+
+		/**
+		 * @return the record at the offset, or null if it is not complete or fails the checksum
+		 */
+		Record read(long offset) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			if (this.read(header, offset) < HEADER_SIZE) {
+				return null;
+			}
+			header.flip();
+			int checksum = header.getInt();
+			int keyLength = header.getInt();
+			int valueLength = header.getInt();
+			int valueSize = Math.max(0, valueLength);
+			if (keyLength < 0 || valueLength < TOMBSTONE_LENGTH || this.size - offset - HEADER_SIZE < (long) keyLength + valueSize) {
+				return null;
+			}
+			ByteBuffer body = ByteBuffer.allocate(keyLength + valueSize);
+			if (this.read(body, offset + HEADER_SIZE) < body.capacity()) {
+				return null;
+			}
+			byte[] key = new byte[keyLength];
+			byte[] value = valueLength < 0 ? null : new byte[valueLength];
+			body.flip();
+			body.get(key);
+			if (value != null) {
+				body.get(value);
+			}
+			if (checksum(key, valueLength, value) != checksum) {
+				return null;
+			}
+			return new Record(key, valueLength, value);
+		}
+
+		void truncate(long size) throws IOException {
+			this.channel.truncate(size);
+			this.size = size;
+		}
+
+		void delete() {
+			try {
+				this.channel.close();
+				Files.deleteIfExists(this.path);
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+		}
+
+		private int read(ByteBuffer buffer, long position) {
+			int result = 0;
+			try {
+				while (buffer.hasRemaining()) {
+					int read = this.channel.read(buffer, position + result);
+					if (read < 0) {
+						break;
+					}
+					result += read;
+				}
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+			return result;
+		}
+	}
+
+	private final class LogEntry implements Map.Entry<K, V> {
+		private final K key;
+		private V value;
+
+		LogEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			LogStructuredFileStorage.this.update(this.key, value);
+			return result;
+		}
+	}
+}
@@ -0,0 +1,456 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An in-memory storage keyed by long values.
+ * <p>
+ * The keys are stored in a primitive long array, and the values in a parallel object array
+ * of an open-addressing (linear probing) hash table, hence an entry does not allocate
+ * a boxed key and a map entry object as it does in a {@link MemoryStorage}.
+ * The state of a slot is encoded in the value array: an empty slot holds null,
+ * a deleted slot holds a placeholder until the table is rehashed, and null values
+ * are stored by replacing them with another placeholder.
+ * <p>
+ * Null keys are not supported. The storage is not thread-safe.
+ *
+ * @param <V> the type of the value
+ */
+public class LongKeyMemoryStorage<V> implements ILongKeyStorage<V>, IAccessKeyGenerator<Long> {
+
+	private static final int MIN_TABLE_SIZE = 16;
+	private static final int MAX_TABLE_SIZE = 1 << 30;
+	private static final Object NULL = new Object();
+	private static final Object REMOVED = new Object();
+
+	private IKeyGenerator<Long> keyGenerator;
+	private final Long maxSize;
+	private long[] keys;
+	private Object[] values;
+	/**
+	 * The number of entries
+	 */
+	private int size = 0;
+	/**
+	 * The number of not empty slots, including the deleted ones
+	 */
+	private int used = 0;
+	private int threshold;
+
+	public LongKeyMemoryStorage(IKeyGenerator<Long> keyGenerator, Map<Long, V> map, Long maxSize) {
+		this.maxSize = maxSize == null ? IStorage.NO_MAX_SIZE : maxSize;
+		this.keyGenerator = keyGenerator;
+		this.allocate(tableSizeFor(map == null ? 0 : map.size()));
+		if (map != null) {
+			map.forEach(this::update);
+		}
+	}
+
+	@Override
+	public Long entries() {
+		return Long.valueOf(this.size);
+	}
+
+	@Override
+	public Long capacity() {
+		return this.maxSize;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.maxSize <= this.size;
+	}
+
+	@Override
+	public void clear() {
+		this.allocate(MIN_TABLE_SIZE);
+	}
+
+	@Override
+	public boolean has(Object key) {
+		if (!(key instanceof Long)) {
+			return false;
+		}
+		return this.contains((Long) key);
+	}
+
+	@Override
+	public boolean contains(long key) {
+		return 0 <= this.indexOf(key);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	@Override
+	public Long create(V value) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		Long key = this.keyGenerator.get();
+		this.put(key, value);
+		return key;
+	}
+
+	@Override
+	public List<Long> createAll(List<V> values) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		if (this.maxSize != NO_MAX_SIZE && this.maxSize < this.size + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		List<Long> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			Long key = this.keyGenerator.get();
+			this.put(key, value);
+			result.add(key);
+		}
+		return result;
+	}
+
+	@Override
+	public V read(Object key) {
+		if (!(key instanceof Long)) {
+			return null;
+		}
+		return this.get((Long) key);
+	}
+
+	@Override
+	public V get(long key) {
+		int index = this.indexOf(key);
+		if (index < 0) {
+			return null;
+		}
+		return unmask(this.values[index]);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		if (!(key instanceof Long)) {
+			return Lookup.absent();
+		}
+		int index = this.indexOf((Long) key);
+		if (index < 0) {
+			return Lookup.absent();
+		}
+		return Lookup.of(unmask(this.values[index]));
+	}
+
+	@Override
+	public void update(Long key, V value) {
+		this.put(key, value);
+	}
+
+	@Override
+	public void put(long key, V value) {
+		int mask = this.keys.length - 1;
+		int removed = -1;
+		int index = hash(key) & mask;
+		for (; ; index = (index + 1) & mask) {
+			Object actual = this.values[index];
+			if (actual == null) {
+				break;
+			}
+			if (actual == REMOVED) {
+				if (removed < 0) {
+					removed = index;
+				}
+				continue;
+			}
+			if (this.keys[index] == key) {
+				this.values[index] = mask(value);
+				return;
+			}
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		if (0 <= removed) {
+			index = removed;
+		} else {
+			++this.used;
+		}
+		this.keys[index] = key;
+		this.values[index] = mask(value);
+		++this.size;
+		if (this.threshold < this.used) {
+			this.rehash();
+		}
+	}
+
+	@Override
+	public void swap(Long key1, Long key2) {
+		this.swap(key1.longValue(), key2.longValue());
+	}
+
+	@Override
+	public void swap(long key1, long key2) {
+		int index1 = this.indexOf(key1);
+		if (index1 < 0) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		int index2 = this.indexOf(key2);
+		if (index2 < 0) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		Object value = this.values[index1];
+		this.values[index1] = this.values[index2];
+		this.values[index2] = value;
+	}
+
+	@Override
+	public void delete(Object key) {
+		if (!(key instanceof Long)) {
+			return;
+		}
+		this.remove((Long) key);
+	}
+
+	@Override
+	public void remove(long key) {
+		int index = this.indexOf(key);
+		if (index < 0) {
+			return;
+		}
+		this.removeAt(index);
+	}
+
+	@Override
+	public V putIfAbsent(Long key, V value) {
+		int index = this.indexOf(key);
+		if (0 <= index) {
+			return unmask(this.values[index]);
+		}
+		this.put(key, value);
+		return null;
+	}
+
+	@Override
+	public boolean replace(Long key, V expected, V value) {
+		int index = this.indexOf(key);
+		if (index < 0 || !Objects.equals(unmask(this.values[index]), expected)) {
+			return false;
+		}
+		this.values[index] = mask(value);
+		return true;
+	}
+
+	@Override
+	public boolean delete(Object key, Object expected) {
+		if (!(key instanceof Long)) {
+			return false;
+		}
+		int index = this.indexOf((Long) key);
+		if (index < 0 || !Objects.equals(unmask(this.values[index]), expected)) {
+			return false;
+		}
+		this.removeAt(index);
+		return true;
+	}
+
+	@Override
+	public Iterator<Map.Entry<Long, V>> iterator() {
+		return new SlotIterator<>() {
+			@Override
+			Map.Entry<Long, V> get(int index) {
+				return new LongKeyEntry(LongKeyMemoryStorage.this.keys[index], unmask(LongKeyMemoryStorage.this.values[index]));
+			}
+		};
+	}
+
+	@Override
+	public Iterator<Long> keyIterator() {
+		return new SlotIterator<>() {
+			@Override
+			Long get(int index) {
+				return LongKeyMemoryStorage.this.keys[index];
+			}
+		};
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		return new SlotIterator<>() {
+			@Override
+			V get(int index) {
+				return unmask(LongKeyMemoryStorage.this.values[index]);
+			}
+		};
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<Long> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<Long> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	private int indexOf(long key) {
+		int mask = this.keys.length - 1;
+		for (int index = hash(key) & mask; ; index = (index + 1) & mask) {
+			Object actual = this.values[index];
+			if (actual == null) {
+				return -1;
+			}
+			if (actual != REMOVED && this.keys[index] == key) {
+				return index;
+			}
+		}
+	}
+
+	/**
+	 * Marks the slot as deleted, so the probing sequences going through
+	 * the slot are not broken, and the iterators are not affected.
+	 */
+	private void removeAt(int index) {
+		this.values[index] = REMOVED;
+		--this.size;
+	}
+
+	private void rehash() {
+		long[] oldKeys = this.keys;
+		Object[] oldValues = this.values;
+		this.allocate(tableSizeFor(this.size));
+		int mask = this.keys.length - 1;
+		for (int i = 0; i < oldValues.length; ++i) {
+			Object value = oldValues[i];
+			if (value == null || value == REMOVED) {
+				continue;
+			}
+			int index = hash(oldKeys[i]) & mask;
+			for (; this.values[index] != null; index = (index + 1) & mask) ;
+			this.keys[index] = oldKeys[i];
+			this.values[index] = value;
+			++this.size;
+		}
+		this.used = this.size;
+	}
+
+	private void allocate(int tableSize) {
+		this.keys = new long[tableSize];
+		this.values = new Object[tableSize];
+		this.threshold = (tableSize >>> 1) + (tableSize >>> 2);
+		this.size = 0;
+		this.used = 0;
+	}
+
+	/**
+	 * @return the smallest power of two table size, which holds the given number of entries below the load factor of 0.5
+	 */
+	private static int tableSizeFor(int entries) {
+		int result = MIN_TABLE_SIZE;
+		while (result < MAX_TABLE_SIZE && result < 2 * (long) entries) {
+			result <<= 1;
+		}
+		return result;
+	}
+
+	/**
+	 * Spreads the bits of sequential keys over the table
+	 */
+	private static int hash(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32));
+	}
+
+	private static Object mask(Object item) {
+		return item == null ? NULL : item;
+	}
+
+	private static <T> T unmask(Object item) {
+		return item == NULL ? null : (T) item;
+	}
+
+	private abstract class SlotIterator<T> implements Iterator<T> {
+		private int next = -1;
+		private int last = -1;
+
+		SlotIterator() {
+			this.advance();
+		}
+
+		abstract T get(int index);
+
+		@Override
+		public boolean hasNext() {
+			return this.next < LongKeyMemoryStorage.this.values.length;
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next;
+			this.advance();
+			return this.get(this.last);
+		}
+
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			LongKeyMemoryStorage.this.removeAt(this.last);
+			this.last = -1;
+		}
+
+		private void advance() {
+			Object[] values = LongKeyMemoryStorage.this.values;
+			for (++this.next; this.next < values.length; ++this.next) {
+				Object value = values[this.next];
+				if (value != null && value != REMOVED) {
+					return;
+				}
+			}
+		}
+	}
+
+	private final class LongKeyEntry implements Map.Entry<Long, V> {
+		private final long key;
+		private V value;
+
+		LongKeyEntry(long key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public Long getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			LongKeyMemoryStorage.this.put(this.key, value);
+			return result;
+		}
+	}
+}
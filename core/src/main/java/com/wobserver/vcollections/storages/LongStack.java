@@ -0,0 +1,31 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Arrays;
+
+/**
+ * A growable stack of primitive long values, used to keep the free addresses of storages
+ * without boxing them.
+ */
+class LongStack {
+	private long[] items = new long[16];
+	private int size = 0;
+
+	boolean isEmpty() {
+		return this.size == 0;
+	}
+
+	void push(long item) {
+		if (this.size == this.items.length) {
+			this.items = Arrays.copyOf(this.items, this.size << 1);
+		}
+		this.items[this.size++] = item;
+	}
+
+	long pop() {
+		return this.items[--this.size];
+	}
+
+	void clear() {
+		this.size = 0;
+	}
+}
@@ -0,0 +1,106 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.Objects;
+
+/**
+ * The result of looking up a key in a storage.
+ * <p>
+ * Unlike {@link java.util.Optional} it distinguishes the absent key
+ * from the key associated with null.
+ *
+ * @param <V> the type of the value
+ */
+public final class Lookup<V> {
+
+	private static final Lookup<?> ABSENT = new Lookup<>(false, null);
+
+	/**
+	 * @param <V> the type of the value
+	 * @return the result of a lookup, which has not found the key
+	 */
+	public static <V> Lookup<V> absent() {
+		return (Lookup<V>) ABSENT;
+	}
+
+	/**
+	 * @param value the value the key is associated with, can be null
+	 * @param <V>   the type of the value
+	 * @return the result of a lookup, which has found the key
+	 */
+	public static <V> Lookup<V> of(V value) {
+		return new Lookup<>(true, value);
+	}
+
+	/**
+	 * For storages cannot store null values
+	 *
+	 * @param value the value has been read, or null if the key has not been found
+	 * @param <V>   the type of the value
+	 * @return {@link Lookup#absent()} if the value is null, {@link Lookup#of(Object)} otherwise
+	 */
+	public static <V> Lookup<V> ofNullable(V value) {
+		if (value == null) {
+			return absent();
+		}
+		return of(value);
+	}
+
+	private final boolean present;
+	private final V value;
+
+	private Lookup(boolean present, V value) {
+		this.present = present;
+		this.value = value;
+	}
+
+	public boolean isPresent() {
+		return this.present;
+	}
+
+	/**
+	 * @return the value the key is associated with
+	 * @throws KeyNotFoundException if the key has not been found
+	 */
+	public V get() {
+		if (!this.present) {
+			throw new KeyNotFoundException();
+		}
+		return this.value;
+	}
+
+	/**
+	 * @param other the value returned if the key has not been found
+	 * @return the value the key is associated with, or other if the key has not been found
+	 */
+	public V orElse(V other) {
+		if (!this.present) {
+			return other;
+		}
+		return this.value;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof Lookup)) {
+			return false;
+		}
+		Lookup<?> other = (Lookup<?>) o;
+		return this.present == other.present && Objects.equals(this.value, other.value);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(this.present, this.value);
+	}
+
+	@Override
+	public String toString() {
+		if (!this.present) {
+			return "Lookup.absent";
+		}
+		return String.format("Lookup[%s]", this.value);
+	}
+}
@@ -0,0 +1,446 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A file based storage keeping the entries in fixed size slots of one memory-mapped file.
+ * <p>
+ * The file is mapped by regions, and a new region is mapped (extending the file) when
+ * all slots are occupied. A slot holds the serialized key, the serialized value and their lengths,
+ * so the key-to-slot index is persisted by the slots themselves, and it is rebuilt in memory
+ * by scanning the slots when the file is opened. Reads and writes access the mapped memory
+ * without system calls, and {@link MappedFileStorage#readBuffer(Object)} gives the serialized value
+ * without copying it.
+ * <p>
+ * Entries not fitting into a slot are rejected. Changes are written to the disk by the operating system,
+ * or explicitly by {@link MappedFileStorage#flush()}. The storage is not thread-safe.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class MappedFileStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>, Closeable {
+
+	/**
+	 * The default size of a region mapped at once in bytes
+	 */
+	public static final int DEFAULT_REGION_SIZE = 64 * 1024 * 1024;
+
+	private static final int HEADER_SIZE = 2 * Integer.BYTES;
+	private static final int FREE_KEY_HEADER = 0;
+	private static final int NULL_VALUE_HEADER = -1;
+
+	private IKeyGenerator<K> keyGenerator;
+	private final IMapper<K, byte[]> keyMapper;
+	private final IMapper<V, byte[]> valueMapper;
+	private final FileChannel channel;
+	private final int slotSize;
+	private final int slotsPerRegion;
+	private final Long maxSize;
+	private final List<MappedByteBuffer> regions = new ArrayList<>();
+	private final Map<K, Long> slots = new HashMap<>();
+	private final LongStack freeSlots = new LongStack();
+
+	/**
+	 * Opens or creates the file, and builds the index of the keys from the occupied slots.
+	 *
+	 * @param keyMapper    the mapper serializes the keys
+	 * @param valueMapper  the mapper serializes the values
+	 * @param path         the path of the file
+	 * @param slotSize     the size of a slot in bytes, including a header of 8 bytes
+	 * @param regionSize   the size of a region mapped at once in bytes
+	 * @param keyGenerator the key generator used to create entries
+	 * @param maxSize      the maximal number of entries, or {@link IStorage#NO_MAX_SIZE}
+	 * @throws IOException if the file cannot be opened or mapped
+	 */
+	public MappedFileStorage(IMapper<K, byte[]> keyMapper, IMapper<V, byte[]> valueMapper, String path, int slotSize, int regionSize, IKeyGenerator<K> keyGenerator, Long maxSize) throws IOException {
+		if (keyMapper == null || valueMapper == null) {
+			throw new NullPointerException();
+		}
+		if (slotSize <= HEADER_SIZE) {
+			throw new IllegalArgumentException("The size of the slot must be greater than " + HEADER_SIZE);
+		}
+		if (regionSize < slotSize) {
+			throw new IllegalArgumentException("The size of the region must be at least the size of the slot");
+		}
+		this.keyMapper = keyMapper;
+		this.valueMapper = valueMapper;
+		this.slotSize = slotSize;
+		this.slotsPerRegion = regionSize / slotSize;
+		this.keyGenerator = keyGenerator;
+		this.maxSize = maxSize == null ? IStorage.NO_MAX_SIZE : maxSize;
+		this.channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		long regionBytes = (long) this.slotsPerRegion * slotSize;
+		long regions = (this.channel.size() + regionBytes - 1) / regionBytes;
+		for (long i = 0; i < regions; ++i) {
+			this.mapRegion();
+		}
+		this.buildIndex();
+	}
+
+	/**
+	 * {@code regionSize} defaults to {@link MappedFileStorage#DEFAULT_REGION_SIZE}.
+	 *
+	 * @see MappedFileStorage#MappedFileStorage(IMapper, IMapper, String, int, int, IKeyGenerator, Long)
+	 */
+	public MappedFileStorage(IMapper<K, byte[]> keyMapper, IMapper<V, byte[]> valueMapper, String path, int slotSize, IKeyGenerator<K> keyGenerator, Long maxSize) throws IOException {
+		this(keyMapper, valueMapper, path, slotSize, Math.max(slotSize, DEFAULT_REGION_SIZE - DEFAULT_REGION_SIZE % slotSize), keyGenerator, maxSize);
+	}
+
+	@Override
+	public Long entries() {
+		return Long.valueOf(this.slots.size());
+	}
+
+	@Override
+	public Long capacity() {
+		return this.maxSize;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.maxSize <= this.slots.size();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.slots.isEmpty();
+	}
+
+	@Override
+	public boolean has(Object key) {
+		return this.slots.containsKey(key);
+	}
+
+	@Override
+	public void clear() {
+		for (Long slot : this.slots.values()) {
+			this.regionOf(slot).putInt(this.offsetOf(slot), FREE_KEY_HEADER);
+		}
+		this.slots.clear();
+		this.freeSlots.clear();
+		for (long slot = (long) this.regions.size() * this.slotsPerRegion - 1; 0 <= slot; --slot) {
+			this.freeSlots.push(slot);
+		}
+	}
+
+	@Override
+	public K create(V value) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		K key = this.keyGenerator.get();
+		this.update(key, value);
+		return key;
+	}
+
+	@Override
+	public V read(Object key) {
+		Long slot = this.slots.get(key);
+		if (slot == null) {
+			return null;
+		}
+		return this.readValue(slot);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		Long slot = this.slots.get(key);
+		if (slot == null) {
+			return Lookup.absent();
+		}
+		return Lookup.of(this.readValue(slot));
+	}
+
+	/**
+	 * Gives the serialized value of the key without copying it from the mapped file.
+	 * <p>
+	 * The returned buffer is a read-only view of the slot, and it is valid until
+	 * the entry is updated or deleted.
+	 *
+	 * @param key the key to which a value belongs to
+	 * @return a view of the serialized value, or null if the key does not exist or the value is null
+	 */
+	public ByteBuffer readBuffer(Object key) {
+		Long slot = this.slots.get(key);
+		if (slot == null) {
+			return null;
+		}
+		ByteBuffer region = this.regionOf(slot);
+		int offset = this.offsetOf(slot);
+		int valueHeader = region.getInt(offset + Integer.BYTES);
+		if (valueHeader == NULL_VALUE_HEADER) {
+			return null;
+		}
+		int keyLength = region.getInt(offset) - 1;
+		ByteBuffer view = region.asReadOnlyBuffer();
+		view.position(offset + HEADER_SIZE + keyLength);
+		view.limit(offset + HEADER_SIZE + keyLength + valueHeader);
+		return view.slice();
+	}
+
+	@Override
+	public void update(K key, V value) {
+		byte[] valueBytes = value == null ? null : this.valueMapper.encode(value);
+		Long slot = this.slots.get(key);
+		if (slot != null) {
+			ByteBuffer region = this.regionOf(slot);
+			int offset = this.offsetOf(slot);
+			int keyLength = region.getInt(offset) - 1;
+			this.checkSize(keyLength, valueBytes);
+			this.writeValue(region, offset, keyLength, valueBytes);
+			return;
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		byte[] keyBytes = this.keyMapper.encode(key);
+		this.checkSize(keyBytes.length, valueBytes);
+		long allocated = this.allocate();
+		ByteBuffer region = this.regionOf(allocated);
+		int offset = this.offsetOf(allocated);
+		ByteBuffer view = region.duplicate();
+		view.position(offset + HEADER_SIZE);
+		view.put(keyBytes);
+		this.writeValue(region, offset, keyBytes.length, valueBytes);
+		// the slot is occupied by writing the key header at last
+		region.putInt(offset, keyBytes.length + 1);
+		this.slots.put(key, allocated);
+	}
+
+	@Override
+	public void swap(K key1, K key2) {
+		Long slot1 = this.slots.get(key1);
+		if (slot1 == null) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		Long slot2 = this.slots.get(key2);
+		if (slot2 == null) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		V value1 = this.readValue(slot1);
+		V value2 = this.readValue(slot2);
+		this.update(key1, value2);
+		this.update(key2, value1);
+	}
+
+	@Override
+	public void delete(Object key) {
+		Long slot = this.slots.remove(key);
+		if (slot != null) {
+			this.free(slot);
+		}
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		Iterator<Map.Entry<K, Long>> iterator = this.slots.entrySet().iterator();
+		return new Iterator<Map.Entry<K, V>>() {
+			private Long last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Map.Entry<K, V> next() {
+				Map.Entry<K, Long> entry = iterator.next();
+				this.last = entry.getValue();
+				return new MappedEntry(entry.getKey(), MappedFileStorage.this.readValue(this.last));
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				MappedFileStorage.this.free(this.last);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<K> keyIterator() {
+		Iterator<Map.Entry<K, Long>> iterator = this.slots.entrySet().iterator();
+		return new Iterator<K>() {
+			private Long last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				Map.Entry<K, Long> entry = iterator.next();
+				this.last = entry.getValue();
+				return entry.getKey();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				MappedFileStorage.this.free(this.last);
+			}
+		};
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	/**
+	 * Writes the changes of the mapped regions to the disk
+	 */
+	public void flush() {
+		for (MappedByteBuffer region : this.regions) {
+			region.force();
+		}
+	}
+
+	/**
+	 * Flushes the changes and closes the file
+	 *
+	 * @throws IOException if an I/O error occurs
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flush();
+		this.channel.close();
+	}
+
+	private void buildIndex() {
+		for (long slot = (long) this.regions.size() * this.slotsPerRegion - 1; 0 <= slot; --slot) {
+			ByteBuffer region = this.regionOf(slot);
+			int offset = this.offsetOf(slot);
+			int keyHeader = region.getInt(offset);
+			if (keyHeader == FREE_KEY_HEADER) {
+				this.freeSlots.push(slot);
+				continue;
+			}
+			byte[] keyBytes = new byte[keyHeader - 1];
+			ByteBuffer view = region.duplicate();
+			view.position(offset + HEADER_SIZE);
+			view.get(keyBytes);
+			this.slots.put(this.keyMapper.decode(keyBytes), slot);
+		}
+	}
+
+	private V readValue(long slot) {
+		ByteBuffer region = this.regionOf(slot);
+		int offset = this.offsetOf(slot);
+		int valueHeader = region.getInt(offset + Integer.BYTES);
+		if (valueHeader == NULL_VALUE_HEADER) {
+			return null;
+		}
+		int keyLength = region.getInt(offset) - 1;
+		byte[] bytes = new byte[valueHeader];
+		ByteBuffer view = region.duplicate();
+		view.position(offset + HEADER_SIZE + keyLength);
+		view.get(bytes);
+		return this.valueMapper.decode(bytes);
+	}
+
+	private void writeValue(ByteBuffer region, int offset, int keyLength, byte[] valueBytes) {
+		if (valueBytes == null) {
+			region.putInt(offset + Integer.BYTES, NULL_VALUE_HEADER);
+			return;
+		}
+		ByteBuffer view = region.duplicate();
+		view.position(offset + HEADER_SIZE + keyLength);
+		view.put(valueBytes);
+		region.putInt(offset + Integer.BYTES, valueBytes.length);
+	}
+
+	private void checkSize(int keyLength, byte[] valueBytes) {
+		int size = HEADER_SIZE + keyLength + (valueBytes == null ? 0 : valueBytes.length);
+		if (this.slotSize < size) {
+			throw new IllegalArgumentException("The serialized entry (" + size + " bytes) does not fit into a slot of " + this.slotSize + " bytes");
+		}
+	}
+
+	private long allocate() {
+		if (this.freeSlots.isEmpty()) {
+			long first = (long) this.regions.size() * this.slotsPerRegion;
+			try {
+				this.mapRegion();
+			} catch (IOException e) {
+				throw new RuntimeException(e.getMessage());
+			}
+			for (long slot = first + this.slotsPerRegion - 1; first <= slot; --slot) {
+				this.freeSlots.push(slot);
+			}
+		}
+		return this.freeSlots.pop();
+	}
+
+	private void free(long slot) {
+		this.regionOf(slot).putInt(this.offsetOf(slot), FREE_KEY_HEADER);
+		this.freeSlots.push(slot);
+	}
+
+	private void mapRegion() throws IOException {
+		long regionBytes = (long) this.slotsPerRegion * this.slotSize;
+		long position = this.regions.size() * regionBytes;
+		this.regions.add(this.channel.map(FileChannel.MapMode.READ_WRITE, position, regionBytes));
+	}
+
+	private ByteBuffer regionOf(long slot) {
+		return this.regions.get((int) (slot / this.slotsPerRegion));
+	}
+
+	private int offsetOf(long slot) {
+		return (int) (slot % this.slotsPerRegion) * this.slotSize;
+	}
+
+	private final class MappedEntry implements Map.Entry<K, V> {
+		private final K key;
+		private V value;
+
+		MappedEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			MappedFileStorage.this.update(this.key, value);
+			return result;
+		}
+	}
+}
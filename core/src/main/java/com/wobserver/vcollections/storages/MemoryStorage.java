@@ -2,9 +2,13 @@ package com.wobserver.vcollections.storages;
 
 import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
 import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.function.BiFunction;
 
 public class MemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K> {
 
@@ -74,6 +78,15 @@ public class MemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<
 		return this.map.get(key);
 	}
 
+	@Override
+	public Lookup<V> lookup(Object key) {
+		V value = this.map.get(key);
+		if (value != null || this.map.containsKey(key)) {
+			return Lookup.of(value);
+		}
+		return Lookup.absent();
+	}
+
 	@Override
 	public void update(K key, V value) {
 		if (this.isFull() && !this.has(key)) {
@@ -98,11 +111,93 @@ public class MemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<
 		this.map.remove(key);
 	}
 
+	@Override
+	public List<K> createAll(List<V> values) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		this.checkCapacityFor(values.size());
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			K key = this.keyGenerator.get();
+			this.map.put(key, value);
+			result.add(key);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		for (K key : keys) {
+			V value = this.map.get(key);
+			if (value != null || this.map.containsKey(key)) {
+				result.put(key, value);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		if (this.maxSize != NO_MAX_SIZE) {
+			long newEntries = entries.keySet().stream().filter(key -> !this.map.containsKey(key)).count();
+			this.checkCapacityFor(newEntries);
+		}
+		this.map.putAll(entries);
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		for (Object key : keys) {
+			this.map.remove(key);
+		}
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		if (this.isFull() && !this.map.containsKey(key)) {
+			throw new OutOfSpaceException();
+		}
+		return this.map.putIfAbsent(key, value);
+	}
+
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		return this.map.replace(key, expected, value);
+	}
+
+	@Override
+	public boolean delete(Object key, Object expected) {
+		return this.map.remove(key, expected);
+	}
+
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return this.map.compute(key, (k, oldValue) -> {
+			V newValue = remappingFunction.apply(k, oldValue);
+			if (newValue != null && oldValue == null && this.isFull() && !this.map.containsKey(k)) {
+				throw new OutOfSpaceException();
+			}
+			return newValue;
+		});
+	}
+
 	@Override
 	public Iterator<Map.Entry<K, V>> iterator() {
 		return this.map.entrySet().iterator();
 	}
 
+	@Override
+	public Iterator<K> keyIterator() {
+		return this.map.keySet().iterator();
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		return this.map.values().iterator();
+	}
+
 	@Override
 	public void setKeyGenerator(IKeyGenerator<K> value) {
 		this.keyGenerator = value;
@@ -113,4 +208,13 @@ public class MemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<
 		return this.keyGenerator;
 	}
 
+	private void checkCapacityFor(long newEntries) {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return;
+		}
+		if (this.maxSize < this.map.size() + newEntries) {
+			throw new OutOfSpaceException();
+		}
+	}
+
 }
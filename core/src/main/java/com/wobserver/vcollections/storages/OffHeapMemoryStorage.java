@@ -0,0 +1,417 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An in-memory storage keeping the values outside of the java heap.
+ * <p>
+ * The values are serialized by the provided value mapper into blocks of direct {@link ByteBuffer} slabs,
+ * and only the keys and the addresses of the blocks are kept on the heap, so the values
+ * are not traversed by the garbage collector.
+ * <p>
+ * The size of a block is the power of two holding the serialized value and its length.
+ * Deleted blocks are reused by the values of the same block size, and the slabs are
+ * only released by {@link OffHeapMemoryStorage#clear()}. Values having larger blocks than a slab
+ * are allocated in a dedicated slab. The storage is not thread-safe.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class OffHeapMemoryStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K> {
+
+	/**
+	 * The default size of a slab allocated for the blocks in bytes
+	 */
+	public static final int DEFAULT_SLAB_SIZE = 64 * 1024 * 1024;
+
+	private static final int HEADER_SIZE = Integer.BYTES;
+	private static final int MIN_BLOCK_SIZE = 16;
+	private static final int MAX_BLOCK_SIZE = 1 << 30;
+	private static final int NULL_LENGTH = -1;
+
+	private IKeyGenerator<K> keyGenerator;
+	private final IMapper<V, byte[]> valueMapper;
+	private final int slabSize;
+	private final Long maxSize;
+	/**
+	 * The addresses of the blocks, the upper 32 bits are the index of the slab, the lower are the offset in the slab
+	 */
+	private final Map<K, Long> addresses = new HashMap<>();
+	private final List<ByteBuffer> slabs = new ArrayList<>();
+	/**
+	 * The free blocks indexed by the exponent of their sizes
+	 */
+	private final LongStack[] freeBlocks = new LongStack[Integer.SIZE];
+	private int actualSlab = -1;
+	private int actualOffset = 0;
+
+	/**
+	 * @param keyGenerator the key generator used to create entries
+	 * @param valueMapper  the mapper serializes the values to the blocks
+	 * @param slabSize     the size of the slabs in bytes
+	 * @param maxSize      the maximal number of entries, or {@link IStorage#NO_MAX_SIZE}
+	 */
+	public OffHeapMemoryStorage(IKeyGenerator<K> keyGenerator, IMapper<V, byte[]> valueMapper, int slabSize, Long maxSize) {
+		if (valueMapper == null) {
+			throw new NullPointerException();
+		}
+		if (slabSize < MIN_BLOCK_SIZE) {
+			throw new IllegalArgumentException("The size of the slab must be at least " + MIN_BLOCK_SIZE);
+		}
+		this.keyGenerator = keyGenerator;
+		this.valueMapper = valueMapper;
+		this.slabSize = slabSize;
+		this.maxSize = maxSize == null ? IStorage.NO_MAX_SIZE : maxSize;
+	}
+
+	/**
+	 * {@code slabSize} defaults to {@link OffHeapMemoryStorage#DEFAULT_SLAB_SIZE}.
+	 *
+	 * @see OffHeapMemoryStorage#OffHeapMemoryStorage(IKeyGenerator, IMapper, int, Long)
+	 */
+	public OffHeapMemoryStorage(IKeyGenerator<K> keyGenerator, IMapper<V, byte[]> valueMapper, Long maxSize) {
+		this(keyGenerator, valueMapper, DEFAULT_SLAB_SIZE, maxSize);
+	}
+
+	@Override
+	public Long entries() {
+		return Long.valueOf(this.addresses.size());
+	}
+
+	@Override
+	public Long capacity() {
+		return this.maxSize;
+	}
+
+	/**
+	 * @return the number of bytes allocated outside of the heap
+	 */
+	public long allocatedBytes() {
+		long result = 0;
+		for (ByteBuffer slab : this.slabs) {
+			result += slab.capacity();
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.maxSize == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.maxSize <= this.addresses.size();
+	}
+
+	/**
+	 * Deletes all entries and releases the slabs.
+	 * The direct memory is freed when the garbage collector collects the released slabs.
+	 */
+	@Override
+	public void clear() {
+		this.addresses.clear();
+		this.slabs.clear();
+		Arrays.fill(this.freeBlocks, null);
+		this.actualSlab = -1;
+		this.actualOffset = 0;
+	}
+
+	@Override
+	public boolean has(Object key) {
+		return this.addresses.containsKey(key);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.addresses.isEmpty();
+	}
+
+	@Override
+	public K create(V value) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException();
+		}
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		K key = this.keyGenerator.get();
+		this.update(key, value);
+		return key;
+	}
+
+	@Override
+	public V read(Object key) {
+		Long address = this.addresses.get(key);
+		if (address == null) {
+			return null;
+		}
+		return this.readBlock(address);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		Long address = this.addresses.get(key);
+		if (address == null) {
+			return Lookup.absent();
+		}
+		return Lookup.of(this.readBlock(address));
+	}
+
+	@Override
+	public void update(K key, V value) {
+		byte[] bytes = value == null ? null : this.valueMapper.encode(value);
+		int blockSize = blockSizeFor(bytes);
+		Long address = this.addresses.get(key);
+		if (address == null) {
+			if (this.isFull()) {
+				throw new OutOfSpaceException();
+			}
+		} else if (this.blockSizeOf(address) == blockSize) {
+			this.writeBlock(address, bytes);
+			return;
+		} else {
+			this.free(address);
+		}
+		long allocated = this.allocate(blockSize);
+		this.writeBlock(allocated, bytes);
+		this.addresses.put(key, allocated);
+	}
+
+	/**
+	 * Swaps the addresses of the blocks, the values are not copied.
+	 */
+	@Override
+	public void swap(K key1, K key2) {
+		Long address1 = this.addresses.get(key1);
+		if (address1 == null) {
+			throw new KeyNotFoundException("key" + key1 + " does not exists.");
+		}
+		Long address2 = this.addresses.get(key2);
+		if (address2 == null) {
+			throw new KeyNotFoundException("key" + key2 + " does not exists.");
+		}
+		this.addresses.put(key1, address2);
+		this.addresses.put(key2, address1);
+	}
+
+	@Override
+	public void delete(Object key) {
+		Long address = this.addresses.remove(key);
+		if (address != null) {
+			this.free(address);
+		}
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		Iterator<Map.Entry<K, Long>> iterator = this.addresses.entrySet().iterator();
+		return new Iterator<Map.Entry<K, V>>() {
+			private Long last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public Map.Entry<K, V> next() {
+				Map.Entry<K, Long> entry = iterator.next();
+				this.last = entry.getValue();
+				return new OffHeapEntry(entry.getKey(), OffHeapMemoryStorage.this.readBlock(this.last));
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				OffHeapMemoryStorage.this.free(this.last);
+			}
+		};
+	}
+
+	@Override
+	public Iterator<K> keyIterator() {
+		Iterator<Map.Entry<K, Long>> iterator = this.addresses.entrySet().iterator();
+		return new Iterator<K>() {
+			private Long last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				Map.Entry<K, Long> entry = iterator.next();
+				this.last = entry.getValue();
+				return entry.getKey();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+				OffHeapMemoryStorage.this.free(this.last);
+			}
+		};
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	private V readBlock(long address) {
+		ByteBuffer slab = this.slabs.get(slabOf(address));
+		int offset = offsetOf(address);
+		int length = slab.getInt(offset);
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		ByteBuffer view = slab.duplicate();
+		view.position(offset + HEADER_SIZE);
+		view.get(bytes);
+		return this.valueMapper.decode(bytes);
+	}
+
+	private void writeBlock(long address, byte[] bytes) {
+		ByteBuffer slab = this.slabs.get(slabOf(address));
+		int offset = offsetOf(address);
+		if (bytes == null) {
+			slab.putInt(offset, NULL_LENGTH);
+			return;
+		}
+		slab.putInt(offset, bytes.length);
+		ByteBuffer view = slab.duplicate();
+		view.position(offset + HEADER_SIZE);
+		view.put(bytes);
+	}
+
+	private int blockSizeOf(long address) {
+		int length = this.slabs.get(slabOf(address)).getInt(offsetOf(address));
+		if (length == NULL_LENGTH) {
+			return MIN_BLOCK_SIZE;
+		}
+		return blockSizeFor(length);
+	}
+
+	private long allocate(int blockSize) {
+		int exponent = Integer.numberOfTrailingZeros(blockSize);
+		LongStack free = this.freeBlocks[exponent];
+		if (free != null && !free.isEmpty()) {
+			return free.pop();
+		}
+		if (this.slabSize < blockSize) {
+			this.slabs.add(ByteBuffer.allocateDirect(blockSize));
+			return addressOf(this.slabs.size() - 1, 0);
+		}
+		if (this.actualSlab < 0 || this.slabSize - this.actualOffset < blockSize) {
+			this.releaseRemainder();
+			this.slabs.add(ByteBuffer.allocateDirect(this.slabSize));
+			this.actualSlab = this.slabs.size() - 1;
+			this.actualOffset = 0;
+		}
+		long result = addressOf(this.actualSlab, this.actualOffset);
+		this.actualOffset += blockSize;
+		return result;
+	}
+
+	/**
+	 * Splits the unused end of the actual slab into free blocks
+	 */
+	private void releaseRemainder() {
+		if (this.actualSlab < 0) {
+			return;
+		}
+		int remainder = this.slabSize - this.actualOffset;
+		while (MIN_BLOCK_SIZE <= remainder) {
+			int blockSize = Integer.highestOneBit(remainder);
+			this.pushFree(addressOf(this.actualSlab, this.actualOffset), blockSize);
+			this.actualOffset += blockSize;
+			remainder -= blockSize;
+		}
+	}
+
+	private void free(long address) {
+		this.pushFree(address, this.blockSizeOf(address));
+	}
+
+	private void pushFree(long address, int blockSize) {
+		int exponent = Integer.numberOfTrailingZeros(blockSize);
+		LongStack free = this.freeBlocks[exponent];
+		if (free == null) {
+			free = new LongStack();
+			this.freeBlocks[exponent] = free;
+		}
+		free.push(address);
+	}
+
+	private static int blockSizeFor(byte[] bytes) {
+		if (bytes == null) {
+			return MIN_BLOCK_SIZE;
+		}
+		return blockSizeFor(bytes.length);
+	}
+
+	private static int blockSizeFor(int length) {
+		if (MAX_BLOCK_SIZE - HEADER_SIZE < length) {
+			throw new IllegalArgumentException("The serialized value is too large to store: " + length + " bytes");
+		}
+		int size = HEADER_SIZE + length;
+		if (size <= MIN_BLOCK_SIZE) {
+			return MIN_BLOCK_SIZE;
+		}
+		return Integer.highestOneBit(size - 1) << 1;
+	}
+
+	private static long addressOf(int slab, int offset) {
+		return ((long) slab << Integer.SIZE) | offset;
+	}
+
+	private static int slabOf(long address) {
+		return (int) (address >>> Integer.SIZE);
+	}
+
+	private static int offsetOf(long address) {
+		return (int) address;
+	}
+
+	private final class OffHeapEntry implements Map.Entry<K, V> {
+		private final K key;
+		private V value;
+
+		OffHeapEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			OffHeapMemoryStorage.this.update(this.key, value);
+			return result;
+		}
+	}
+}
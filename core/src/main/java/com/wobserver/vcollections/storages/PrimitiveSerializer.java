@@ -0,0 +1,113 @@
+package com.wobserver.vcollections.storages;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * A compact {@link ISerializer} for the boxed primitive types, {@link String} and byte arrays.
+ * <p>
+ * The numbers are written in their fixed-size big-endian binary form, the strings in UTF-8
+ * without any length or quotes, as the buffer holds exactly one value. A null number is an empty buffer,
+ * a null string is the single byte 0xFF (which never occurs in UTF-8), and a byte array is
+ * preceded by a byte telling if it is null.
+ *
+ * @param <T> the type of the serialized values
+ */
+public class PrimitiveSerializer<T> implements ISerializer<T> {
+
+	private static final byte NULL_STRING = (byte) 0xFF;
+
+	private static final Map<Class<?>, Codec<?>> CODECS = Map.of(
+			Boolean.class, new Codec<Boolean>(value -> 1, (buffer, value) -> buffer.put(value ? (byte) 1 : (byte) 0), buffer -> buffer.get() != 0),
+			Byte.class, new Codec<Byte>(value -> Byte.BYTES, ByteBuffer::put, ByteBuffer::get),
+			Short.class, new Codec<Short>(value -> Short.BYTES, ByteBuffer::putShort, ByteBuffer::getShort),
+			Character.class, new Codec<Character>(value -> Character.BYTES, ByteBuffer::putChar, ByteBuffer::getChar),
+			Integer.class, new Codec<Integer>(value -> Integer.BYTES, ByteBuffer::putInt, ByteBuffer::getInt),
+			Long.class, new Codec<Long>(value -> Long.BYTES, ByteBuffer::putLong, ByteBuffer::getLong),
+			Float.class, new Codec<Float>(value -> Float.BYTES, ByteBuffer::putFloat, ByteBuffer::getFloat),
+			Double.class, new Codec<Double>(value -> Double.BYTES, ByteBuffer::putDouble, ByteBuffer::getDouble)
+	);
+
+	/**
+	 * @param type the type of the values
+	 * @return true if the type can be serialized by a {@link PrimitiveSerializer}
+	 */
+	public static boolean isSupported(Class<?> type) {
+		return CODECS.containsKey(type) || String.class.equals(type) || byte[].class.equals(type);
+	}
+
+	private final Class<T> type;
+	private final Codec<T> codec;
+
+	public PrimitiveSerializer(Class<T> type) {
+		if (!isSupported(type)) {
+			throw new IllegalArgumentException(type.getName() + " is not supported by " + PrimitiveSerializer.class.getSimpleName());
+		}
+		this.type = type;
+		this.codec = (Codec<T>) CODECS.get(type);
+	}
+
+	@Override
+	public ByteBuffer serialize(T value) {
+		if (String.class.equals(this.type)) {
+			if (value == null) {
+				return ByteBuffer.wrap(new byte[]{NULL_STRING});
+			}
+			return ByteBuffer.wrap(((String) value).getBytes(StandardCharsets.UTF_8));
+		}
+		if (byte[].class.equals(this.type)) {
+			byte[] bytes = (byte[]) value;
+			ByteBuffer result = ByteBuffer.allocate(bytes == null ? 1 : 1 + bytes.length);
+			result.put(bytes == null ? (byte) 0 : (byte) 1);
+			if (bytes != null) {
+				result.put(bytes);
+			}
+			return result.flip();
+		}
+		if (value == null) {
+			return ByteBuffer.allocate(0);
+		}
+		ByteBuffer result = ByteBuffer.allocate(this.codec.size.applyAsInt(value));
+		this.codec.writer.accept(result, value);
+		return result.flip();
+	}
+
+	@Override
+	public T deserialize(ByteBuffer buffer) {
+		if (String.class.equals(this.type)) {
+			if (buffer.remaining() == 1 && buffer.get(buffer.position()) == NULL_STRING) {
+				buffer.position(buffer.limit());
+				return null;
+			}
+			return (T) StandardCharsets.UTF_8.decode(buffer).toString();
+		}
+		if (byte[].class.equals(this.type)) {
+			if (buffer.get() == 0) {
+				return null;
+			}
+			byte[] result = new byte[buffer.remaining()];
+			buffer.get(result);
+			return (T) result;
+		}
+		if (!buffer.hasRemaining()) {
+			return null;
+		}
+		return this.codec.reader.apply(buffer);
+	}
+
+	private static final class Codec<T> {
+		private final ToIntFunction<T> size;
+		private final BiConsumer<ByteBuffer, T> writer;
+		private final Function<ByteBuffer, T> reader;
+
+		Codec(ToIntFunction<T> size, BiConsumer<ByteBuffer, T> writer, Function<ByteBuffer, T> reader) {
+			this.size = size;
+			this.writer = writer;
+			this.reader = reader;
+		}
+	}
+}
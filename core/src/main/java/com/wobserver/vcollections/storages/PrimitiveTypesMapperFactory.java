@@ -83,7 +83,7 @@ public class PrimitiveTypesMapperFactory<TS, TR> {
 		result.putAll(
 				makePrimitiveMappersFor(String.class,
 						/** Boolean */ Boolean::getBoolean, Objects::toString,
-						/** Bytes   */ str -> str.getBytes(), Objects::toString,
+						/** Bytes   */ str -> str.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8),
 						/** Chars   */ str -> str.toCharArray(), chars -> new String(chars),
 						/** Short   */ Short::parseShort, Objects::toString,
 						/** Integer */ Integer::parseInt, Objects::toString,
@@ -228,13 +228,13 @@ public class PrimitiveTypesMapperFactory<TS, TR> {
 		result.putAll(
 				makePrimitiveMappersFor(String.class,
 						/** Boolean */ Boolean::parseBoolean, Objects::toString,
-						/** bytes   */ String::getBytes, Object::toString,
-						/** chars   */ String::toCharArray, Object::toString,
+						/** bytes   */ str -> str.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8),
+						/** chars   */ String::toCharArray, String::new,
 						/** short   */ Short::parseShort, Object::toString,
 						/** Integer */ Integer::parseInt, Object::toString,
 						/** Long    */ Long::parseLong, Object::toString,
 						/** Double  */ Double::parseDouble, Object::toString,
-						/** Float   */ null,Object::toString,
+						/** Float   */ Float::parseFloat, Object::toString,
 						/** String  */Function.identity(),Function.identity()
 				)
 		);
@@ -302,7 +302,7 @@ public class PrimitiveTypesMapperFactory<TS, TR> {
 						/** Long    */ bytesToLong, longToBytes,
 						/** Double  */ bytesToDouble, doubleToBytes,
 						/** Float   */ bytesToFloat, floatToBytes,
-						/** String  */ Objects::toString, String::getBytes
+						/** String  */ bytes -> new String(bytes, StandardCharsets.UTF_8), str -> str.getBytes(StandardCharsets.UTF_8)
 				)
 		);
 		
@@ -325,44 +325,44 @@ public class PrimitiveTypesMapperFactory<TS, TR> {
 		Map<String, IMapper> result = new HashMap<>();
 		result.put(
 				getKey(sourceType, Boolean.class),
-				makeMapper(fromBoolean, toBoolean)
+				makeMapper(toBoolean, fromBoolean)
 		);
 		result.put(
 				getKey(sourceType, byte[].class),
-				makeMapper(fromBytes, toBytes)
+				makeMapper(toBytes, fromBytes)
 		);
 		result.put(
 				getKey(sourceType, char[].class),
-				makeMapper(fromChars, toChars)
+				makeMapper(toChars, fromChars)
 		);
 		result.put(
 				getKey(sourceType, Short.class),
-				makeMapper(fromShort, toShort)
+				makeMapper(toShort, fromShort)
 		);
 
 		result.put(
 				getKey(sourceType, Integer.class),
-				makeMapper(fromInteger, toInteger)
+				makeMapper(toInteger, fromInteger)
 		);
 
 		result.put(
 				getKey(sourceType, Long.class),
-				makeMapper(fromLong, toLong)
+				makeMapper(toLong, fromLong)
 		);
 
 		result.put(
 				getKey(sourceType, Double.class),
-				makeMapper(fromDouble, toDouble)
+				makeMapper(toDouble, fromDouble)
 		);
 
 		result.put(
 				getKey(sourceType, Float.class),
-				makeMapper(fromFloat, toFloat)
+				makeMapper(toFloat, fromFloat)
 		);
 
 		result.put(
 				getKey(sourceType, String.class),
-				makeMapper(fromString, toString)
+				makeMapper(toString, fromString)
 		);
 		return result;
 	}
@@ -15,9 +15,8 @@ public class ReplicatedVStorage<K, V> implements IStorage<K, V>, IAccessKeyGener
 		Map<TK, IStorage<TK, TV>> keyToStorage = new HashMap<>();
 		for (int i = 0; i < storages.length; ++i) {
 			IStorage<TK, TV> storage = storages[i];
-			for (Iterator<Map.Entry<TK, TV>> it = storage.iterator(); it.hasNext(); ) {
-				Map.Entry<TK, TV> entry = it.next();
-				TK key = entry.getKey();
+			for (Iterator<TK> it = storage.keyIterator(); it.hasNext(); ) {
+				TK key = it.next();
 				if (!keyToStorage.containsKey(key)) {
 					keyToStorage.put(key, storage);
 				}
@@ -158,13 +157,25 @@ public class ReplicatedVStorage<K, V> implements IStorage<K, V>, IAccessKeyGener
 	 */
 	@Override
 	public V read(Object key) {
+		return this.lookup(key).orElse(null);
+	}
+
+	/**
+	 * Looks up the key in the underlying storages one by one, and returns the first found.
+	 *
+	 * @param key
+	 * @return
+	 */
+	@Override
+	public Lookup<V> lookup(Object key) {
 		for (IStorage<K, V> storage : this.storages) {
-			if (storage.has(key)) { // fixme
-				return storage.read(key);
+			Lookup<V> result = storage.lookup(key);
+			if (result.isPresent()) {
 				// pluggable actions in case of inconsistency or throw an exception
+				return result;
 			}
 		}
-		return null;
+		return Lookup.absent();
 	}
 
 	/**
@@ -0,0 +1,62 @@
+package com.wobserver.vcollections.storages;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.util.Set;
+
+/**
+ * Makes the {@link ISerializer}s shipped with the library by their names.
+ * <ul>
+ * <li>{@value #JSON}: JSON text by Jackson</li>
+ * <li>{@value #SMILE}: the binary JSON format Smile by Jackson</li>
+ * <li>{@value #CBOR}: the binary format CBOR by Jackson</li>
+ * <li>{@value #PRIMITIVE}: the compact {@link PrimitiveSerializer} for primitive types and strings</li>
+ * </ul>
+ */
+public class SerializerFactory {
+
+	public static final String JSON = "json";
+	public static final String SMILE = "smile";
+	public static final String CBOR = "cbor";
+	public static final String PRIMITIVE = "primitive";
+
+	private static final Set<String> NAMES = Set.of(JSON, SMILE, CBOR, PRIMITIVE);
+
+	/**
+	 * @param name the name of a serializer
+	 * @return true if the name is one of the serializers made by this factory
+	 */
+	public static boolean isSerializerName(String name) {
+		return name != null && NAMES.contains(name.toLowerCase());
+	}
+
+	/**
+	 * Makes a serializer
+	 *
+	 * @param name the name of the serializer
+	 * @param type the type of the serialized values
+	 * @param <T>  the type of the serialized values
+	 * @return the {@link ISerializer} for the type
+	 * @throws IllegalArgumentException if the name is unknown, or the primitive serializer does not support the type
+	 */
+	public static <T> ISerializer<T> make(String name, Class<T> type) {
+		if (!isSerializerName(name)) {
+			throw new IllegalArgumentException("Unknown serializer " + name + ", it must be one of " + NAMES);
+		}
+		switch (name.toLowerCase()) {
+			case SMILE:
+				return new JacksonSerializer<>(new ObjectMapper(new SmileFactory()), type);
+			case CBOR:
+				return new JacksonSerializer<>(new ObjectMapper(new CBORFactory()), type);
+			case PRIMITIVE:
+				return new PrimitiveSerializer<>(type);
+			default:
+				return new JacksonSerializer<>(new ObjectMapper(), type);
+		}
+	}
+
+	private SerializerFactory() {
+
+	}
+}
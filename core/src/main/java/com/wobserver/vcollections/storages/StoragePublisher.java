@@ -0,0 +1,217 @@
+package com.wobserver.vcollections.storages;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the entries of an {@link IStorage} to {@link Flow.Subscriber}s.
+ * <p>
+ * Every subscription opens its own {@link IStorageCursor} and fetches pages sized by the
+ * demand of the subscriber (limited by the maximal page size). While a page is delivered
+ * to the subscriber the next page is already fetched on the executor if there is demand for it,
+ * so the fetching and the processing of the entries are overlapped.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class StoragePublisher<K, V> implements Flow.Publisher<Map.Entry<K, V>> {
+
+	/**
+	 * The default maximal number of entries fetched in one page
+	 */
+	public static final int DEFAULT_MAX_PAGE_SIZE = 1000;
+
+	private final IStorage<K, V> storage;
+	private final Executor executor;
+	private final int maxPageSize;
+
+	/**
+	 * @param storage     the storage the entries are published from
+	 * @param executor    the executor the pages are fetched and delivered on
+	 * @param maxPageSize the maximal number of entries fetched in one page
+	 */
+	public StoragePublisher(IStorage<K, V> storage, Executor executor, int maxPageSize) {
+		if (storage == null || executor == null) {
+			throw new NullPointerException();
+		}
+		if (maxPageSize < 1) {
+			throw new IllegalArgumentException("The maximal page size must be greater than 0");
+		}
+		this.storage = storage;
+		this.executor = executor;
+		this.maxPageSize = maxPageSize;
+	}
+
+	/**
+	 * {@code maxPageSize} defaults to {@link StoragePublisher#DEFAULT_MAX_PAGE_SIZE}.
+	 *
+	 * @see StoragePublisher#StoragePublisher(IStorage, Executor, int)
+	 */
+	public StoragePublisher(IStorage<K, V> storage, Executor executor) {
+		this(storage, executor, DEFAULT_MAX_PAGE_SIZE);
+	}
+
+	@Override
+	public void subscribe(Flow.Subscriber<? super Map.Entry<K, V>> subscriber) {
+		if (subscriber == null) {
+			throw new NullPointerException();
+		}
+		StorageSubscription subscription = new StorageSubscription(subscriber);
+		subscriber.onSubscribe(subscription);
+	}
+
+	private class StorageSubscription implements Flow.Subscription {
+		private final Flow.Subscriber<? super Map.Entry<K, V>> subscriber;
+		private final AtomicLong demand = new AtomicLong();
+		private final AtomicInteger wip = new AtomicInteger();
+		private final Queue<Map.Entry<K, V>> buffer = new ArrayDeque<>();
+		private IStorageCursor<K, V> cursor;
+		private CompletableFuture<List<Map.Entry<K, V>>> prefetched;
+		private volatile boolean cancelled = false;
+		// an error raised outside of the drain, which is signalled by the drain, so the signals stay serial
+		private volatile Throwable error = null;
+		private boolean terminated = false;
+
+		StorageSubscription(Flow.Subscriber<? super Map.Entry<K, V>> subscriber) {
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(long n) {
+			if (n <= 0) {
+				if (this.error == null) {
+					this.error = new IllegalArgumentException("The number of requested items must be positive");
+				}
+				this.schedule();
+				return;
+			}
+			this.demand.accumulateAndGet(n, (actual, added) -> {
+				long result = actual + added;
+				return result < 0 ? Long.MAX_VALUE : result;
+			});
+			this.schedule();
+		}
+
+		@Override
+		public void cancel() {
+			this.cancelled = true;
+			this.schedule();
+		}
+
+		private void schedule() {
+			if (this.wip.getAndIncrement() == 0) {
+				StoragePublisher.this.executor.execute(this::drain);
+			}
+		}
+
+		/**
+		 * Delivers the entries to the subscriber. It is never executed concurrently.
+		 */
+		private void drain() {
+			int missed = 1;
+			do {
+				if (this.cancelled) {
+					this.terminate();
+				} else if (this.error != null) {
+					this.fail(this.error);
+				} else {
+					try {
+						this.deliver();
+					} catch (Throwable t) {
+						this.fail(t instanceof CompletionException && t.getCause() != null ? t.getCause() : t);
+					}
+				}
+				missed = this.wip.addAndGet(-missed);
+			} while (missed != 0);
+		}
+
+		private void deliver() {
+			while (!this.cancelled && !this.terminated && this.error == null) {
+				long requested = this.demand.get();
+				if (requested == 0) {
+					return;
+				}
+				if (this.buffer.isEmpty()) {
+					if (this.cursor == null) {
+						this.cursor = StoragePublisher.this.storage.cursor();
+					}
+					List<Map.Entry<K, V>> page;
+					if (this.prefetched == null) {
+						page = this.cursor.fetch(this.pageSizeFor(requested));
+					} else if (this.prefetched.isDone()) {
+						page = this.prefetched.join();
+						this.prefetched = null;
+					} else {
+						// the completion of the prefetch schedules the delivery again
+						return;
+					}
+					if (page.isEmpty() && this.cursor.isFinished()) {
+						this.terminate();
+						this.subscriber.onComplete();
+						return;
+					}
+					this.buffer.addAll(page);
+					this.prefetch(requested - page.size());
+					continue;
+				}
+				Map.Entry<K, V> entry = this.buffer.poll();
+				if (requested != Long.MAX_VALUE) {
+					this.demand.decrementAndGet();
+				}
+				this.subscriber.onNext(entry);
+			}
+		}
+
+		private void prefetch(long remaining) {
+			if (remaining < 1 || this.cursor.isFinished()) {
+				return;
+			}
+			IStorageCursor<K, V> actual = this.cursor;
+			int pageSize = this.pageSizeFor(remaining);
+			this.prefetched = CompletableFuture.supplyAsync(() -> actual.fetch(pageSize), StoragePublisher.this.executor);
+			this.prefetched.whenComplete((page, error) -> this.schedule());
+		}
+
+		private int pageSizeFor(long requested) {
+			return (int) Math.min(requested, StoragePublisher.this.maxPageSize);
+		}
+
+		/**
+		 * Cancels the subscription, and signals the error unless the subscriber has already been terminated
+		 */
+		private void fail(Throwable t) {
+			boolean signalled = this.terminated;
+			this.cancelled = true;
+			this.terminate();
+			if (!signalled) {
+				this.subscriber.onError(t);
+			}
+		}
+
+		private void terminate() {
+			if (this.terminated) {
+				return;
+			}
+			this.terminated = true;
+			this.buffer.clear();
+			if (this.cursor == null) {
+				return;
+			}
+			IStorageCursor<K, V> actual = this.cursor;
+			if (this.prefetched != null) {
+				this.prefetched.whenComplete((page, error) -> actual.close());
+				this.prefetched = null;
+			} else {
+				actual.close();
+			}
+		}
+	}
+}
@@ -0,0 +1,532 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A storage keeping the updates and deletes in memory, and writing them to the underlying storage in batches.
+ * <p>
+ * The modifications are collected in a dirty map, where a later modification of a key replaces the earlier one,
+ * so a key updated several times between two flushes is written only once. The dirty map is flushed
+ * <ul>
+ * <li>periodically on a background thread if a flush interval is given,</li>
+ * <li>on a background thread after the given number of modifications,</li>
+ * <li>on the caller thread if the dirty map reaches its maximal size,</li>
+ * <li>or when {@link #flush()} or {@link #close()} is called.</li>
+ * </ul>
+ * Reads see the modifications not yet flushed. The modifications not yet flushed are lost if the process stops.
+ * <p>
+ * If the underlying storage fails to write a batch, the modifications not written are put back into the dirty map,
+ * unless a key has been modified again in the meantime, and they are written by the next flush. The failure is thrown
+ * to the caller of {@link #flush()} and {@link #close()}, and to the modification filling the dirty map,
+ * while a failed background flush is retried by the next flush.
+ * <p>
+ * The storage is thread-safe if it is the only one accessing the underlying storage.
+ * The underlying storage is accessed by one thread at a time.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class WriteBehindStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>, Flushable, Closeable {
+
+	/**
+	 * The default maximal number of keys in the dirty map
+	 */
+	public static final int DEFAULT_MAX_DIRTY_ENTRIES = 10000;
+
+	private static final Object NULL = new Object();
+	private static final Object DELETED = new Object();
+
+	private final IStorage<K, V> storage;
+	private final long flushInterval;
+	private final int flushWrites;
+	private final int maxDirtyEntries;
+	/**
+	 * Held while the underlying storage is accessed. It is acquired before the monitor of this object
+	 * if both are needed, so the dirty map can be drained and written without being interrupted.
+	 */
+	private final Object storageLock = new Object();
+	private final ScheduledExecutorService flusher;
+	private Map<K, Object> dirty = new LinkedHashMap<>();
+	/**
+	 * The dirty keys not yet checked for existence in the underlying storage
+	 */
+	private Set<K> unresolved = new HashSet<>();
+	/**
+	 * The dirty keys checked, and found in the underlying storage
+	 */
+	private Set<K> stored = new HashSet<>();
+	/**
+	 * The change of the number of entries by the modifications of the checked dirty keys
+	 */
+	private long delta = 0;
+	private int writes = 0;
+	private boolean flushScheduled = false;
+	private IKeyGenerator<K> keyGenerator;
+
+	/**
+	 * @param storage         the storage the modifications are written to
+	 * @param flushInterval   the time in milliseconds between two periodic flushes, or 0 to disable periodic flushes
+	 * @param flushWrites     the number of modifications triggering a flush, or 0 to disable it
+	 * @param maxDirtyEntries the maximal number of keys having modifications not written to the storage
+	 */
+	public WriteBehindStorage(IStorage<K, V> storage, long flushInterval, int flushWrites, int maxDirtyEntries) {
+		if (storage == null) {
+			throw new NullPointerException();
+		}
+		if (flushInterval < 0 || flushWrites < 0 || maxDirtyEntries < 1) {
+			throw new IllegalArgumentException("The flush interval and the number of writes must not be negative, and the size of the dirty map must be positive");
+		}
+		this.storage = storage;
+		this.flushInterval = flushInterval;
+		this.flushWrites = flushWrites;
+		this.maxDirtyEntries = maxDirtyEntries;
+		this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread result = new Thread(runnable, WriteBehindStorage.class.getSimpleName() + "-flusher");
+			result.setDaemon(true);
+			return result;
+		});
+		if (0 < flushInterval) {
+			this.flusher.scheduleWithFixedDelay(this::flushInBackground, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Checks the existence of the dirty keys modified since the last call only,
+	 * the change of the number of entries by the other dirty keys is tracked at every modification
+	 */
+	@Override
+	public Long entries() {
+		synchronized (this.storageLock) {
+			synchronized (this) {
+				for (K key : this.unresolved) {
+					boolean isStored = this.storage.has(key);
+					if (isStored) {
+						this.stored.add(key);
+					}
+					this.delta += change(isStored, this.dirty.get(key));
+				}
+				this.unresolved.clear();
+				return this.storage.entries() + this.delta;
+			}
+		}
+	}
+
+	@Override
+	public Long capacity() {
+		return this.storage.capacity();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.entries() == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		Long capacity = this.capacity();
+		if (capacity == null || capacity == NO_MAX_SIZE) {
+			return false;
+		}
+		return capacity <= this.entries();
+	}
+
+	@Override
+	public K create(V value) {
+		if (this.keyGenerator == null) {
+			throw new NullPointerException("Create operation without keyGenerator is not supported.");
+		}
+		K key = this.keyGenerator.get();
+		this.update(key, value);
+		return key;
+	}
+
+	@Override
+	public V read(Object key) {
+		return this.lookup(key).orElse(null);
+	}
+
+	@Override
+	public Lookup<V> lookup(Object key) {
+		synchronized (this) {
+			Object value = this.dirty.get(key);
+			if (value == DELETED) {
+				return Lookup.absent();
+			}
+			if (value != null) {
+				return Lookup.of(unmask(value));
+			}
+		}
+		synchronized (this.storageLock) {
+			return this.storage.lookup(key);
+		}
+	}
+
+	@Override
+	public boolean has(Object key) {
+		synchronized (this) {
+			Object value = this.dirty.get(key);
+			if (value != null) {
+				return value != DELETED;
+			}
+		}
+		synchronized (this.storageLock) {
+			return this.storage.has(key);
+		}
+	}
+
+	@Override
+	public void update(K key, V value) {
+		Long capacity = this.capacity();
+		if (capacity != null && capacity != NO_MAX_SIZE) {
+			synchronized (this.storageLock) {
+				synchronized (this) {
+					if (!this.has(key) && capacity <= this.entries()) {
+						throw new OutOfSpaceException();
+					}
+					this.modify(key, mask(value));
+				}
+			}
+		} else {
+			synchronized (this) {
+				this.modify(key, mask(value));
+			}
+		}
+		this.afterModification();
+	}
+
+	@Override
+	public void delete(Object key) {
+		synchronized (this) {
+			this.modify((K) key, DELETED);
+		}
+		this.afterModification();
+	}
+
+	@Override
+	public void swap(K key1, K key2) {
+		synchronized (this.storageLock) {
+			synchronized (this) {
+				Lookup<V> value1 = this.lookup(key1);
+				if (!value1.isPresent()) {
+					throw new KeyNotFoundException("key" + key1 + " does not exists.");
+				}
+				Lookup<V> value2 = this.lookup(key2);
+				if (!value2.isPresent()) {
+					throw new KeyNotFoundException("key" + key2 + " does not exists.");
+				}
+				this.modify(key1, mask(value2.get()));
+				this.modify(key2, mask(value1.get()));
+			}
+		}
+		this.afterModification();
+	}
+
+	/**
+	 * Discards the modifications not yet written, and clears the underlying storage
+	 */
+	@Override
+	public void clear() {
+		synchronized (this.storageLock) {
+			synchronized (this) {
+				this.resetDirty();
+				this.storage.clear();
+			}
+		}
+	}
+
+	/**
+	 * Iterates over the keys existed when the iterator was created, and reads the values lazily
+	 */
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		Iterator<K> keys = this.keyIterator();
+		return new Iterator<Map.Entry<K, V>>() {
+			private Map.Entry<K, V> next = this.fetch();
+			private K last;
+
+			@Override
+			public boolean hasNext() {
+				return this.next != null;
+			}
+
+			@Override
+			public Map.Entry<K, V> next() {
+				if (this.next == null) {
+					throw new NoSuchElementException();
+				}
+				Map.Entry<K, V> result = this.next;
+				this.last = result.getKey();
+				this.next = this.fetch();
+				return result;
+			}
+
+			@Override
+			public void remove() {
+				WriteBehindStorage.this.delete(this.last);
+			}
+
+			private Map.Entry<K, V> fetch() {
+				while (keys.hasNext()) {
+					K key = keys.next();
+					Lookup<V> lookup = WriteBehindStorage.this.lookup(key);
+					if (lookup.isPresent()) {
+						return new WriteBehindEntry(key, lookup.get());
+					}
+				}
+				return null;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the keys existed when the iterator was created
+	 */
+	@Override
+	public Iterator<K> keyIterator() {
+		List<K> keys = new ArrayList<>();
+		synchronized (this.storageLock) {
+			synchronized (this) {
+				Set<K> stored = new HashSet<>();
+				for (Iterator<K> it = this.storage.keyIterator(); it.hasNext(); ) {
+					K key = it.next();
+					stored.add(key);
+					if (this.dirty.get(key) != DELETED) {
+						keys.add(key);
+					}
+				}
+				for (Map.Entry<K, Object> entry : this.dirty.entrySet()) {
+					if (entry.getValue() != DELETED && !stored.contains(entry.getKey())) {
+						keys.add(entry.getKey());
+					}
+				}
+			}
+		}
+		Iterator<K> iterator = keys.iterator();
+		return new Iterator<K>() {
+			private K last;
+
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public K next() {
+				this.last = iterator.next();
+				return this.last;
+			}
+
+			@Override
+			public void remove() {
+				WriteBehindStorage.this.delete(this.last);
+			}
+		};
+	}
+
+	/**
+	 * Writes the modifications of the dirty map to the underlying storage.
+	 * Updates are written by one {@link IStorage#updateAll(Map)}, deletes by one {@link IStorage#deleteAll(java.util.Collection)}.
+	 * The modifications not written because of a failure are put back into the dirty map before the failure is thrown.
+	 */
+	@Override
+	public void flush() {
+		synchronized (this.storageLock) {
+			Map<K, Object> batch;
+			synchronized (this) {
+				if (this.dirty.isEmpty()) {
+					return;
+				}
+				batch = this.dirty;
+				this.resetDirty();
+			}
+			Map<K, V> updates = new HashMap<>();
+			List<K> deletes = new ArrayList<>();
+			for (Map.Entry<K, Object> entry : batch.entrySet()) {
+				if (entry.getValue() == DELETED) {
+					deletes.add(entry.getKey());
+				} else {
+					updates.put(entry.getKey(), unmask(entry.getValue()));
+				}
+			}
+			Map<K, Object> pending = batch;
+			try {
+				if (!deletes.isEmpty()) {
+					this.storage.deleteAll(deletes);
+					pending = new LinkedHashMap<>(batch);
+					pending.keySet().removeAll(deletes);
+				}
+				if (!updates.isEmpty()) {
+					this.storage.updateAll(updates);
+				}
+			} catch (RuntimeException e) {
+				this.requeue(pending);
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * Flushes the modifications, stops the background flushes and closes the underlying storage if it is closeable.
+	 *
+	 * @throws IOException if the underlying storage cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		this.flusher.shutdown();
+		this.flush();
+		if (this.storage instanceof Closeable) {
+			synchronized (this.storageLock) {
+				((Closeable) this.storage).close();
+			}
+		}
+	}
+
+	/**
+	 * @return the number of keys having modifications not written to the underlying storage
+	 */
+	public synchronized int dirtyEntries() {
+		return this.dirty.size();
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	private void modify(K key, Object value) {
+		Object previous = this.dirty.put(key, value);
+		if (previous == null) {
+			this.unresolved.add(key);
+		} else if (!this.unresolved.contains(key)) {
+			boolean isStored = this.stored.contains(key);
+			this.delta += change(isStored, value) - change(isStored, previous);
+		}
+		++this.writes;
+	}
+
+	private void resetDirty() {
+		this.dirty = new LinkedHashMap<>();
+		this.unresolved = new HashSet<>();
+		this.stored = new HashSet<>();
+		this.delta = 0;
+		this.writes = 0;
+	}
+
+	/**
+	 * Puts back the modifications not written before the ones made since the batch has been drained,
+	 * and skips the keys modified again
+	 */
+	private synchronized void requeue(Map<K, Object> pending) {
+		Map<K, Object> merged = new LinkedHashMap<>();
+		for (Map.Entry<K, Object> entry : pending.entrySet()) {
+			if (!this.dirty.containsKey(entry.getKey())) {
+				merged.put(entry.getKey(), entry.getValue());
+				this.unresolved.add(entry.getKey());
+			}
+		}
+		merged.putAll(this.dirty);
+		this.dirty = merged;
+	}
+
+	/**
+	 * Flushes on the background thread. A failure is not thrown, so the periodic flushes are not cancelled,
+	 * the modifications are kept in the dirty map and written by the next flush.
+	 */
+	private void flushInBackground() {
+		try {
+			this.flush();
+		} catch (RuntimeException e) {
+			// the modifications have been put back into the dirty map
+		}
+	}
+
+	/**
+	 * @return the change of the number of entries by a modification of a key
+	 */
+	private static long change(boolean isStored, Object value) {
+		if (value == DELETED) {
+			return isStored ? -1 : 0;
+		}
+		return isStored ? 0 : 1;
+	}
+
+	/**
+	 * Flushes on the caller thread if the dirty map is full,
+	 * or schedules a flush if the number of writes reached the limit
+	 */
+	private void afterModification() {
+		boolean full;
+		synchronized (this) {
+			full = this.maxDirtyEntries <= this.dirty.size();
+			if (!full && 0 < this.flushWrites && this.flushWrites <= this.writes && !this.flushScheduled && !this.flusher.isShutdown()) {
+				this.flushScheduled = true;
+				this.flusher.execute(() -> {
+					synchronized (this) {
+						this.flushScheduled = false;
+					}
+					this.flushInBackground();
+				});
+			}
+		}
+		if (full) {
+			this.flush();
+		}
+	}
+
+	private static Object mask(Object item) {
+		return item == null ? NULL : item;
+	}
+
+	private static <T> T unmask(Object item) {
+		return item == NULL ? null : (T) item;
+	}
+
+	private final class WriteBehindEntry implements Map.Entry<K, V> {
+		private final K key;
+		private V value;
+
+		WriteBehindEntry(K key, V value) {
+			this.key = key;
+			this.value = value;
+		}
+
+		@Override
+		public K getKey() {
+			return this.key;
+		}
+
+		@Override
+		public V getValue() {
+			return this.value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			V result = this.value;
+			this.value = value;
+			WriteBehindStorage.this.update(this.key, value);
+			return result;
+		}
+	}
+}
@@ -1,17 +1,22 @@
 package com.wobserver.vcollections;
 
+import static org.junit.jupiter.api.Assertions.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.wobserver.vcollections.keygenerators.SequentialLongGenerator;
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.IndexedMemoryStorage;
+import com.wobserver.vcollections.storages.LongKeyMemoryStorage;
 import com.wobserver.vcollections.storages.MemoryStorage;
 import com.wobserver.vcollections.storages.PrimitiveTypesMapperFactory;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 class VArrayListTest implements ListTest<String, VArrayList<Long, String>> {
@@ -75,4 +80,98 @@ class VArrayListTest implements ListTest<String, VArrayList<Long, String>> {
 		System.out.println(fileMap.get("data_lists"));
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <b>Given</b>: a filled list
+	 *
+	 * <b>When</b>: we split the spliterator of the list
+	 *
+	 * <b>Then</b>: the ranges of the indexes are halved
+	 */
+	@Test
+	public void shouldSplitByIndexRange() {
+		// Given
+		List<String> list = this.makeList("value1", "value2", "value3", "value4");
+
+		// When
+		Spliterator<String> suffix = list.spliterator();
+		Spliterator<String> prefix = suffix.trySplit();
+
+		// Then
+		assertEquals(2, prefix.estimateSize());
+		assertEquals(2, suffix.estimateSize());
+		assertTrue(prefix.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED | Spliterator.ORDERED));
+		assertTrue(prefix.tryAdvance(value -> assertEquals("value1", value)));
+		assertTrue(suffix.tryAdvance(value -> assertEquals("value3", value)));
+	}
+
+	/**
+	 * <b>Given</b>: a filled list
+	 *
+	 * <b>When</b>: we collect the items by a parallel stream
+	 *
+	 * <b>Then</b>: all items are collected in order
+	 */
+	@Test
+	public void shouldParallelStreamInOrder() {
+		// Given
+		List<String> list = this.makeList("value1", null, "value3", "value4", "value5");
+
+		// When
+		List<String> values = list.parallelStream().collect(Collectors.toList());
+
+		// Then
+		assertEquals(Arrays.asList("value1", null, "value3", "value4", "value5"), values);
+	}
+
+	/**
+	 * <b>Given</b>: a list stored in a {@link LongKeyMemoryStorage}
+	 *
+	 * <b>When</b>: we add, set, remove and stream the items
+	 *
+	 * <b>Then</b>: the items are accessed by their indexes as in any other storage
+	 */
+	@Test
+	public void shouldAccessLongKeyStorageByIndexes() {
+		// Given
+		LongKeyMemoryStorage<String> storage = new LongKeyMemoryStorage<>(new SequentialLongGenerator(), null, null);
+		List<String> list = new VArrayList<>(storage, Long.class);
+
+		// When
+		list.add("value1");
+		list.add("value2");
+		list.add("value3");
+		list.set(1, "nvalue2");
+		list.remove(0);
+
+		// Then
+		assertEquals("nvalue2", list.get(0));
+		assertEquals(1, list.indexOf("value3"));
+		assertEquals(Arrays.asList("nvalue2", "value3"), list.stream().collect(Collectors.toList()));
+	}
+
+	/**
+	 * <b>Given</b>: a list stored in an {@link IndexedMemoryStorage}
+	 *
+	 * <b>When</b>: we insert and remove items in the middle of the list
+	 *
+	 * <b>Then</b>: the items are shifted by their indexes
+	 */
+	@Test
+	public void shouldShiftItemsOfIndexedStorage() {
+		// Given
+		IndexedMemoryStorage<String> storage = new IndexedMemoryStorage<>(null);
+		List<String> list = new VArrayList<>(storage, Long.class);
+		list.addAll(Arrays.asList("value1", "value2", "value3"));
+
+		// When
+		list.add(1, "nvalue1");
+		list.addAll(3, Arrays.asList("nvalue2", "nvalue3"));
+		String removed = list.remove(0);
+		list.remove("value3");
+
+		// Then
+		assertEquals("value1", removed);
+		assertEquals(Arrays.asList("nvalue1", "value2", "nvalue2", "nvalue3"), list.stream().collect(Collectors.toList()));
+		assertEquals(4L, storage.entries());
+	}
+}
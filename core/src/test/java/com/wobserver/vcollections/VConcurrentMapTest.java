@@ -0,0 +1,87 @@
+package com.wobserver.vcollections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.MemoryStorage;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.junit.jupiter.api.Test;
+
+class VConcurrentMapTest {
+
+	private ConcurrentMap<String, Integer> makeMap(Object... items) {
+		HashMap<String, Integer> initialItems = new HashMap<>();
+		for (int i = 0; i + 1 < items.length; i += 2) {
+			initialItems.put((String) items[i], (Integer) items[i + 1]);
+		}
+		IStorage<String, Integer> storage = new MemoryStorage<>(null, initialItems, IStorage.NO_MAX_SIZE);
+		return new VConcurrentMap<>(storage);
+	}
+
+	/**
+	 * <b>Given</b>: a filled map
+	 *
+	 * <b>When</b>: we merge counters into it
+	 *
+	 * <b>Then</b>: the existing counter is incremented <b>and</b> the new one is inserted
+	 */
+	@Test
+	public void shouldMergeCounters() {
+		// Given
+		ConcurrentMap<String, Integer> map = this.makeMap("key", 1);
+
+		// When
+		map.merge("key", 1, Integer::sum);
+		map.merge("key2", 1, Integer::sum);
+
+		// Then
+		assertEquals(2, map.get("key"));
+		assertEquals(1, map.get("key2"));
+	}
+
+	/**
+	 * <b>Given</b>: a filled map
+	 *
+	 * <b>When</b>: we execute the conditional operations
+	 *
+	 * <b>Then</b>: they are executed only if the condition holds
+	 */
+	@Test
+	public void shouldExecuteConditionalOperations() {
+		// Given
+		ConcurrentMap<String, Integer> map = this.makeMap("key", 1, "key2", 2);
+
+		// When
+		Integer present = map.putIfAbsent("key", 3);
+		Integer replaced = map.replace("key3", 3);
+		boolean removed = map.remove("key2", 3);
+		boolean conditionallyReplaced = map.replace("key", 1, 4);
+		Integer computed = map.computeIfAbsent("key3", key -> 5);
+
+		// Then
+		assertEquals(1, present);
+		assertNull(replaced);
+		assertFalse(removed);
+		assertTrue(conditionallyReplaced);
+		assertEquals(4, map.get("key"));
+		assertEquals(5, computed);
+	}
+
+	/**
+	 * <b>Given</b>: a map
+	 *
+	 * <b>When</b>: we pass null values to the conditional operations
+	 *
+	 * <b>Then</b>: {@link NullPointerException} is thrown
+	 */
+	@Test
+	public void shouldNotAcceptNullValues() {
+		// Given
+		ConcurrentMap<String, Integer> map = this.makeMap();
+
+		// Then
+		assertThrows(NullPointerException.class, () -> map.putIfAbsent("key", null));
+		assertThrows(NullPointerException.class, () -> map.replace("key", null));
+		assertThrows(NullPointerException.class, () -> map.merge("key", null, Integer::sum));
+	}
+}
@@ -6,6 +6,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 import com.wobserver.vcollections.storages.MemoryStorage;
 
@@ -260,4 +261,25 @@ class VMapTest {
 	 *
 	 * forEach, getOrDefault, entrySet, values, keySet, get, containsValue
 	 */
-}
\ No newline at end of file
+
+	/**
+	 * <b>Given</b>: a filled map
+	 *
+	 * <b>When</b>: we collect the keys and the values by parallel streams
+	 *
+	 * <b>Then</b>: all keys and values are collected
+	 */
+	@Test
+	public void shouldParallelStreamKeysAndValues() {
+		// Given
+		Map<String, String> map = this.makeMap("key", "value", "key2", "value2");
+
+		// When
+		Set<String> keys = map.keySet().parallelStream().collect(Collectors.toSet());
+		Set<String> values = map.values().parallelStream().collect(Collectors.toSet());
+
+		// Then
+		assertEquals(Set.of("key", "key2"), keys);
+		assertEquals(Set.of("value", "value2"), values);
+	}
+}
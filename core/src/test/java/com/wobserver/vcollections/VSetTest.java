@@ -1,5 +1,11 @@
 package com.wobserver.vcollections;
 
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wobserver.vcollections.storages.MemoryStorage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
 import org.junit.jupiter.api.Test;
 
 class VSetTest {
@@ -40,16 +46,78 @@ class VSetTest {
 	void containsAll() {
 	}
 
+	/**
+	 * <p>Given</p>: a set of two items
+	 *
+	 * <p>When</p>: we add one of them and a new one, and then add them again
+	 *
+	 * <p>Then</p> the set is modified at the first time only
+	 * <b>and</b> it contains the three items
+	 */
 	@Test
 	void addAll() {
+		// Given
+		VSet<String> set = new VSet<>(new MemoryStorage<>(null, new HashMap<>(), null));
+		set.addAll(List.of("a", "b"));
+
+		// When
+		boolean modified = set.addAll(List.of("b", "c"));
+		boolean modifiedAgain = set.addAll(List.of("b", "c"));
+
+		// Then
+		assertTrue(modified);
+		assertFalse(modifiedAgain);
+		assertEquals(3, set.size());
+		assertTrue(set.containsAll(Set.of("a", "b", "c")));
 	}
 
+	/**
+	 * <p>Given</p>: a set of three items
+	 *
+	 * <p>When</p>: we retain two of them and an unknown one
+	 *
+	 * <p>Then</p> the set is modified
+	 * <b>and</b> only the two retained items remain
+	 */
 	@Test
 	void retainAll() {
+		// Given
+		VSet<String> set = new VSet<>(new MemoryStorage<>(null, new HashMap<>(), null));
+		set.addAll(List.of("a", "b", "c"));
+
+		// When
+		boolean modified = set.retainAll(List.of("a", "c", "d"));
+
+		// Then
+		assertTrue(modified);
+		assertEquals(2, set.size());
+		assertTrue(set.containsAll(Set.of("a", "c")));
+		assertFalse(set.contains("b"));
 	}
 
+	/**
+	 * <p>Given</p>: a set of three items
+	 *
+	 * <p>When</p>: we remove one of them and an unknown one, and then remove them again
+	 *
+	 * <p>Then</p> the set is modified at the first time only
+	 * <b>and</b> the two other items remain
+	 */
 	@Test
 	void removeAll() {
+		// Given
+		VSet<String> set = new VSet<>(new MemoryStorage<>(null, new HashMap<>(), null));
+		set.addAll(List.of("a", "b", "c"));
+
+		// When
+		boolean modified = set.removeAll(List.of("b", "d"));
+		boolean modifiedAgain = set.removeAll(List.of("b", "d"));
+
+		// Then
+		assertTrue(modified);
+		assertFalse(modifiedAgain);
+		assertEquals(2, set.size());
+		assertTrue(set.containsAll(Set.of("a", "c")));
 	}
 
 	@Test
@@ -3,6 +3,8 @@ package com.wobserver.vcollections.builders;
 import static org.junit.jupiter.api.Assertions.*;
 import com.wobserver.vcollections.storages.IMapper;
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.LogStructuredFileStorage;
+import com.wobserver.vcollections.storages.WriteBehindStorage;
 import java.io.File;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -14,6 +16,9 @@ public class FileStorageBuilderTest extends AbstractBuilderTester {
 	private static final String USING_OTHER_CONFIGURATION_PROFILE = "usingOtherConfigurationProfile";
 	private static final String EXPLICIT_KEYMAPPER_CONFIGURATION_PROFILE = "explicitKeyMapperProfile";
 	private static final String WRONG_CONFIGURATION_PROFILE = "wrongConfigurationProfile";
+	private static final String LOG_STRUCTURED_PROFILE = "logStructuredProfile";
+	private static final String WRITE_BEHIND_PROFILE = "writeBehindProfile";
+	private static final String SHARDED_PROFILE = "shardedProfile";
 
 
 	@TempDir
@@ -147,4 +152,77 @@ public class FileStorageBuilderTest extends AbstractBuilderTester {
 		assertThrows(InvalidConfigurationException.class, action::run);
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <b>Given</b>: A profile sets the logStructured option
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 *
+	 * <b>Then</b>: The storage is a {@link LogStructuredFileStorage}
+	 * <b>and</b> the storage is empty by default
+	 */
+	@Test
+	public void shouldBuildLogStructuredStorage() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(LOG_STRUCTURED_PROFILE)
+				.withConfiguration(String.join(".", StorageBuilder.CONFIGURATION_CONFIG_KEY, FileStorageBuilder.PATH_CONFIG_KEY), tempDir.getAbsolutePath());
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+
+		// Then
+		assertTrue(storage instanceof LogStructuredFileStorage);
+		assertTrue(storage.isEmpty());
+	}
+
+	/**
+	 * <b>Given</b>: A profile sets the writeBehind option
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 *
+	 * <b>Then</b>: The storage is a {@link WriteBehindStorage}
+	 * <b>and</b> the storage is empty by default
+	 */
+	@Test
+	public void shouldBuildWriteBehindStorage() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(WRITE_BEHIND_PROFILE)
+				.withConfiguration(String.join(".", StorageBuilder.CONFIGURATION_CONFIG_KEY, FileStorageBuilder.PATH_CONFIG_KEY), tempDir.getAbsolutePath());
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+
+		// Then
+		assertTrue(storage instanceof WriteBehindStorage);
+		assertTrue(storage.isEmpty());
+	}
+
+	/**
+	 * <b>Given</b>: A profile sets the number of shard levels
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 * <b>and</b> an entry is added
+	 *
+	 * <b>Then</b>: The file of the entry is placed into a shard directory
+	 */
+	@Test
+	public void shouldBuildShardedStorage() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(SHARDED_PROFILE)
+				.withConfiguration(String.join(".", StorageBuilder.CONFIGURATION_CONFIG_KEY, FileStorageBuilder.PATH_CONFIG_KEY), tempDir.getAbsolutePath());
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+		storage.update(1L, "value");
+
+		// Then
+		assertEquals(1L, storage.entries());
+		assertFalse(new File(tempDir, "1").exists());
+	}
+
+}
@@ -1,6 +1,7 @@
 package com.wobserver.vcollections.builders;
 
 import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.storages.ConcurrentMemoryStorage;
 import com.wobserver.vcollections.storages.IStorage;
 import java.io.File;
 import javax.validation.ConstraintViolationException;
@@ -15,6 +16,7 @@ class MemoryStorageBuilderTest extends AbstractBuilderTester {
 	private static final String NOT_VALID_PROPERTY_PROFILE_1_KEY = "notValidPropertyProfile1";
 	private static final String NOT_VALID_PROPERTY_PROFILE_2_KEY = "notValidPropertyProfile2";
 	private static final String USING_OTHER_PROFILE_KEY = "usingOtherProfile";
+	private static final String CONCURRENT_PROFILE_KEY = "concurrentProfile";
 
 	@Override
 	protected File getSourceFile() {
@@ -193,4 +195,25 @@ class MemoryStorageBuilderTest extends AbstractBuilderTester {
 		assertEquals(capacity, storage.capacity().intValue());
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <b>Given</b>: A profile sets the concurrent option
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 *
+	 * <b>Then</b>: The storage is a {@link ConcurrentMemoryStorage}
+	 */
+	@Test
+	public void shouldBuildConcurrentStorage() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(CONCURRENT_PROFILE_KEY);
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+
+		// Then
+		assertTrue(storage instanceof ConcurrentMemoryStorage);
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.wobserver.vcollections.builders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.storages.IMapper;
+import com.wobserver.vcollections.storages.IStorage;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapMemoryStorageBuilderTest extends AbstractBuilderTester {
+
+	private static final String RESOURCE_FILE_NAME = "offheap_storage_example.yaml";
+	private static final String MINIMAL_CONFIGURATION_PROFILE = "minimalConfigurationProfile";
+	private static final String EXPLICIT_VALUEMAPPER_CONFIGURATION_PROFILE = "explicitValueMapperProfile";
+	private static final String WRONG_CONFIGURATION_PROFILE = "wrongConfigurationProfile";
+
+	public static class MyMapper implements IMapper<String, byte[]> {
+
+		@Override
+		public byte[] encode(String value) {
+			return value.getBytes(StandardCharsets.UTF_8);
+		}
+
+		@Override
+		public String decode(byte[] value) {
+			return new String(value, StandardCharsets.UTF_8);
+		}
+	}
+
+	@Override
+	protected File getSourceFile() {
+		ClassLoader classLoader = getClass().getClassLoader();
+		return new File(classLoader.getResource(RESOURCE_FILE_NAME).getFile());
+	}
+
+	/**
+	 * <b>Given</b>: A profile contains minimal explicit assignments for the parameters
+	 * used to configure the builder to build a storage
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 * <b>and</b> a value is stored
+	 *
+	 * <b>Then</b>: No exception is thrown
+	 * <b>and</b> the value is read back
+	 * <b>and</b> has no limitation regarding to the capacity
+	 */
+	@Test
+	public void shouldBuildStorageWithDefaultValues() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(MINIMAL_CONFIGURATION_PROFILE);
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+		storage.update(1L, "value");
+
+		// Then
+		assertEquals("value", storage.read(1L));
+		assertEquals(storage.capacity(), IStorage.NO_MAX_SIZE);
+	}
+
+	/**
+	 * <b>Given</b>: A profile contains explicit assignments for the valuemapper
+	 * used to configure the builder to build a storage
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 * <b>and</b> a value is stored
+	 *
+	 * <b>Then</b>: No exception is thrown
+	 * <b>and</b> the value is read back
+	 * <b>and</b> the capacity is the configured one
+	 */
+	@Test
+	public void shouldBuildUsingExplicitValueMapper() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(EXPLICIT_VALUEMAPPER_CONFIGURATION_PROFILE);
+
+		// When
+		IStorage<Long, String> storage = builder.build();
+		storage.update(1L, "value");
+
+		// Then
+		assertEquals("value", storage.read(1L));
+		assertEquals(10L, storage.capacity());
+	}
+
+	/**
+	 * <b>Given</b>: A profile contains configuration for valuemapper and valuetype
+	 *
+	 * <b>When</b>: A storage is built using the configuration
+	 *
+	 * <b>Then</b>: exception is thrown
+	 */
+	@Test
+	public void shouldThrowException() {
+		// Given
+		IStorageBuilder builder = this
+				.getStorageProfiles()
+				.getStorageBuilderFor(WRONG_CONFIGURATION_PROFILE);
+
+		// When
+		Runnable action = () -> {
+			IStorage<Long, String> storage = builder.build();
+		};
+
+		// Then
+		assertThrows(InvalidConfigurationException.class, action::run);
+	}
+}
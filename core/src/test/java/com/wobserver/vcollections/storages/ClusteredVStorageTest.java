@@ -3,6 +3,7 @@ package com.wobserver.vcollections.storages;
 import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Spliterator;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -95,4 +96,34 @@ class ClusteredVStorageTest implements StorageTest<String, String, ClusteredVSto
 		});
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>Given</p>: a clustered storage over two storages, both having entries
+	 *
+	 * <p>When</p>: We split the spliterator of the clustered storage
+	 *
+	 * <p>Then</p> the entries are split by the underlying storages
+	 */
+	@Test
+	public void shouldSplitByStorages() {
+		// Given
+		Map<String, String> entries1 = new HashMap<>();
+		entries1.put("key1", "value1");
+		Map<String, String> entries2 = new HashMap<>();
+		entries2.put("key2", "value2");
+		entries2.put("key3", "value3");
+		IStorage<String, String> storage1 = new MemoryStorage<String, String>(null, entries1, null);
+		IStorage<String, String> storage2 = new MemoryStorage<String, String>(null, entries2, null);
+		IStorage<String, String> storage = new ClusteredVStorage<>(storage1, storage2);
+
+		// When
+		Spliterator<Map.Entry<String, String>> suffix = storage.spliterator();
+		Spliterator<Map.Entry<String, String>> prefix = suffix.trySplit();
+
+		// Then
+		Assertions.assertEquals(3, prefix.estimateSize() + suffix.estimateSize());
+		Assertions.assertEquals(1, prefix.estimateSize());
+		Assertions.assertEquals(2, suffix.estimateSize());
+		Assertions.assertTrue(prefix.tryAdvance(entry -> Assertions.assertEquals("key1", entry.getKey())));
+		Assertions.assertFalse(prefix.tryAdvance(entry -> {}));
+	}
+}
@@ -0,0 +1,63 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentMemoryStorageTest implements StorageTest<String, String, ConcurrentMemoryStorage<String, String>> {
+
+	@Override
+	public String toKey(String key) {
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		Map<String, String> pairs = new HashMap<>();
+		if (entries != null) {
+			for (Map.Entry<String, String> entry : entries) {
+				pairs.put(entry.getKey(), entry.getValue());
+			}
+		}
+		IStorage<String, String> result = new ConcurrentMemoryStorage<>(new KeyGeneratorFactory().make(String.class), pairs, maxSize);
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: a concurrent memory storage
+	 *
+	 * <p>When</p>: several threads merge increments into the same keys
+	 *
+	 * <p>Then</p> no increment is lost
+	 */
+	@Test
+	public void shouldNotLoseConcurrentMerges() throws InterruptedException {
+		// Given
+		IStorage<String, Integer> storage = new ConcurrentMemoryStorage<>(null, null, null);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+
+		// When
+		for (int i = 0; i < 8000; ++i) {
+			String key = "key" + (i % 4);
+			executor.execute(() -> storage.merge(key, 1, Integer::sum));
+		}
+		executor.shutdown();
+		assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+		// Then
+		assertEquals(4, storage.entries());
+		for (int i = 0; i < 4; ++i) {
+			assertEquals(2000, storage.read("key" + i));
+		}
+	}
+}
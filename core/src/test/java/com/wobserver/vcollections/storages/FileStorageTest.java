@@ -1,11 +1,15 @@
 package com.wobserver.vcollections.storages;
 
+import static org.junit.jupiter.api.Assertions.*;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.stream.StreamSupport;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 /**
@@ -52,4 +56,88 @@ public class FileStorageTest implements StorageTest<String, String, FileStorage<
 		}
 		return result;
 	}
+
+	/**
+	 * <p>Given</p>: a file storage having entries, which is not closed
+	 * <b>and</b> a file added to its directory by others
+	 *
+	 * <p>When</p>: we delete an entry
+	 * <b>and</b> we open the directory again
+	 *
+	 * <p>Then</p> the reopened storage uses the manifest to restore the entries
+	 * <b>and</b> the deletion is journaled in the manifest
+	 * <b>and</b> the manifest is not listed as an entry
+	 */
+	@Test
+	public void shouldReopenFromManifest() throws IOException {
+		// Given
+		FileStorage<String, String> storage = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE);
+		storage.update("key1", "value1");
+		storage.update("key2", "value2");
+		Files.writeString(tempDir.toPath().resolve("key3"), "\"value3\"");
+
+		// When
+		storage.delete("key1");
+		FileStorage<String, String> reopened = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE);
+
+		// Then
+		assertTrue(new File(tempDir, FileStorage.MANIFEST_FILE_NAME).exists());
+		assertEquals(1L, reopened.entries());
+		assertFalse(reopened.has("key1"));
+		assertFalse(reopened.has("key3"));
+		assertEquals("value2", reopened.read("key2"));
+	}
+
+	/**
+	 * <p>Given</p>: a file storage
+	 *
+	 * <p>When</p>: we add an entry with a key mapped to the name of the manifest
+	 *
+	 * <p>Then</p> {@link IllegalArgumentException} is thrown
+	 * <b>and</b> the manifest is not overwritten
+	 */
+	@Test
+	public void shouldRejectReservedKeys() throws IOException {
+		// Given
+		FileStorage<String, String> storage = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE);
+		storage.update("key1", "value1");
+
+		// When
+		assertThrows(IllegalArgumentException.class, () -> storage.update(FileStorage.MANIFEST_FILE_NAME, "value"));
+		assertThrows(IllegalArgumentException.class, () -> storage.updateAll(Map.of(FileStorage.MANIFEST_FILE_NAME + ".tmp", "value")));
+
+		// Then
+		FileStorage<String, String> reopened = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE);
+		assertEquals(1L, reopened.entries());
+		assertEquals("value1", reopened.read("key1"));
+	}
+
+	/**
+	 * <p>Given</p>: a file storage distributing the files into two levels of shard directories
+	 *
+	 * <p>When</p>: we add entries
+	 * <b>and</b> open the directory again without a manifest
+	 *
+	 * <p>Then</p> the files are not placed into the directory directly
+	 * <b>and</b> the reopened storage finds the entries by walking the shards
+	 * <b>and</b> the entries can be read in parallel
+	 */
+	@Test
+	public void shouldShardFiles() throws IOException {
+		// Given
+		FileStorage<String, String> storage = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE, 2);
+
+		// When
+		for (int i = 0; i < 100; ++i) {
+			storage.update("key" + i, "value" + i);
+		}
+		Files.delete(tempDir.toPath().resolve(FileStorage.MANIFEST_FILE_NAME));
+		FileStorage<String, String> reopened = new FileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), tempDir.getPath(), null, IStorage.NO_MAX_SIZE, 2);
+
+		// Then
+		assertFalse(new File(tempDir, "key0").exists());
+		assertEquals(100L, reopened.entries());
+		assertEquals("value42", reopened.read("key42"));
+		assertEquals(100L, StreamSupport.stream(reopened.spliterator(), true).filter(entry -> entry.getValue().equals("value" + entry.getKey().substring(3))).count());
+	}
 }
@@ -0,0 +1,86 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class IndexedFileStorageTest implements StorageTest<Long, String, IndexedFileStorage<String>> {
+
+	private static final int SLOT_SIZE = 64;
+
+	@TempDir
+	File tempDir;
+
+	@Override
+	public Long toKey(String key) {
+		if (key == null) {
+			return 0L;
+		}
+		return (long) Math.floorMod(key.hashCode(), 1000);
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<Long, String> makeStorage(long maxSize, Map.Entry<Long, String>... entries) {
+		IStorage<Long, String> result = null;
+		try {
+			result = this.makeStorage(new File(this.tempDir, UUID.randomUUID().toString()).getPath(), maxSize);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (entries != null) {
+			for (Map.Entry<Long, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private IndexedFileStorage<String> makeStorage(String path, long maxSize) throws IOException {
+		IMapper<String, byte[]> valueMapper = IMapper.make(value -> value.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8));
+		return new IndexedFileStorage<>(valueMapper, path, SLOT_SIZE, maxSize);
+	}
+
+	/**
+	 * <p>Given</p>: an indexed file storage
+	 *
+	 * <p>When</p>: we remove the first slot by moving the rest of the slots backward
+	 * <b>and</b> open the file again
+	 *
+	 * <p>Then</p> the reopened storage has the shifted values
+	 */
+	@Test
+	public void shouldMoveAndReopen() throws IOException {
+		// Given
+		String path = new File(this.tempDir, "indexed").getPath();
+		IndexedFileStorage<String> storage = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+		for (long i = 0; i < 3000; ++i) {
+			storage.create("value" + i);
+		}
+		storage.put(1L, null);
+
+		// When
+		storage.move(1L, 0L, 2999L);
+		storage.close();
+		IndexedFileStorage<String> reopened = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+
+		// Then
+		assertEquals(2999L, reopened.entries());
+		assertEquals(2999L, reopened.fence());
+		assertTrue(reopened.contains(0L));
+		assertNull(reopened.get(0L));
+		assertEquals("value2", reopened.get(1L));
+		assertEquals("value2999", reopened.get(2998L));
+		assertFalse(reopened.contains(2999L));
+		reopened.close();
+	}
+}
@@ -0,0 +1,70 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class IndexedMemoryStorageTest implements StorageTest<Long, String, IndexedMemoryStorage<String>> {
+
+	@Override
+	public Long toKey(String key) {
+		if (key == null) {
+			return 0L;
+		}
+		return (long) Math.floorMod(key.hashCode(), 100000);
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<Long, String> makeStorage(long maxSize, Map.Entry<Long, String>... entries) {
+		IStorage<Long, String> result = new IndexedMemoryStorage<>(maxSize);
+		if (entries != null) {
+			for (Map.Entry<Long, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: an indexed memory storage filled over several segments
+	 *
+	 * <p>When</p>: we move the block after the first slot forward by one
+	 * <b>and</b> move it back
+	 *
+	 * <p>Then</p> the values are shifted
+	 * <b>and</b> the vacated slots are empty
+	 * <b>and</b> the number of entries follows the moves
+	 */
+	@Test
+	public void shouldMoveBlocksOverSegments() {
+		// Given
+		IndexedMemoryStorage<String> storage = new IndexedMemoryStorage<>(null);
+		for (long i = 0; i < 10000; ++i) {
+			storage.create("value" + i);
+		}
+
+		// When
+		storage.move(1L, 2L, 9999L);
+
+		// Then
+		assertFalse(storage.contains(1L));
+		assertEquals("value1", storage.get(2L));
+		assertEquals("value9999", storage.get(10000L));
+		assertEquals(10000L, storage.entries());
+		assertEquals(10001L, storage.fence());
+
+		// When
+		storage.move(2L, 0L, 9999L);
+
+		// Then
+		assertEquals("value1", storage.get(0L));
+		assertEquals("value9999", storage.get(9998L));
+		assertEquals(9999L, storage.entries());
+		assertEquals(9999L, storage.fence());
+	}
+}
@@ -43,6 +43,16 @@ class LRUMemoryStorageTest implements StorageTest<String, String, LRUMemoryStora
 		// This test for this storage is not valied
 	}
 
+	@Override
+	public void shouldThrowOutOfSpaceExceptionAfterUpdateAll() {
+		// This test for this storage is not valied
+	}
+
+	@Override
+	public void shouldThrowOutOfSpaceExceptionAfterPutIfAbsent() {
+		// This test for this storage is not valied
+	}
+
 	/**
 	 * <b>Given</b>: an LRU memory storage with limited capacity, fully enlisted
 	 *
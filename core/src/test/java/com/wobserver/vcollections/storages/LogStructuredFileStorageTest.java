@@ -0,0 +1,167 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class LogStructuredFileStorageTest implements StorageTest<String, String, LogStructuredFileStorage<String, String>> {
+
+	private static final long SEGMENT_SIZE = 1024;
+
+	@TempDir
+	File tempDir;
+
+	@Override
+	public String toKey(String key) {
+		if (key == null) {
+			return "null";
+		}
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		IStorage<String, String> result = null;
+		try {
+			result = this.makeStorage(new File(this.tempDir, UUID.randomUUID().toString()).getPath(), maxSize);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (entries != null) {
+			for (Map.Entry<String, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private LogStructuredFileStorage<String, String> makeStorage(String path, long maxSize) throws IOException {
+		return new LogStructuredFileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), path, new KeyGeneratorFactory().make(String.class), maxSize, SEGMENT_SIZE, 0.5);
+	}
+
+	/**
+	 * <p>Given</p>: a log structured storage written over several segments
+	 *
+	 * <p>When</p>: we overwrite and delete entries
+	 * <b>and</b> open the directory again
+	 *
+	 * <p>Then</p> the reopened storage has the last value of the remaining entries
+	 */
+	@Test
+	public void shouldReplaySegmentsAfterReopen() throws IOException {
+		// Given
+		String path = new File(this.tempDir, "log").getPath();
+		LogStructuredFileStorage<String, String> storage = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+		for (int i = 0; i < 100; ++i) {
+			storage.update("key" + i, "value" + i);
+		}
+
+		// When
+		storage.update("key1", null);
+		storage.update("key2", "updated");
+		storage.delete("key0");
+		storage.close();
+		LogStructuredFileStorage<String, String> reopened = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+
+		// Then
+		assertEquals(99L, reopened.entries());
+		assertFalse(reopened.has("key0"));
+		assertTrue(reopened.has("key1"));
+		assertNull(reopened.read("key1"));
+		assertEquals("updated", reopened.read("key2"));
+		assertEquals("value99", reopened.read("key99"));
+	}
+
+	/**
+	 * <p>Given</p>: a log structured storage having sealed segments of overwritten entries
+	 *
+	 * <p>When</p>: we compact the storage
+	 *
+	 * <p>Then</p> the overwritten segment files are deleted
+	 * <b>and</b> the entries keep their last values after reopening
+	 */
+	@Test
+	public void shouldCompactOverwrittenSegments() throws IOException {
+		// Given
+		File directory = new File(this.tempDir, "compacted");
+		LogStructuredFileStorage<String, String> storage = this.makeStorage(directory.getPath(), IStorage.NO_MAX_SIZE);
+		for (int round = 0; round < 20; ++round) {
+			for (int i = 0; i < 10; ++i) {
+				storage.update("key" + i, "value" + round);
+			}
+		}
+		storage.delete("key9");
+
+		// When
+		storage.compact();
+
+		// Then
+		assertTrue(directory.list().length <= 3);
+		storage.close();
+		LogStructuredFileStorage<String, String> reopened = this.makeStorage(directory.getPath(), IStorage.NO_MAX_SIZE);
+		assertEquals(9L, reopened.entries());
+		assertEquals("value19", reopened.read("key0"));
+		assertFalse(reopened.has("key9"));
+	}
+
+	/**
+	 * <p>Given</p>: a log structured storage reopened with sealed segments to compact
+	 *
+	 * <p>When</p>: the storage is cleared while a segment is compacted
+	 * <b>and</b> entries are written after the clear, before the compaction goes on
+	 *
+	 * <p>Then</p> the compaction of the cleared segment does not touch the segments written after the clear
+	 * <b>and</b> the entries written after the clear are found after reopening
+	 */
+	@Test
+	public void shouldNotLoseEntriesCompactedWhileCleared() throws IOException {
+		// Given
+		File directory = new File(this.tempDir, "cleared");
+		// the first segment is not compacted in the background, as it keeps a live entry
+		LogStructuredFileStorage<String, String> storage = new LogStructuredFileStorage<>(PrimitiveTypesMapperFactory.make(String.class, String.class), String.class, new ObjectMapper(), directory.getPath(), null, IStorage.NO_MAX_SIZE, SEGMENT_SIZE, 1.0);
+		storage.update("live", "value");
+		for (int round = 0; round < 20; ++round) {
+			for (int i = 0; i < 10; ++i) {
+				storage.update("key" + i, "value" + round);
+			}
+		}
+		storage.close();
+		AtomicReference<Runnable> onDecode = new AtomicReference<>();
+		IMapper<String, String> keyMapper = IMapper.make(key -> key, fileName -> {
+			Runnable hook = onDecode.getAndSet(null);
+			if (hook != null) {
+				hook.run();
+			}
+			return fileName;
+		});
+		LogStructuredFileStorage<String, String> reopened = new LogStructuredFileStorage<>(keyMapper, String.class, new ObjectMapper(), directory.getPath(), null, IStorage.NO_MAX_SIZE, SEGMENT_SIZE, 0.5);
+		onDecode.set(() -> {
+			reopened.clear();
+			reopened.update("after", "value");
+		});
+
+		// When
+		reopened.compact();
+
+		// Then
+		assertNull(onDecode.get());
+		assertEquals(1L, reopened.entries());
+		assertEquals("value", reopened.read("after"));
+		reopened.close();
+		LogStructuredFileStorage<String, String> replayed = this.makeStorage(directory.getPath(), IStorage.NO_MAX_SIZE);
+		assertEquals(1L, replayed.entries());
+		assertEquals("value", replayed.read("after"));
+	}
+}
@@ -0,0 +1,64 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.keygenerators.RandomLongGenerator;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class LongKeyMemoryStorageTest implements StorageTest<Long, String, LongKeyMemoryStorage<String>> {
+
+	@Override
+	public Long toKey(String key) {
+		if (key == null) {
+			return 0L;
+		}
+		return (long) key.hashCode();
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<Long, String> makeStorage(long maxSize, Map.Entry<Long, String>... entries) {
+		Map<Long, String> pairs = new HashMap<>();
+		if (entries != null) {
+			for (Map.Entry<Long, String> entry : entries) {
+				pairs.put(entry.getKey(), entry.getValue());
+			}
+		}
+		IStorage<Long, String> result = new LongKeyMemoryStorage<>(new RandomLongGenerator(), pairs, maxSize);
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: a long key memory storage
+	 *
+	 * <p>When</p>: we put more entries than the initial table holds
+	 * <b>and</b> delete every second of them
+	 *
+	 * <p>Then</p> the remaining entries are accessible by their primitive keys
+	 */
+	@Test
+	public void shouldKeepEntriesAfterRehashing() {
+		// Given
+		LongKeyMemoryStorage<String> storage = new LongKeyMemoryStorage<>(null, null, null);
+
+		// When
+		for (long key = 0; key < 1000; ++key) {
+			storage.put(key, "value" + key);
+		}
+		for (long key = 0; key < 1000; key += 2) {
+			storage.remove(key);
+		}
+
+		// Then
+		assertEquals(500, storage.entries());
+		for (long key = 0; key < 1000; ++key) {
+			assertEquals(key % 2 == 1, storage.contains(key));
+			assertEquals(key % 2 == 1 ? "value" + key : null, storage.get(key));
+		}
+	}
+}
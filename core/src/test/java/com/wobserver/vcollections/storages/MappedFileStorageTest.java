@@ -0,0 +1,107 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedFileStorageTest implements StorageTest<String, String, MappedFileStorage<String, String>> {
+
+	private static final int SLOT_SIZE = 128;
+	private static final int REGION_SIZE = 1024;
+
+	@TempDir
+	File tempDir;
+
+	@Override
+	public String toKey(String key) {
+		if (key == null) {
+			return "null";
+		}
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		IStorage<String, String> result = null;
+		try {
+			result = this.makeStorage(new File(this.tempDir, UUID.randomUUID().toString()).getPath(), maxSize);
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		if (entries != null) {
+			for (Map.Entry<String, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	private MappedFileStorage<String, String> makeStorage(String path, long maxSize) throws IOException {
+		IMapper<String, byte[]> mapper = IMapper.make(value -> value.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8));
+		return new MappedFileStorage<>(mapper, mapper, path, SLOT_SIZE, REGION_SIZE, new KeyGeneratorFactory().make(String.class), maxSize);
+	}
+
+	/**
+	 * <p>Given</p>: a mapped file storage filled over several regions
+	 *
+	 * <p>When</p>: we delete an entry
+	 * <b>and</b> open the file again
+	 *
+	 * <p>Then</p> the reopened storage has the remaining entries
+	 */
+	@Test
+	public void shouldRebuildIndexAfterReopen() throws IOException {
+		// Given
+		String path = new File(this.tempDir, "mapped").getPath();
+		MappedFileStorage<String, String> storage = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+		for (int i = 0; i < 100; ++i) {
+			storage.update("key" + i, "value" + i);
+		}
+		storage.update("key1", null);
+
+		// When
+		storage.delete("key0");
+		storage.close();
+		MappedFileStorage<String, String> reopened = this.makeStorage(path, IStorage.NO_MAX_SIZE);
+
+		// Then
+		assertEquals(99L, reopened.entries());
+		assertFalse(reopened.has("key0"));
+		assertTrue(reopened.has("key1"));
+		assertNull(reopened.read("key1"));
+		assertEquals("value99", reopened.read("key99"));
+		reopened.close();
+	}
+
+	/**
+	 * <p>Given</p>: a mapped file storage with an entry
+	 *
+	 * <p>When</p>: we read the value as a buffer
+	 *
+	 * <p>Then</p> the buffer contains the serialized value
+	 */
+	@Test
+	public void shouldReadBuffer() {
+		// Given
+		MappedFileStorage<String, String> storage = (MappedFileStorage<String, String>) makeStorage(toEntries("key1", "value1"));
+
+		// When
+		ByteBuffer buffer = storage.readBuffer("key1");
+
+		// Then
+		assertEquals("value1", StandardCharsets.UTF_8.decode(buffer).toString());
+		assertNull(storage.readBuffer("key2"));
+	}
+}
@@ -0,0 +1,89 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class OffHeapMemoryStorageTest implements StorageTest<String, String, OffHeapMemoryStorage<String, String>> {
+
+	private static final int SLAB_SIZE = 1024;
+
+	@Override
+	public String toKey(String key) {
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		IMapper<String, byte[]> valueMapper = IMapper.make(value -> value.getBytes(StandardCharsets.UTF_8), bytes -> new String(bytes, StandardCharsets.UTF_8));
+		IStorage<String, String> result = new OffHeapMemoryStorage<>(new KeyGeneratorFactory().make(String.class), valueMapper, SLAB_SIZE, maxSize);
+		if (entries != null) {
+			for (Map.Entry<String, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: an off-heap storage with small slabs
+	 *
+	 * <p>When</p>: we update a key with values of growing sizes
+	 * <b>and</b> with a value larger than a slab
+	 *
+	 * <p>Then</p> the last value is read
+	 * <b>and</b> the large value is allocated in a dedicated slab
+	 */
+	@Test
+	public void shouldStoreValuesLargerThanSlab() {
+		// Given
+		OffHeapMemoryStorage<String, String> storage = (OffHeapMemoryStorage<String, String>) makeStorage();
+		String value = "value";
+
+		// When
+		for (; value.length() < SLAB_SIZE; value += value) {
+			storage.update("key", value);
+		}
+		storage.update("key", value);
+
+		// Then
+		assertEquals(value, storage.read("key"));
+		assertEquals(1L, storage.entries());
+		assertTrue(SLAB_SIZE * 2 < storage.allocatedBytes());
+	}
+
+	/**
+	 * <p>Given</p>: an off-heap storage with small slabs
+	 *
+	 * <p>When</p>: we delete an entry and create another with the same size
+	 *
+	 * <p>Then</p> the block of the deleted entry is reused
+	 */
+	@Test
+	public void shouldReuseDeletedBlocks() {
+		// Given
+		OffHeapMemoryStorage<String, String> storage = (OffHeapMemoryStorage<String, String>) makeStorage();
+		for (int i = 0; i < 64; ++i) {
+			storage.update("key" + i, "value" + i);
+		}
+		long allocated = storage.allocatedBytes();
+
+		// When
+		for (int i = 0; i < 64; ++i) {
+			storage.delete("key" + i);
+			storage.update("nkey" + i, "nvalue" + i);
+		}
+
+		// Then
+		assertEquals(allocated, storage.allocatedBytes());
+		assertEquals(64L, storage.entries());
+		assertEquals("nvalue10", storage.read("nkey10"));
+	}
+}
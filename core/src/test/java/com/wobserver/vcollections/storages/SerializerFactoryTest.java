@@ -0,0 +1,140 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class SerializerFactoryTest {
+
+	/**
+	 * <p>Given</p>: the serializers made by the factory
+	 *
+	 * <p>When</p>: we serialize and deserialize a string and a null value
+	 *
+	 * <p>Then</p> the deserialized values are equal to the original ones
+	 */
+	@Test
+	public void shouldSerializeAndDeserialize() {
+		for (String name : List.of(SerializerFactory.JSON, SerializerFactory.SMILE, SerializerFactory.CBOR, SerializerFactory.PRIMITIVE)) {
+			// Given
+			ISerializer<String> serializer = SerializerFactory.make(name, String.class);
+
+			// When
+			String value = serializer.deserialize(serializer.serialize("value"));
+			String nullValue = serializer.deserialize(serializer.serialize(null));
+
+			// Then
+			assertEquals("value", value, name);
+			assertNull(nullValue, name);
+		}
+	}
+
+	/**
+	 * <p>Given</p>: a primitive serializer for longs
+	 *
+	 * <p>When</p>: we serialize a long
+	 *
+	 * <p>Then</p> it is serialized in 8 bytes
+	 * <b>and</b> it is deserialized from a direct buffer
+	 */
+	@Test
+	public void shouldSerializePrimitivesCompactly() {
+		// Given
+		ISerializer<Long> serializer = SerializerFactory.make(SerializerFactory.PRIMITIVE, Long.class);
+
+		// When
+		ByteBuffer buffer = serializer.serialize(123456789L);
+
+		// Then
+		assertEquals(Long.BYTES, buffer.remaining());
+		ByteBuffer direct = ByteBuffer.allocateDirect(Long.BYTES);
+		direct.put(buffer).flip();
+		assertEquals(123456789L, serializer.deserialize(direct));
+	}
+
+	/**
+	 * <p>Given</p>: a JSON serializer
+	 *
+	 * <p>When</p>: we deserialize a value from a direct buffer and from a slice of a heap buffer
+	 *
+	 * <p>Then</p> the values are deserialized from the remaining bytes only
+	 */
+	@Test
+	public void shouldDeserializeFromBuffers() {
+		// Given
+		ISerializer<Integer> serializer = SerializerFactory.make(SerializerFactory.JSON, Integer.class);
+		byte[] bytes = "[42]".getBytes();
+
+		// When
+		ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+		direct.put(bytes, 1, 2).flip();
+		ByteBuffer slice = ByteBuffer.wrap(bytes, 1, 2);
+
+		// Then
+		assertEquals(42, serializer.deserialize(direct));
+		assertEquals(42, serializer.deserialize(slice));
+		assertFalse(slice.hasRemaining());
+	}
+
+	/**
+	 * <p>Given</p>: a JSON serializer
+	 *
+	 * <p>When</p>: we serialize a value into a stream
+	 *
+	 * <p>Then</p> the stream holds the same bytes as the serialized buffer
+	 */
+	@Test
+	public void shouldSerializeIntoStream() throws IOException {
+		// Given
+		ISerializer<String> serializer = SerializerFactory.make(SerializerFactory.JSON, String.class);
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+		// When
+		serializer.serialize("value", output);
+
+		// Then
+		assertEquals(serializer.serialize("value"), ByteBuffer.wrap(output.toByteArray()));
+	}
+
+	/**
+	 * <p>Given</p>: serializers made from the byte mappers of {@link PrimitiveTypesMapperFactory}
+	 *
+	 * <p>When</p>: we serialize a long and a string
+	 *
+	 * <p>Then</p> the long is serialized in 8 bytes
+	 * <b>and</b> the string is serialized in UTF-8
+	 * <b>and</b> they are deserialized to the original values
+	 */
+	@Test
+	public void shouldSerializeByPrimitiveMappers() {
+		// Given
+		ISerializer<Long> longSerializer = ISerializer.of(PrimitiveTypesMapperFactory.make(Long.class, byte[].class));
+		ISerializer<String> stringSerializer = ISerializer.of(PrimitiveTypesMapperFactory.make(String.class, byte[].class));
+
+		// When
+		ByteBuffer longBuffer = longSerializer.serialize(123456789L);
+		ByteBuffer stringBuffer = stringSerializer.serialize("\u00e1rv\u00edz");
+
+		// Then
+		assertEquals(Long.BYTES, longBuffer.remaining());
+		assertEquals(ByteBuffer.wrap("\u00e1rv\u00edz".getBytes(StandardCharsets.UTF_8)), stringBuffer);
+		assertEquals(123456789L, longSerializer.deserialize(longBuffer));
+		assertEquals("\u00e1rv\u00edz", stringSerializer.deserialize(stringBuffer));
+	}
+
+	/**
+	 * <p>Given</p>: an unknown serializer name
+	 *
+	 * <p>When</p>: we make a serializer
+	 *
+	 * <p>Then</p> an exception is thrown
+	 */
+	@Test
+	public void shouldThrowExceptionForUnknownName() {
+		assertThrows(IllegalArgumentException.class, () -> SerializerFactory.make("xml", String.class));
+	}
+}
@@ -3,6 +3,10 @@ package com.wobserver.vcollections.storages;
 import static org.junit.jupiter.api.Assertions.*;
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
@@ -673,4 +677,564 @@ public interface StorageTest<K, V, T extends IStorage<K, V>> {
 		assertEquals(2, storage.entries());
 		assertFalse(storage.isFull());
 	}
+
+	/**
+	 * <p>Given</p>: An empty storage
+	 *
+	 * <p>When</p>: createAll is called with "value1" and "value2" values
+	 *
+	 * <p>Then</p> two keys are generated
+	 * <b>and</b> the values can be read with the generated keys
+	 * <b>and</b> the entries is 2
+	 */
+	@Test
+	default void shouldCreateAllEntries() {
+		// Given
+		IStorage<K, V> storage = makeStorage();
+
+		// When
+		V value1 = toValue("value1");
+		V value2 = toValue("value2");
+		List<K> keys = storage.createAll(Arrays.asList(value1, value2));
+
+		// Then
+		assertEquals(2, keys.size());
+		assertEquals(value1, storage.read(keys.get(0)));
+		assertEquals(value2, storage.read(keys.get(1)));
+		assertEquals(2, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1), (key2, value2), (key3, value3)
+	 *
+	 * <p>When</p>: We readAll key1, key3 and key4
+	 *
+	 * <p>Then</p> the result contains value1 for key1 and value3 for key3
+	 * <b>and</b> the result does not contain key4
+	 */
+	@Test
+	default void shouldReadAllEntries() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		Map<K, V> result = storage.readAll(Arrays.asList(toKey("key1"), toKey("key3"), toKey("key4")));
+
+		// Then
+		assertEquals(2, result.size());
+		assertEquals(toValue("value1"), result.get(toKey("key1")));
+		assertEquals(toValue("value3"), result.get(toKey("key3")));
+		assertFalse(result.containsKey(toKey("key4")));
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1), (key2, value2)
+	 *
+	 * <p>When</p>: We updateAll with (key2, nvalue2), (key3, value3)
+	 *
+	 * <p>Then</p> the read key2 returns nvalue2
+	 * <b>and</b> the read key3 returns value3
+	 * <b>and</b> the entries is 3
+	 */
+	@Test
+	default void shouldUpdateAllEntries() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		Map<K, V> updates = new HashMap<>();
+		for (Map.Entry<K, V> entry : toEntries("key2", "nvalue2", "key3", "value3")) {
+			updates.put(entry.getKey(), entry.getValue());
+		}
+		storage.updateAll(updates);
+
+		// Then
+		assertEquals(toValue("nvalue2"), storage.read(toKey("key2")));
+		assertEquals(toValue("value3"), storage.read(toKey("key3")));
+		assertEquals(3, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: A storage with a maximum size of 3 and (key1, value1), (key2, value2) pairs
+	 *
+	 * <p>When</p>: We updateAll with (key3, value3), (key4, value4)
+	 *
+	 * <b>Then</b> {@link OutOfSpaceException} is thrown
+	 * <b>and</b> the entries does not exceed 3 if we check after the exception
+	 */
+	@Test
+	default void shouldThrowOutOfSpaceExceptionAfterUpdateAll() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2");
+		IStorage<K, V> storage = makeStorage(3L, entries);
+
+		// When
+		Map<K, V> updates = new HashMap<>();
+		for (Map.Entry<K, V> entry : toEntries("key3", "value3", "key4", "value4")) {
+			updates.put(entry.getKey(), entry.getValue());
+		}
+		Assertions.assertThrows(OutOfSpaceException.class, () -> {
+			storage.updateAll(updates);
+		});
+
+		// Then
+		assertTrue(storage.entries() <= 3L);
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1), (key2, value2), (key3, value3)
+	 *
+	 * <p>When</p>: We deleteAll key1, key2 and key4
+	 *
+	 * <p>Then</p> has(key1) and has(key2) returns false
+	 * <b>and</b> has(key3) returns true
+	 * <b>and</b> the entries is 1
+	 */
+	@Test
+	default void shouldDeleteAllEntries() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		storage.deleteAll(Arrays.asList(toKey("key1"), toKey("key2"), toKey("key4")));
+
+		// Then
+		assertFalse(storage.has(toKey("key1")));
+		assertFalse(storage.has(toKey("key2")));
+		assertTrue(storage.has(toKey("key3")));
+		assertEquals(1, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1), (key2, value2)
+	 *
+	 * <p>When</p>: We read key1 and key3 asynchronously
+	 *
+	 * <p>Then</p> the future for key1 is completed with value1
+	 * <b>and</b> the future for key3 is completed with null
+	 * <b>and</b> hasAsync is completed with true for key1 and false for key3
+	 */
+	@Test
+	default void shouldReadAsync() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2");
+		IAsyncStorage<K, V> storage = IAsyncStorage.make(makeStorage(entries), Runnable::run);
+
+		// When
+		CompletableFuture<V> value1 = storage.readAsync(toKey("key1"));
+		CompletableFuture<V> value3 = storage.readAsync(toKey("key3"));
+
+		// Then
+		assertEquals(toValue("value1"), value1.join());
+		assertNull(value3.join());
+		assertTrue(storage.hasAsync(toKey("key1")).join());
+		assertFalse(storage.hasAsync(toKey("key3")).join());
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1)
+	 *
+	 * <p>When</p>: We update key1 to nvalue1 and key2 to value2 asynchronously
+	 *
+	 * <p>Then</p> the read key1 returns nvalue1
+	 * <b>and</b> the read key2 returns value2
+	 * <b>and</b> the entries is 2
+	 */
+	@Test
+	default void shouldUpdateAsync() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1");
+		IStorage<K, V> storage = makeStorage(entries);
+		IAsyncStorage<K, V> asyncStorage = IAsyncStorage.make(storage, Runnable::run);
+
+		// When
+		CompletableFuture.allOf(
+				asyncStorage.updateAsync(toKey("key1"), toValue("nvalue1")),
+				asyncStorage.updateAsync(toKey("key2"), toValue("value2"))
+		).join();
+
+		// Then
+		assertEquals(toValue("nvalue1"), storage.read(toKey("key1")));
+		assertEquals(toValue("value2"), storage.read(toKey("key2")));
+		assertEquals(2, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: A storage with (key1, value1), (key2, value2)
+	 *
+	 * <p>When</p>: We delete key1 asynchronously
+	 *
+	 * <p>Then</p> has(key1) returns false
+	 * <b>and</b> the entries is 1
+	 */
+	@Test
+	default void shouldDeleteAsync() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2");
+		IStorage<K, V> storage = makeStorage(entries);
+		IAsyncStorage<K, V> asyncStorage = IAsyncStorage.make(storage, Runnable::run);
+
+		// When
+		asyncStorage.deleteAsync(toKey("key1")).join();
+
+		// Then
+		assertFalse(storage.has(toKey("key1")));
+		assertEquals(1, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with entries
+	 * <p>When</p>
+	 * the entries are published to a subscriber requesting two entries at a time
+	 * <p>Then</p>
+	 * all entries are received <b>and</b> the subscriber is completed
+	 */
+	@Test
+	default void shouldPublishAllEntries() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+		StoragePublisher<K, V> publisher = new StoragePublisher<>(storage, Runnable::run, 2);
+		Map<K, V> received = new HashMap<>();
+		CompletableFuture<Void> completed = new CompletableFuture<>();
+
+		// When
+		publisher.subscribe(new Flow.Subscriber<Map.Entry<K, V>>() {
+			private Flow.Subscription subscription;
+			private int remaining = 0;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				this.remaining = 2;
+				subscription.request(2);
+			}
+
+			@Override
+			public void onNext(Map.Entry<K, V> item) {
+				received.put(item.getKey(), item.getValue());
+				if (--this.remaining == 0) {
+					this.remaining = 2;
+					this.subscription.request(2);
+				}
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				completed.completeExceptionally(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				completed.complete(null);
+			}
+		});
+
+		// Then
+		assertTrue(completed.isDone());
+		completed.join();
+		assertEquals(3, received.size());
+		for (Map.Entry<K, V> entry : entries) {
+			assertEquals(entry.getValue(), received.get(entry.getKey()));
+		}
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with entries
+	 * <p>When</p>
+	 * the subscriber requests a non-positive number of entries while it receives an entry
+	 * <p>Then</p>
+	 * the subscriber receives one {@link IllegalArgumentException}
+	 * <b>and</b> no more entries after it
+	 */
+	@Test
+	default void shouldSignalInvalidRequestSerially() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+		StoragePublisher<K, V> publisher = new StoragePublisher<>(storage, Runnable::run, 2);
+		List<Object> signals = new ArrayList<>();
+
+		// When
+		publisher.subscribe(new Flow.Subscriber<Map.Entry<K, V>>() {
+			private Flow.Subscription subscription;
+
+			@Override
+			public void onSubscribe(Flow.Subscription subscription) {
+				this.subscription = subscription;
+				subscription.request(Long.MAX_VALUE);
+			}
+
+			@Override
+			public void onNext(Map.Entry<K, V> item) {
+				signals.add(item);
+				this.subscription.request(0);
+			}
+
+			@Override
+			public void onError(Throwable throwable) {
+				signals.add(throwable);
+			}
+
+			@Override
+			public void onComplete() {
+				signals.add("completed");
+			}
+		});
+
+		// Then
+		assertEquals(2, signals.size());
+		assertTrue(signals.get(1) instanceof IllegalArgumentException);
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with entries
+	 * <p>When</p>
+	 * the entries are collected by a parallel stream over the spliterator of the storage
+	 * <p>Then</p>
+	 * all entries are collected
+	 */
+	@Test
+	default void shouldStreamAllEntriesInParallel() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		Map<K, V> collected = StreamSupport.stream(storage.spliterator(), true)
+				.collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+		// Then
+		assertEquals(3, collected.size());
+		for (Map.Entry<K, V> entry : entries) {
+			assertEquals(entry.getValue(), collected.get(entry.getKey()));
+		}
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with entries
+	 * <p>When</p>
+	 * the keys are iterated by the key iterator
+	 * <p>Then</p>
+	 * all keys are listed
+	 */
+	@Test
+	default void shouldIterateKeysByKeyIterator() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		Set<K> keys = new HashSet<>();
+		for (Iterator<K> it = storage.keyIterator(); it.hasNext(); ) {
+			keys.add(it.next());
+		}
+
+		// Then
+		assertEquals(3, keys.size());
+		for (Map.Entry<K, V> entry : entries) {
+			assertTrue(keys.contains(entry.getKey()));
+		}
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with entries
+	 * <p>When</p>
+	 * the values are iterated by the value iterator
+	 * <p>Then</p>
+	 * all values are listed
+	 */
+	@Test
+	default void shouldIterateValuesByValueIterator() {
+		// Given
+		Map.Entry<K, V>[] entries = toEntries("key1", "value1", "key2", "value2", "key3", "value3");
+		IStorage<K, V> storage = makeStorage(entries);
+
+		// When
+		List<V> values = new ArrayList<>();
+		for (Iterator<V> it = storage.valueIterator(); it.hasNext(); ) {
+			values.add(it.next());
+		}
+
+		// Then
+		assertEquals(3, values.size());
+		for (Map.Entry<K, V> entry : entries) {
+			assertTrue(values.contains(entry.getValue()));
+		}
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1)
+	 * <p>When</p>
+	 * we put (key1, value2) <b>and</b> (key2, value2) if they are absent
+	 * <p>Then</p>
+	 * key1 keeps value1 <b>and</b> key2 is associated with value2
+	 */
+	@Test
+	default void shouldPutIfAbsent() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1"));
+
+		// When
+		V present = storage.putIfAbsent(toKey("key1"), toValue("value2"));
+		V absent = storage.putIfAbsent(toKey("key2"), toValue("value2"));
+
+		// Then
+		assertEquals(toValue("value1"), present);
+		assertNull(absent);
+		assertEquals(toValue("value1"), storage.read(toKey("key1")));
+		assertEquals(toValue("value2"), storage.read(toKey("key2")));
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1)
+	 * <p>When</p>
+	 * we replace the value of key1 with a wrong <b>and</b> with the right expected value
+	 * <p>Then</p>
+	 * only the replacement with the right expected value succeeds
+	 */
+	@Test
+	default void shouldReplaceIfExpected() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1"));
+
+		// When
+		boolean wrong = storage.replace(toKey("key1"), toValue("value2"), toValue("value3"));
+		boolean right = storage.replace(toKey("key1"), toValue("value1"), toValue("value3"));
+
+		// Then
+		assertFalse(wrong);
+		assertTrue(right);
+		assertEquals(toValue("value3"), storage.read(toKey("key1")));
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1)
+	 * <p>When</p>
+	 * we delete key1 with a wrong <b>and</b> with the right expected value
+	 * <p>Then</p>
+	 * only the deletion with the right expected value succeeds
+	 */
+	@Test
+	default void shouldDeleteIfExpected() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1"));
+
+		// When
+		boolean wrong = storage.delete(toKey("key1"), toValue("value2"));
+		boolean right = storage.delete(toKey("key1"), toValue("value1"));
+
+		// Then
+		assertFalse(wrong);
+		assertTrue(right);
+		assertFalse(storage.has(toKey("key1")));
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1)
+	 * <p>When</p>
+	 * we compute key1 and key2 to value2 <b>and</b> compute key1 to null
+	 * <p>Then</p>
+	 * key2 is associated with value2 <b>and</b> key1 is deleted
+	 */
+	@Test
+	default void shouldCompute() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1"));
+
+		// When
+		V computed1 = storage.compute(toKey("key1"), (key, value) -> toValue("value1").equals(value) ? toValue("value2") : null);
+		V computed2 = storage.compute(toKey("key2"), (key, value) -> value == null ? toValue("value2") : null);
+		V deleted = storage.compute(toKey("key1"), (key, value) -> null);
+
+		// Then
+		assertEquals(toValue("value2"), computed1);
+		assertEquals(toValue("value2"), computed2);
+		assertNull(deleted);
+		assertFalse(storage.has(toKey("key1")));
+		assertEquals(toValue("value2"), storage.read(toKey("key2")));
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1)
+	 * <p>When</p>
+	 * we merge value2 into key1 <b>and</b> key2
+	 * <p>Then</p>
+	 * key1 is associated with the merged value <b>and</b> key2 with value2
+	 */
+	@Test
+	default void shouldMerge() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1"));
+
+		// When
+		storage.merge(toKey("key1"), toValue("value2"), (oldValue, value) -> toValue("value3"));
+		storage.merge(toKey("key2"), toValue("value2"), (oldValue, value) -> toValue("value3"));
+
+		// Then
+		assertEquals(toValue("value3"), storage.read(toKey("key1")));
+		assertEquals(toValue("value2"), storage.read(toKey("key2")));
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with a capacity of 1 <b>and</b> (key1, value1)
+	 * <p>When</p>
+	 * we put (key2, value2) if absent
+	 * <p>Then</p>
+	 * {@link OutOfSpaceException} is thrown
+	 */
+	@Test
+	default void shouldThrowOutOfSpaceExceptionAfterPutIfAbsent() {
+		// Given
+		IStorage<K, V> storage = makeStorage(1, toEntries("key1", "value1"));
+
+		// When
+		assertThrows(OutOfSpaceException.class, () -> {
+			storage.putIfAbsent(toKey("key2"), toValue("value2"));
+		});
+
+		// Then
+		assertEquals(1, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>
+	 * a storage with (key1, value1) <b>and</b> (key2, null)
+	 * <p>When</p>
+	 * we look up key1, key2 <b>and</b> key3
+	 * <p>Then</p>
+	 * key1 is present with value1, key2 is present with null <b>and</b> key3 is absent
+	 */
+	@Test
+	default void shouldLookup() {
+		// Given
+		IStorage<K, V> storage = makeStorage(toEntries("key1", "value1", "key2", null));
+
+		// When
+		Lookup<V> lookup1 = storage.lookup(toKey("key1"));
+		Lookup<V> lookup2 = storage.lookup(toKey("key2"));
+		Lookup<V> lookup3 = storage.lookup(toKey("key3"));
+
+		// Then
+		assertTrue(lookup1.isPresent());
+		assertEquals(toValue("value1"), lookup1.get());
+		assertTrue(lookup2.isPresent());
+		assertEquals(toValue(null), lookup2.get());
+		assertFalse(lookup3.isPresent());
+		assertThrows(KeyNotFoundException.class, lookup3::get);
+	}
 }
@@ -0,0 +1,135 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class WriteBehindStorageTest implements StorageTest<String, String, WriteBehindStorage<String, String>> {
+
+	private static final int MAX_DIRTY_ENTRIES = 4;
+
+	@Override
+	public String toKey(String key) {
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		WriteBehindStorage<String, String> result = new WriteBehindStorage<>(new MemoryStorage<>(null, null, maxSize), 0, 0, MAX_DIRTY_ENTRIES);
+		result.setKeyGenerator(new KeyGeneratorFactory().make(String.class));
+		if (entries != null) {
+			for (Map.Entry<String, String> entry : entries) {
+				result.update(entry.getKey(), entry.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: a write-behind storage
+	 *
+	 * <p>When</p>: we update the same key several times
+	 * <b>and</b> delete another key before flushing
+	 *
+	 * <p>Then</p> the reads see the last update before the flush
+	 * <b>and</b> the underlying storage gets only the last update by the flush
+	 */
+	@Test
+	public void shouldCoalesceUpdatesUntilFlush() {
+		// Given
+		IStorage<String, Integer> memory = new MemoryStorage<>(null, null, null);
+		memory.update("deleted", 0);
+		WriteBehindStorage<String, Integer> storage = new WriteBehindStorage<>(memory, 0, 0, 100);
+
+		// When
+		for (int i = 1; i <= 10; ++i) {
+			storage.update("counter", i);
+		}
+		storage.delete("deleted");
+
+		// Then
+		assertEquals(10, storage.read("counter"));
+		assertFalse(storage.has("deleted"));
+		assertEquals(1L, storage.entries());
+		assertEquals(2, storage.dirtyEntries());
+		assertFalse(memory.has("counter"));
+		storage.flush();
+		assertEquals(0, storage.dirtyEntries());
+		assertEquals(10, memory.read("counter"));
+		assertFalse(memory.has("deleted"));
+	}
+
+	/**
+	 * <p>Given</p>: a write-behind storage flushing after every 3 writes
+	 *
+	 * <p>When</p>: we update 3 keys
+	 *
+	 * <p>Then</p> the updates are written to the underlying storage by the background flush
+	 */
+	@Test
+	public void shouldFlushAfterWrites() throws InterruptedException {
+		// Given
+		IStorage<String, Integer> memory = new ConcurrentMemoryStorage<>(null, null, null);
+		WriteBehindStorage<String, Integer> storage = new WriteBehindStorage<>(memory, 0, 3, 100);
+
+		// When
+		storage.update("key1", 1);
+		storage.update("key2", 2);
+		storage.update("key3", 3);
+
+		// Then
+		for (int i = 0; i < 100 && memory.entries() < 3; ++i) {
+			Thread.sleep(10);
+		}
+		assertEquals(3L, memory.entries());
+	}
+
+	/**
+	 * <p>Given</p>: a write-behind storage whose underlying storage fails to write the updates once
+	 *
+	 * <p>When</p>: we update two keys, and flush
+	 * <b>and</b> we update one of the keys again, and flush
+	 *
+	 * <p>Then</p> the first flush throws the failure
+	 * <b>and</b> the updates are kept until the second flush writes them
+	 * <b>and</b> the newer update is not replaced by the failed one
+	 */
+	@Test
+	public void shouldRequeueFailedUpdates() {
+		// Given
+		boolean[] failing = {true};
+		IStorage<String, Integer> memory = new MemoryStorage<>(null, null, null) {
+			@Override
+			public void updateAll(Map<String, Integer> entries) {
+				if (failing[0]) {
+					failing[0] = false;
+					throw new RuntimeException("not available");
+				}
+				super.updateAll(entries);
+			}
+		};
+		WriteBehindStorage<String, Integer> storage = new WriteBehindStorage<>(memory, 0, 0, 100);
+
+		// When
+		storage.update("key1", 1);
+		storage.update("key2", 2);
+		assertThrows(RuntimeException.class, storage::flush);
+		storage.update("key2", 3);
+		int dirtyEntries = storage.dirtyEntries();
+		long entries = storage.entries();
+		storage.flush();
+
+		// Then
+		assertEquals(2, dirtyEntries);
+		assertEquals(2L, entries);
+		assertEquals(1, memory.read("key1"));
+		assertEquals(3, memory.read("key2"));
+		assertEquals(0, storage.dirtyEntries());
+	}
+}
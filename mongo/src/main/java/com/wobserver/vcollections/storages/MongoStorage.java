@@ -3,16 +3,55 @@ package com.wobserver.vcollections.storages;
 import static com.mongodb.client.model.Filters.eq;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
 import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
 import java.util.AbstractMap;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Function;
+import org.bson.BsonDocumentWrapper;
 import org.bson.Document;
+import org.bson.conversions.Bson;
 
-public class MongoStorage<K, V> implements IStorage<K, V> {
+/**
+ * Stores the values as documents in a mongo collection.
+ * <p>
+ * The asynchronous operations are executed on an {@link Executor} through the
+ * thread-safe collection of the driver, so concurrent calls are spread over the
+ * connection pool of the client. The blocking calls are not executed on the common pool:
+ * by default the storages share a bounded pool of daemon threads dedicated to them.
+ *
+ * @param <K> The type of the key
+ * @param <V> the type of the value
+ */
+public class MongoStorage<K, V> implements IStorage<K, V>, IAsyncStorage<K, V> {
+
+	/**
+	 * The number of threads executing the asynchronous operations of the storages by default
+	 */
+	public static final int DEFAULT_ASYNC_THREADS = 8;
+
+	/**
+	 * The number of asynchronous operations waiting for a thread by default,
+	 * above which the operations are executed on the caller thread
+	 */
+	public static final int DEFAULT_ASYNC_QUEUE_SIZE = 1024;
 
 	private final long capacity;
 	private final Class<V> valueType;
@@ -21,8 +60,20 @@ public class MongoStorage<K, V> implements IStorage<K, V> {
 	private final String keyFieldInDocument;
 	private final CapacityChecker<K> capacityChecker;
 	private final BiConsumer<V, V> swapper;
+	private final IAsyncStorage<K, V> async;
 
+	/**
+	 * The asynchronous operations are executed on the executor shared by the storages,
+	 * having {@link #DEFAULT_ASYNC_THREADS} threads.
+	 *
+	 * @see MongoStorage#MongoStorage(MongoConnection, Function, String, long, Class, BiConsumer, Executor)
+	 */
 	public MongoStorage(MongoConnection<V> connection, Function<V, K> keyExtractor, String keyFieldInDocument, long capacity, Class<V> valueType, BiConsumer<V, V> swapper) {
+		this(connection, keyExtractor, keyFieldInDocument, capacity, valueType, swapper, DefaultExecutorHolder.EXECUTOR);
+	}
+
+	public MongoStorage(MongoConnection<V> connection, Function<V, K> keyExtractor, String keyFieldInDocument, long capacity, Class<V> valueType, BiConsumer<V, V> swapper, Executor executor) {
+		this.async = new AsyncStorageAdapter<>(this, executor);
 		this.capacity = capacity;
 		this.valueType = valueType;
 		this.keyExtractor = keyExtractor;
@@ -55,6 +106,14 @@ public class MongoStorage<K, V> implements IStorage<K, V> {
 		return result;
 	}
 
+	/**
+	 * The documents are never null, so one find tells if the key is absent
+	 */
+	@Override
+	public Lookup<V> lookup(Object key) {
+		return Lookup.ofNullable(this.read(key));
+	}
+
 	@Override
 	public void update(K key, V value) {
 		this.capacityChecker.checkForUpdate(key);
@@ -70,6 +129,141 @@ public class MongoStorage<K, V> implements IStorage<K, V> {
 		this.connection.getCollection().deleteOne(eq(this.keyFieldInDocument, key));
 	}
 
+	@Override
+	public List<K> createAll(List<V> values) {
+		List<K> result = new ArrayList<>(values.size());
+		if (values.isEmpty()) {
+			return result;
+		}
+		if (this.capacity != NO_MAX_SIZE && this.capacity < this.connection.getCollectionSize() + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		this.connection.getCollection().insertMany(values);
+		for (V value : values) {
+			result.add(this.keyExtractor.apply(value));
+		}
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		if (keys.isEmpty()) {
+			return result;
+		}
+		for (V value : this.connection.getCollection().find(Filters.in(this.keyFieldInDocument, keys))) {
+			result.put(this.keyExtractor.apply(value), value);
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		if (this.capacity != NO_MAX_SIZE) {
+			long existing = this.connection.getCollection().countDocuments(Filters.in(this.keyFieldInDocument, entries.keySet()));
+			if (this.capacity < this.connection.getCollectionSize() + entries.size() - existing) {
+				throw new OutOfSpaceException();
+			}
+		}
+		ReplaceOptions replaceOptions = new ReplaceOptions().upsert(true).bypassDocumentValidation(true);
+		List<ReplaceOneModel<V>> requests = new ArrayList<>(entries.size());
+		for (Map.Entry<K, V> entry : entries.entrySet()) {
+			requests.add(new ReplaceOneModel<>(eq(this.keyFieldInDocument, entry.getKey()), entry.getValue(), replaceOptions));
+		}
+		this.connection.getCollection().bulkWrite(requests, new BulkWriteOptions().ordered(false));
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.connection.getCollection().deleteMany(Filters.in(this.keyFieldInDocument, keys));
+	}
+
+	/**
+	 * Inserts the document by an upserting findOneAndUpdate, which sets the fields only on insert
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		this.capacityChecker.checkForUpdate(key);
+		return this.connection.getCollection().findOneAndUpdate(
+				eq(this.keyFieldInDocument, key),
+				new Document("$setOnInsert", this.toBson(value)),
+				new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.BEFORE)
+		);
+	}
+
+	/**
+	 * Replaces the document only if all of its fields match the expected one
+	 */
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		if (expected == null) {
+			return false;
+		}
+		Bson filter = Filters.and(eq(this.keyFieldInDocument, key), this.toBson(expected));
+		return 0 < this.connection.getCollection().replaceOne(filter, value).getMatchedCount();
+	}
+
+	/**
+	 * Deletes the document only if all of its fields match the expected one
+	 */
+	@Override
+	public boolean delete(Object key, Object expected) {
+		if (expected == null || !this.valueType.isInstance(expected)) {
+			return false;
+		}
+		Bson filter = Filters.and(eq(this.keyFieldInDocument, key), this.toBson(this.valueType.cast(expected)));
+		return 0 < this.connection.getCollection().deleteOne(filter).getDeletedCount();
+	}
+
+	/**
+	 * Computes the value optimistically: the result is written by the conditional
+	 * operations, and the computation is repeated if the document has been modified in the meantime.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		while (true) {
+			V oldValue = this.read(key);
+			V newValue = remappingFunction.apply(key, oldValue);
+			if (oldValue == null) {
+				if (newValue == null || this.putIfAbsent(key, newValue) == null) {
+					return newValue;
+				}
+			} else if (newValue == null) {
+				if (this.delete(key, oldValue)) {
+					return null;
+				}
+			} else if (this.replace(key, oldValue, newValue)) {
+				return newValue;
+			}
+		}
+	}
+
+	@Override
+	public CompletableFuture<V> readAsync(Object key) {
+		return this.async.readAsync(key);
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(K key, V value) {
+		return this.async.updateAsync(key, value);
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteAsync(Object key) {
+		return this.async.deleteAsync(key);
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hasAsync(Object key) {
+		return this.async.hasAsync(key);
+	}
+
 	@Override
 	public boolean has(Object key) {
 		FindIterable<V> iterable = this.connection.getCollection().find(eq(this.keyFieldInDocument, key));
@@ -97,25 +291,59 @@ public class MongoStorage<K, V> implements IStorage<K, V> {
 		this.connection.getCollection().deleteMany(new Document());
 	}
 
+	/**
+	 * Iterates over the documents by a cursor, which is closed when the iteration is exhausted or closed
+	 */
 	@Override
-	public Iterator<Map.Entry<K, V>> iterator() {
+	public ICloseableIterator<Map.Entry<K, V>> iterator() {
+		MongoCursor<V> cursor = this.connection.getCollection().find().iterator();
+		return new MongoIterator<>(cursor, value -> new AbstractMap.SimpleEntry<>(this.keyExtractor.apply(value), value));
+	}
+
+	/**
+	 * Projects the documents to the key field, so only the keys are transferred from the server.
+	 * The cursor is closed when the iteration is exhausted or closed.
+	 */
+	@Override
+	public ICloseableIterator<K> keyIterator() {
+		MongoCursor<V> cursor = this.connection.getCollection().find()
+				.projection(Projections.include(this.keyFieldInDocument))
+				.iterator();
+		return new MongoIterator<>(cursor, this.keyExtractor);
+	}
+
+	@Override
+	public IStorageCursor<K, V> cursor() {
 		final MongoCursor<V> cursor = MongoStorage.this.connection.getCollection().find().iterator();
-		return new Iterator<Map.Entry<K, V>>() {
+		return new IStorageCursor<K, V>() {
+
+			@Override
+			public List<Map.Entry<K, V>> fetch(int maxEntries) {
+				List<Map.Entry<K, V>> result = new ArrayList<>();
+				while (result.size() < maxEntries && cursor.hasNext()) {
+					V value = cursor.next();
+					K key = MongoStorage.this.keyExtractor.apply(value);
+					result.add(new AbstractMap.SimpleEntry<>(key, value));
+				}
+				return result;
+			}
 
 			@Override
-			public boolean hasNext() {
-				return cursor.hasNext();
+			public boolean isFinished() {
+				return !cursor.hasNext();
 			}
 
 			@Override
-			public Map.Entry<K, V> next() {
-				V value = cursor.next();
-				K key = MongoStorage.this.keyExtractor.apply(value);
-				return new AbstractMap.SimpleEntry<>(key, value);
+			public void close() {
+				cursor.close();
 			}
 		};
 	}
 
+	private Bson toBson(V value) {
+		return new BsonDocumentWrapper<>(value, this.connection.getCollection().getCodecRegistry().get(this.valueType));
+	}
+
 	@Override
 	public void swap(K key1, K key2) {
 		if (this.swapper == null) {
@@ -133,4 +361,68 @@ public class MongoStorage<K, V> implements IStorage<K, V> {
 		this.update(key1, value1);
 		this.update(key2, value2);
 	}
+
+	/**
+	 * Maps the documents of a cursor, and closes the cursor once it has no more documents
+	 */
+	private static final class MongoIterator<V, T> implements ICloseableIterator<T> {
+		private final MongoCursor<V> cursor;
+		private final Function<V, T> mapper;
+		private boolean closed = false;
+
+		MongoIterator(MongoCursor<V> cursor, Function<V, T> mapper) {
+			this.cursor = cursor;
+			this.mapper = mapper;
+		}
+
+		@Override
+		public boolean hasNext() {
+			if (this.closed) {
+				return false;
+			}
+			if (this.cursor.hasNext()) {
+				return true;
+			}
+			this.close();
+			return false;
+		}
+
+		@Override
+		public T next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return this.mapper.apply(this.cursor.next());
+		}
+
+		@Override
+		public void close() {
+			if (!this.closed) {
+				this.closed = true;
+				this.cursor.close();
+			}
+		}
+	}
+
+	/**
+	 * Creates the default executor at the first use. The threads are daemons, and they stop when they are idle.
+	 * If all of the threads are busy and the queue is full, the operation is executed on the caller thread,
+	 * which slows down the callers instead of queueing the operations without a limit.
+	 */
+	private static final class DefaultExecutorHolder {
+		private static final Executor EXECUTOR = createExecutor();
+
+		private static Executor createExecutor() {
+			ThreadPoolExecutor result = new ThreadPoolExecutor(DEFAULT_ASYNC_THREADS, DEFAULT_ASYNC_THREADS, 60L, TimeUnit.SECONDS,
+					new ArrayBlockingQueue<>(DEFAULT_ASYNC_QUEUE_SIZE),
+					runnable -> {
+						Thread thread = new Thread(runnable, MongoStorage.class.getSimpleName() + "-async");
+						thread.setDaemon(true);
+						return thread;
+					},
+					new ThreadPoolExecutor.CallerRunsPolicy());
+			result.allowCoreThreadTimeOut(true);
+			return result;
+		}
+	}
 }
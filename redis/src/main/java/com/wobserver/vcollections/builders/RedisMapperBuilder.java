@@ -1,6 +1,9 @@
 package com.wobserver.vcollections.builders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wobserver.vcollections.storages.ISerializer;
+import com.wobserver.vcollections.storages.JacksonSerializer;
+import com.wobserver.vcollections.storages.PrimitiveTypesMapperFactory;
 import com.wobserver.vcollections.storages.RedisMapper;
 import java.util.Map;
 import javax.validation.constraints.NotNull;
@@ -10,6 +13,9 @@ public class RedisMapperBuilder extends AbstractBuilder {
 	public static final String KEY_CLASS_CONFIG_KEY = "keyClass";
 	public static final String VALUE_CLASS_CONFIG_KEY = "valueClass";
 	public static final String OBJECTMAPPER_CLASS_CONFIG_KEY = "objectMapper";
+	public static final String KEY_SERIALIZER_CONFIG_KEY = "keySerializer";
+	public static final String VALUE_SERIALIZER_CONFIG_KEY = "valueSerializer";
+	public static final String BINARY_KEYS_CONFIG_KEY = "binaryKeys";
 
 	/**
 	 * Build a {@link RedisMapper}
@@ -30,7 +36,21 @@ public class RedisMapperBuilder extends AbstractBuilder {
 			objectMapper = new ObjectMapper();
 		}
 
-		result = new RedisMapper<>(keyType, valueType, objectMapper);
+		ISerializer<K> keySerializer;
+		if (config.keySerializer != null) {
+			keySerializer = this.makeSerializer(config.keySerializer, keyType);
+		} else if (config.binaryKeys && PrimitiveTypesMapperFactory.isPrimitiveType(keyType)) {
+			keySerializer = ISerializer.of(PrimitiveTypesMapperFactory.make(keyType, byte[].class));
+		} else {
+			keySerializer = new JacksonSerializer<>(objectMapper, keyType);
+		}
+		ISerializer<V> valueSerializer;
+		if (config.valueSerializer != null) {
+			valueSerializer = this.makeSerializer(config.valueSerializer, valueType);
+		} else {
+			valueSerializer = new JacksonSerializer<>(objectMapper, valueType);
+		}
+		result = new RedisMapper<>(keyType, valueType, keySerializer, valueSerializer);
 		return result;
 	}
 
@@ -82,6 +102,41 @@ public class RedisMapperBuilder extends AbstractBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the serializer of the keys, instead of the {@link ObjectMapper}
+	 *
+	 * @param value the name of the serializer (json, smile, cbor, primitive) or the name of a class implementing {@link ISerializer}
+	 * @return A {@link RedisMapperBuilder} to set options further
+	 */
+	public RedisMapperBuilder withKeySerializer(String value) {
+		this.configs.put(KEY_SERIALIZER_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the serializer of the values, instead of the {@link ObjectMapper}
+	 *
+	 * @param value the name of the serializer (json, smile, cbor, primitive) or the name of a class implementing {@link ISerializer}
+	 * @return A {@link RedisMapperBuilder} to set options further
+	 */
+	public RedisMapperBuilder withValueSerializer(String value) {
+		this.configs.put(VALUE_SERIALIZER_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets if the keys of primitive types are encoded in their binary form
+	 * (the big-endian bytes of numbers, the UTF-8 bytes of strings) instead of JSON text.
+	 * The keys already stored in JSON text are not found by a mapper encoding binary keys.
+	 *
+	 * @param value true to encode the primitive keys in binary form
+	 * @return A {@link RedisMapperBuilder} to set options further
+	 */
+	public RedisMapperBuilder withBinaryKeys(boolean value) {
+		this.configs.put(BINARY_KEYS_CONFIG_KEY, value);
+		return this;
+	}
+
 	public static class Config {
 
 		@NotNull
@@ -91,5 +146,11 @@ public class RedisMapperBuilder extends AbstractBuilder {
 		public String valueClass;
 
 		public String objectMapper = null;
+
+		public String keySerializer = null;
+
+		public String valueSerializer = null;
+
+		public boolean binaryKeys = false;
 	}
 }
@@ -1,7 +1,10 @@
 package com.wobserver.vcollections.builders;
 
 import com.wobserver.vcollections.storages.IStorage;
+import com.wobserver.vcollections.storages.RedisHashStorage;
+import com.wobserver.vcollections.storages.RedisListStorage;
 import com.wobserver.vcollections.storages.RedisMapper;
+import com.wobserver.vcollections.storages.RedisSetStorage;
 import com.wobserver.vcollections.storages.RedisStorage;
 import io.lettuce.core.RedisURI;
 import java.util.Map;
@@ -14,9 +17,35 @@ public class RedisStorageBuilder extends AbstractStorageBuilder {
 	public static final String KEY_CONVERTER_CLASS_CONFIG_KEY = "keyConverter";
 	public static final String MAPPER_CONFIGURATION_CONFIG_KEY = "mapper";
 	public static final String URI_CONFIGURATION_CONFIG_KEY = "URI";
+	public static final String PIPELINE_SIZE_CONFIG_KEY = "pipelineSize";
+	public static final String NAMESPACE_CONFIG_KEY = "namespace";
+	public static final String STRUCTURE_CONFIG_KEY = "structure";
+
+	/**
+	 * Every entry is a Redis string under its own key
+	 */
+	public static final String STRINGS_STRUCTURE = "strings";
+
+	/**
+	 * The entries are the fields of one Redis hash named by the namespace
+	 */
+	public static final String HASH_STRUCTURE = "hash";
+
+	/**
+	 * The values are the elements of one Redis list named by the namespace, keyed by their indexes
+	 */
+	public static final String LIST_STRUCTURE = "list";
+
+	/**
+	 * The keys are the members of one Redis set named by the namespace
+	 */
+	public static final String SET_STRUCTURE = "set";
 
 	/**
 	 * Build a {@link RedisMapper}
+	 * <p>
+	 * The built storage holds connections to Redis, and it is owned by the caller. It is {@link java.io.Closeable},
+	 * and it must be closed by the caller once the collections using it are not used anymore.
 	 *
 	 * @param <K> the type of the key
 	 * @param <V> the type of the value
@@ -26,7 +55,7 @@ public class RedisStorageBuilder extends AbstractStorageBuilder {
 		Config config = this.convertAndValidate(Config.class);
 		Function<Object, K> keyConverter;
 		RedisMapper<K, V> mapper = new RedisMapperBuilder().withConfiguration(config.mapper).build();
-		RedisStorage<K, V> result;
+		IStorage<K, V> result;
 
 		if (config.keyConverter != null) {
 			keyConverter = this.invoke(config.keyConverter);
@@ -40,7 +69,25 @@ public class RedisStorageBuilder extends AbstractStorageBuilder {
 		}
 
 		RedisURI uri = uriBuilder.build();
-		result = new RedisStorage<>(uri, mapper, config.expirationInS, config.capacity, keyConverter);
+		switch (config.structure) {
+			case STRINGS_STRUCTURE:
+				result = new RedisStorage<>(uri, mapper, config.expirationInS, config.capacity, keyConverter, config.pipelineSize, config.namespace);
+				break;
+			case HASH_STRUCTURE:
+				this.checkStructureConfig(config);
+				result = new RedisHashStorage<>(uri, mapper, config.namespace, config.capacity, keyConverter);
+				break;
+			case LIST_STRUCTURE:
+				this.checkStructureConfig(config);
+				result = (IStorage<K, V>) new RedisListStorage<>(uri, mapper, config.namespace, config.capacity);
+				break;
+			case SET_STRUCTURE:
+				this.checkStructureConfig(config);
+				result = (IStorage<K, V>) new RedisSetStorage<>(uri, mapper, config.namespace, config.capacity, keyConverter);
+				break;
+			default:
+				throw new InvalidConfigurationException("Unknown " + STRUCTURE_CONFIG_KEY + " " + config.structure + " for " + this.getClass().getName());
+		}
 		return result;
 	}
 
@@ -78,6 +125,50 @@ public class RedisStorageBuilder extends AbstractStorageBuilder {
 		return this;
 	}
 
+	/**
+	 * Sets the number of commands the bulk writes of
+	 * {@link com.wobserver.vcollections.storages.RedisStorage} send to Redis at once
+	 *
+	 * @param value the number of pipelined commands
+	 * @return A {@link RedisStorageBuilder} to set options further
+	 */
+	public RedisStorageBuilder withPipelineSize(int value) {
+		this.configs.put(PIPELINE_SIZE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the namespace of {@link com.wobserver.vcollections.storages.RedisStorage}.
+	 * The keys are prefixed by the namespace, so several storages can share one Redis database.
+	 * For the other structures than {@value #STRINGS_STRUCTURE} it is the name of the Redis data structure.
+	 *
+	 * @param value the namespace of the keys
+	 * @return A {@link RedisStorageBuilder} to set options further
+	 */
+	public RedisStorageBuilder withNamespace(String value) {
+		this.configs.put(NAMESPACE_CONFIG_KEY, value);
+		return this;
+	}
+
+	/**
+	 * Sets the Redis data structure keeping the entries of the storage
+	 *
+	 * @param value the name of the structure ({@value #STRINGS_STRUCTURE}, {@value #HASH_STRUCTURE}, {@value #LIST_STRUCTURE}, {@value #SET_STRUCTURE})
+	 * @return A {@link RedisStorageBuilder} to set options further
+	 */
+	public RedisStorageBuilder withStructure(String value) {
+		this.configs.put(STRUCTURE_CONFIG_KEY, value);
+		return this;
+	}
+
+	private void checkStructureConfig(Config config) {
+		if (config.namespace == null) {
+			throw new InvalidConfigurationException(NAMESPACE_CONFIG_KEY + " naming the " + config.structure + " is mandatory for " + this.getClass().getName());
+		}
+		if (0 < config.expirationInS) {
+			throw new InvalidConfigurationException("expirationInS is not supported for " + config.structure + " in " + this.getClass().getName());
+		}
+	}
 
 	public static class Config extends AbstractStorageBuilder.Config {
 
@@ -91,5 +182,13 @@ public class RedisStorageBuilder extends AbstractStorageBuilder {
 		@Min(value = 0)
 		public int expirationInS = 0;
 
+		@Min(value = 1)
+		public int pipelineSize = RedisStorage.DEFAULT_PIPELINE_SIZE;
+
+		public String namespace = null;
+
+		@NotNull
+		public String structure = STRINGS_STRUCTURE;
+
 	}
 }
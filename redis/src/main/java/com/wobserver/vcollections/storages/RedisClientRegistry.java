@@ -0,0 +1,74 @@
+package com.wobserver.vcollections.storages;
+
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shares the Redis clients among the storages of the process.
+ * <p>
+ * A {@link RedisClient} is created for the first storage of a {@link RedisURI}, and it is shut down
+ * when the last storage of the URI releases it. All of the clients run on the same {@link ClientResources},
+ * so the event loops and the timers of Netty are created once, and not for every storage.
+ */
+final class RedisClientRegistry {
+
+	private static final RedisClientRegistry INSTANCE = new RedisClientRegistry();
+
+	static RedisClientRegistry getInstance() {
+		return INSTANCE;
+	}
+
+	private final Map<RedisURI, Registration> registrations = new HashMap<>();
+	private ClientResources resources;
+
+	private RedisClientRegistry() {
+
+	}
+
+	/**
+	 * Gives the client of the URI, and counts the caller as its user
+	 *
+	 * @param uri the URI of the Redis
+	 * @return the shared client, which the caller must {@link #release(RedisURI)} once it is not used anymore
+	 */
+	synchronized RedisClient acquire(RedisURI uri) {
+		if (this.resources == null) {
+			this.resources = DefaultClientResources.create();
+		}
+		Registration registration = this.registrations.computeIfAbsent(uri, key -> new Registration(RedisClient.create(this.resources, key)));
+		++registration.users;
+		return registration.client;
+	}
+
+	/**
+	 * Uncounts a user of the client of the URI, and shuts down the client if it has no more users.
+	 * The shared resources are shut down with the last client.
+	 *
+	 * @param uri the URI the client has been acquired for
+	 */
+	synchronized void release(RedisURI uri) {
+		Registration registration = this.registrations.get(uri);
+		if (registration == null || 0 < --registration.users) {
+			return;
+		}
+		this.registrations.remove(uri);
+		registration.client.shutdown();
+		if (this.registrations.isEmpty()) {
+			this.resources.shutdown();
+			this.resources = null;
+		}
+	}
+
+	private static class Registration {
+		private final RedisClient client;
+		private int users = 0;
+
+		private Registration(RedisClient client) {
+			this.client = client;
+		}
+	}
+}
@@ -5,49 +5,196 @@ import io.lettuce.core.RedisURI;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.async.RedisAsyncCommands;
 import io.lettuce.core.api.sync.RedisCommands;
+import io.lettuce.core.codec.RedisCodec;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
-// TODO: Refine!
+/**
+ * The connections of a storage to Redis.
+ * <p>
+ * The commands not blocking the connection are multiplexed on one connection, which is safe to use from several threads.
+ * Transactions, watched keys, pipelines and blocking commands need a connection of their own, which is borrowed from
+ * a bounded pool, and given back after the commands are issued. The client of the connections is shared by the storages
+ * of the same {@link RedisURI} through the {@link RedisClientRegistry}.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
 class RedisConnection<K, V> {
-	private RedisClient client;
-	private StatefulRedisConnection<K, V> statefulRedisConnection;
+	static final int DEFAULT_POOL_SIZE = 8;
+
 	private final RedisURI uri;
-	private RedisCommands<K, V> syncCommands;
-	private RedisAsyncCommands<K, V> asyncCommands;
-	private final RedisMapper<K, V> mapper;
+	private final RedisCodec<K, V> mapper;
+	private final Semaphore poolPermits;
+	private final Deque<StatefulRedisConnection<K, V>> idleConnections = new ConcurrentLinkedDeque<>();
+	private RedisClient client;
+	private volatile StatefulRedisConnection<K, V> statefulRedisConnection;
 
-	public RedisConnection(RedisURI uri, RedisMapper<K, V> mapper) {
+	public RedisConnection(RedisURI uri, RedisCodec<K, V> mapper) {
+		this(uri, mapper, DEFAULT_POOL_SIZE);
+	}
+
+	/**
+	 * @param poolSize the maximal number of connections borrowed at once for transactions, pipelines and blocking commands
+	 */
+	public RedisConnection(RedisURI uri, RedisCodec<K, V> mapper, int poolSize) {
 		this.uri = uri;
 		this.mapper = mapper;
+		this.poolPermits = new Semaphore(poolSize, true);
 	}
 
 	public void start() {
 		this.connect();
 	}
 
-	public void stop() {
-
+	/**
+	 * Closes the connections, and releases the shared client. The connection is reestablished
+	 * if commands are issued afterwards.
+	 */
+	public synchronized void stop() {
+		if (this.client == null) {
+			return;
+		}
+		for (StatefulRedisConnection<K, V> idle = this.idleConnections.poll(); idle != null; idle = this.idleConnections.poll()) {
+			idle.close();
+		}
+		if (this.statefulRedisConnection != null) {
+			this.statefulRedisConnection.close();
+			this.statefulRedisConnection = null;
+		}
+		this.client = null;
+		RedisClientRegistry.getInstance().release(this.uri);
 	}
 
 	public RedisCommands<K, V> sync() {
-		if (this.syncCommands == null || !this.syncCommands.isOpen()) {
-			this.connect();
-		}
-		return this.syncCommands;
+		return this.connect().sync();
 	}
 
 	public RedisAsyncCommands<K, V> async() {
-		if (this.asyncCommands == null || !this.syncCommands.isOpen()) {
-			this.connect();
+		return this.connect().async();
+	}
+
+	/**
+	 * Issues commands on a pooled connection no other thread issues commands on, as MULTI/EXEC, WATCH and
+	 * the blocking commands need. A transaction or a watch left open by failed commands is discarded before
+	 * the connection is given back to the pool. If it cannot be discarded, the connection is closed instead,
+	 * and the failure of the cleanup is added to the failure of the commands as suppressed.
+	 *
+	 * @param commands the commands issued on the synchronous commands of the borrowed connection
+	 * @param <T>      the type of the result of the commands
+	 * @return the result of the commands
+	 */
+	public <T> T dedicated(Function<RedisCommands<K, V>, T> commands) {
+		StatefulRedisConnection<K, V> connection = this.borrow();
+		boolean reusable = true;
+		try {
+			return commands.apply(connection.sync());
+		} catch (RuntimeException e) {
+			try {
+				if (connection.isMulti()) {
+					connection.sync().discard();
+				}
+				connection.sync().unwatch();
+			} catch (RuntimeException cleanup) {
+				e.addSuppressed(cleanup);
+				reusable = false;
+			}
+			throw e;
+		} finally {
+			if (reusable) {
+				this.giveBack(connection);
+			} else {
+				this.discard(connection);
+			}
 		}
-		return this.asyncCommands;
 	}
 
-	private void connect() {
-		this.client = RedisClient.create(this.uri);
-		this.statefulRedisConnection = client.connect(this.mapper);
-		this.syncCommands = statefulRedisConnection.sync();
-		this.asyncCommands = statefulRedisConnection.async();
+	/**
+	 * Creates a pipeline on a pooled connection, which does not flush the commands automatically until the pipeline
+	 * is closed. The commands of the multiplexed connection are not delayed by the pipelines.
+	 *
+	 * @param batchSize the number of commands sent to Redis at once
+	 * @return a {@link RedisPipeline} queueing the commands, which gives back the connection when it is closed
+	 */
+	public RedisPipeline<K, V> pipeline(int batchSize) {
+		StatefulRedisConnection<K, V> connection = this.borrow();
+		connection.setAutoFlushCommands(false);
+		return new RedisPipeline<>(connection, batchSize, this.uri.getTimeout(), closed -> {
+			closed.setAutoFlushCommands(true);
+			this.giveBack(closed);
+		});
 	}
 
+	private StatefulRedisConnection<K, V> connect() {
+		StatefulRedisConnection<K, V> result = this.statefulRedisConnection;
+		if (result != null && result.isOpen()) {
+			return result;
+		}
+		synchronized (this) {
+			if (this.statefulRedisConnection == null || !this.statefulRedisConnection.isOpen()) {
+				this.statefulRedisConnection = this.getClient().connect(this.mapper, this.uri);
+			}
+			return this.statefulRedisConnection;
+		}
+	}
+
+	private synchronized RedisClient getClient() {
+		if (this.client == null) {
+			this.client = RedisClientRegistry.getInstance().acquire(this.uri);
+		}
+		return this.client;
+	}
 
-}
\ No newline at end of file
+	/**
+	 * Waits for a free slot of the pool at most as long as the timeout of the URI,
+	 * and reuses an idle connection or connects a new one.
+	 */
+	private StatefulRedisConnection<K, V> borrow() {
+		Duration timeout = this.uri.getTimeout();
+		try {
+			if (!this.poolPermits.tryAcquire(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+				throw new RuntimeException("No pooled connection to " + this.uri + " is released in " + timeout);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e.getMessage());
+		}
+		try {
+			for (StatefulRedisConnection<K, V> idle = this.idleConnections.poll(); idle != null; idle = this.idleConnections.poll()) {
+				if (idle.isOpen()) {
+					return idle;
+				}
+			}
+			return this.getClient().connect(this.mapper, this.uri);
+		} catch (RuntimeException e) {
+			this.poolPermits.release();
+			throw e;
+		}
+	}
+
+	/**
+	 * Closes a borrowed connection left in an unknown state, instead of giving it back to the pool
+	 */
+	private void discard(StatefulRedisConnection<K, V> connection) {
+		try {
+			connection.close();
+		} finally {
+			this.poolPermits.release();
+		}
+	}
+
+	private void giveBack(StatefulRedisConnection<K, V> connection) {
+		synchronized (this) {
+			if (this.client != null && connection.isOpen()) {
+				this.idleConnections.push(connection);
+			} else {
+				connection.close();
+			}
+		}
+		this.poolPermits.release();
+	}
+}
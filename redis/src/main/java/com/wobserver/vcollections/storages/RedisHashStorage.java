@@ -0,0 +1,359 @@
+package com.wobserver.vcollections.storages;
+
+import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
+import com.wobserver.vcollections.keygenerators.IKeyGenerator;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.TransactionResult;
+import io.lettuce.core.codec.ByteArrayCodec;
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A storage keeping all of its entries in one Redis hash.
+ * <p>
+ * The keys are the fields of the hash, so the entries are counted by HLEN, iterated by HSCAN,
+ * and the bulk operations are single HMGET, HMSET and HDEL commands. Several storages can share one database
+ * under different hash names, and {@link #clear()} unlinks only the hash of the storage.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public class RedisHashStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K>, Closeable {
+
+	private static final int FIELD_SCAN_LIMIT = 1000;
+	// the field is given to the scripts as ARGV[1], followed by the expected and the new value
+	private static final String REPLACE_SCRIPT = "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then redis.call('HSET', KEYS[1], ARGV[1], ARGV[3]) return 1 end return 0";
+	private static final String DELETE_SCRIPT = "if redis.call('HGET', KEYS[1], ARGV[1]) == ARGV[2] then return redis.call('HDEL', KEYS[1], ARGV[1]) end return 0";
+	// the present value is returned, or false, which is a nil reply, if the value is set
+	private static final String ABSENT_SCRIPT = "local present = redis.call('HGET', KEYS[1], ARGV[1]) if present then return present end redis.call('HSET', KEYS[1], ARGV[1], ARGV[2]) return false";
+
+	private IKeyGenerator<K> keyGenerator;
+	private final long capacity;
+	private final Function<Object, K> keyConverter;
+	private final CapacityChecker<K> capacityChecker;
+	private final RedisStructureCodec<K, V> codec;
+	private final RedisConnection<Object, V> connection;
+	// the scripts get the fields and the values encoded, as arguments, and the lookups read the raw values
+	private final RedisConnection<byte[], byte[]> scriptConnection;
+
+	/**
+	 * @param name the name of the hash keeping the entries
+	 */
+	public RedisHashStorage(RedisURI uri, RedisMapper<K, V> mapper, String name, long capacity, Function<Object, K> keyConverter) {
+		this.capacity = capacity;
+		this.keyConverter = keyConverter;
+		this.capacityChecker = new CapacityChecker<>(this, capacity);
+		this.codec = new RedisStructureCodec<>(name.getBytes(StandardCharsets.UTF_8), mapper.getKeySerializer(), mapper.getValueSerializer());
+		this.connection = new RedisConnection<>(uri, this.codec);
+		this.scriptConnection = new RedisConnection<>(uri, ByteArrayCodec.INSTANCE);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.entries() == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.capacity == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.capacity <= this.entries();
+	}
+
+	@Override
+	public Long entries() {
+		return this.connection.sync().hlen(RedisStructureCodec.NAME);
+	}
+
+	@Override
+	public Long capacity() {
+		return this.capacity;
+	}
+
+	@Override
+	public K create(V value) {
+		this.capacityChecker.checkForCreate();
+
+		if (this.keyGenerator == null) {
+			throw new UnsupportedOperationException("Create operation without keyGenerator is not supported.");
+		}
+
+		K key = this.keyGenerator.get();
+		this.update(key, value);
+		return key;
+	}
+
+	@Override
+	public V read(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		return this.connection.sync().hget(RedisStructureCodec.NAME, key);
+	}
+
+	/**
+	 * Reads the value by one HGET without decoding it, as a null value is stored in its serialized form,
+	 * so only a missing field gives a nil reply.
+	 */
+	@Override
+	public Lookup<V> lookup(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		byte[] value = this.scriptConnection.sync().hget(this.codec.getName(), this.codec.encodeField(key));
+		if (value == null) {
+			return Lookup.absent();
+		}
+		return Lookup.of(this.codec.decodeValue(ByteBuffer.wrap(value)));
+	}
+
+	@Override
+	public void update(K key, V value) {
+		this.capacityChecker.checkForUpdate(key);
+		this.connection.sync().hset(RedisStructureCodec.NAME, key, value);
+	}
+
+	@Override
+	public boolean has(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		return this.connection.sync().hexists(RedisStructureCodec.NAME, key);
+	}
+
+	@Override
+	public void delete(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		this.connection.sync().hdel(RedisStructureCodec.NAME, key);
+	}
+
+	@Override
+	public List<K> createAll(List<V> values) {
+		if (this.keyGenerator == null) {
+			throw new UnsupportedOperationException("Create operation without keyGenerator is not supported.");
+		}
+		if (this.capacity != NO_MAX_SIZE && this.capacity < this.entries() + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		Map<Object, V> entries = new HashMap<>();
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			K key = this.keyGenerator.get();
+			entries.put(key, value);
+			result.add(key);
+		}
+		if (!entries.isEmpty()) {
+			this.connection.sync().hmset(RedisStructureCodec.NAME, entries);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		if (keys.isEmpty()) {
+			return result;
+		}
+		List<KeyValue<Object, V>> keyValues = this.connection.sync().hmget(RedisStructureCodec.NAME, this.toFields(keys));
+		for (KeyValue<Object, V> keyValue : keyValues) {
+			if (keyValue.hasValue()) {
+				result.put((K) keyValue.getKey(), keyValue.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		if (this.capacity != NO_MAX_SIZE) {
+			long existing = this.connection.sync().hmget(RedisStructureCodec.NAME, this.toFields(entries.keySet()))
+					.stream().filter(KeyValue::hasValue).count();
+			if (this.capacity < this.entries() + entries.size() - existing) {
+				throw new OutOfSpaceException();
+			}
+		}
+		this.connection.sync().hmset(RedisStructureCodec.NAME, new HashMap<>(entries));
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.connection.sync().hdel(RedisStructureCodec.NAME, this.toFields(keys));
+	}
+
+	/**
+	 * Sets the value, or reads the present value, by one lua script, so the returned value
+	 * is the one the field had when the value was not set
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		this.capacityChecker.checkForUpdate(key);
+		byte[] present = this.scriptConnection.sync().eval(ABSENT_SCRIPT, ScriptOutputType.VALUE, new byte[][]{this.codec.getName()},
+				this.codec.encodeField(key), this.codec.encodeMember(value));
+		if (present == null) {
+			return null;
+		}
+		return this.codec.decodeValue(ByteBuffer.wrap(present));
+	}
+
+	/**
+	 * Compares and sets the value by a lua script
+	 */
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		if (expected == null) {
+			return false;
+		}
+		Long replaced = this.scriptConnection.sync().eval(REPLACE_SCRIPT, ScriptOutputType.INTEGER, new byte[][]{this.codec.getName()},
+				this.codec.encodeField(key), this.codec.encodeMember(expected), this.codec.encodeMember(value));
+		return replaced != null && replaced == 1L;
+	}
+
+	/**
+	 * Compares and deletes the value by a lua script
+	 */
+	@Override
+	public boolean delete(Object keyObject, Object expected) {
+		if (expected == null) {
+			return false;
+		}
+		K key = this.keyConverter.apply(keyObject);
+		Long deleted = this.scriptConnection.sync().eval(DELETE_SCRIPT, ScriptOutputType.INTEGER, new byte[][]{this.codec.getName()},
+				this.codec.encodeField(key), this.codec.encodeMember((V) expected));
+		return deleted != null && deleted == 1L;
+	}
+
+	/**
+	 * Computes the value optimistically: the hash is watched while the new value is computed,
+	 * and the computation is repeated if the hash has been modified before the transaction is executed.
+	 * The transaction is issued on a dedicated connection, so the commands of other threads are not part of it.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return this.connection.dedicated(commands -> {
+			while (true) {
+				commands.watch(RedisStructureCodec.NAME);
+				V oldValue = commands.hget(RedisStructureCodec.NAME, key);
+				V newValue = remappingFunction.apply(key, oldValue);
+				if (oldValue == null && newValue != null && this.isFull()) {
+					throw new OutOfSpaceException();
+				}
+				if (oldValue == null && newValue == null) {
+					commands.unwatch();
+					return null;
+				}
+				commands.multi();
+				if (newValue == null) {
+					commands.hdel(RedisStructureCodec.NAME, key);
+				} else {
+					commands.hset(RedisStructureCodec.NAME, key, newValue);
+				}
+				TransactionResult result = commands.exec();
+				if (!result.wasDiscarded()) {
+					return newValue;
+				}
+			}
+		});
+	}
+
+	@Override
+	public void swap(K key1, K key2) {
+		Map<K, V> values = this.readAll(List.of(key1, key2));
+		if (!values.containsKey(key1) || !values.containsKey(key2)) {
+			throw new KeyNotFoundException();
+		}
+		Map<Object, V> swapped = new HashMap<>();
+		swapped.put(key1, values.get(key2));
+		swapped.put(key2, values.get(key1));
+		this.connection.sync().hmset(RedisStructureCodec.NAME, swapped);
+	}
+
+	/**
+	 * Unlinks the hash, the entries are freed by Redis in the background
+	 */
+	@Override
+	public void clear() {
+		this.connection.sync().unlink(RedisStructureCodec.NAME);
+	}
+
+	/**
+	 * Closes the connections of the storage, and releases the Redis client it shares with the other storages.
+	 * The storage is owned by the one who created it, typically the caller of
+	 * {@link com.wobserver.vcollections.builders.RedisStorageBuilder#build()}: the collections and the storages
+	 * built on top of it do not close it, so it must be closed once the collections using it are not used anymore.
+	 */
+	@Override
+	public void close() {
+		this.connection.stop();
+		this.scriptConnection.stop();
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, V>> iterator() {
+		return new RedisHashIterator();
+	}
+
+	@Override
+	public void setKeyGenerator(IKeyGenerator<K> value) {
+		this.keyGenerator = value;
+	}
+
+	@Override
+	public IKeyGenerator<K> getKeyGenerator() {
+		return this.keyGenerator;
+	}
+
+	private Object[] toFields(Collection<?> keys) {
+		return keys.stream().map(this.keyConverter).toArray();
+	}
+
+	/**
+	 * Scans the fields and the values of the hash page by page by HSCAN
+	 */
+	private class RedisHashIterator implements Iterator<Map.Entry<K, V>> {
+		private MapScanCursor<Object, V> cursor = null;
+		private final Queue<Map.Entry<K, V>> entries = new LinkedList<>();
+		private K lastKey = null;
+
+		@Override
+		public boolean hasNext() {
+			while (this.entries.isEmpty() && (this.cursor == null || !this.cursor.isFinished())) {
+				ScanArgs scanArgs = ScanArgs.Builder.limit(FIELD_SCAN_LIMIT);
+				if (this.cursor == null) {
+					this.cursor = RedisHashStorage.this.connection.sync().hscan(RedisStructureCodec.NAME, scanArgs);
+				} else {
+					this.cursor = RedisHashStorage.this.connection.sync().hscan(RedisStructureCodec.NAME, this.cursor, scanArgs);
+				}
+				this.cursor.getMap().forEach((field, value) -> this.entries.add(new AbstractMap.SimpleEntry<>((K) field, value)));
+			}
+			return !this.entries.isEmpty();
+		}
+
+		@Override
+		public Map.Entry<K, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Map.Entry<K, V> result = this.entries.poll();
+			this.lastKey = result.getKey();
+			return result;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException();
+			}
+			RedisHashStorage.this.connection.sync().hdel(RedisStructureCodec.NAME, this.lastKey);
+			this.lastKey = null;
+		}
+	}
+}
@@ -0,0 +1,340 @@
+package com.wobserver.vcollections.storages;
+
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.codec.ByteArrayCodec;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * A storage keeping its values in one Redis list, keyed by the indexes of the values.
+ * <p>
+ * The values are read by LINDEX and LRANGE, overwritten by LSET, appended by RPUSH, and the values at
+ * the ends of the list are added and removed by LPUSH, LPOP and RPOP, so a {@link com.wobserver.vcollections.VArrayList}
+ * used as a queue or a stack runs at the speed of the native list. Inserting values into the middle of the list
+ * is done by a lua script in one round trip.
+ * <p>
+ * A list has no empty slots, so it is an {@link IDequeStorage} and not an {@link IIndexedStorage}: removing a value
+ * from the middle of the list shifts the following values, and a value can be put only to an existing index
+ * or right after the last one.
+ *
+ * @param <V> the type of the value
+ */
+public class RedisListStorage<V> extends AbstractIndexedStorage<V> implements IDequeStorage<V>, Closeable {
+
+	private static final int RANGE_LIMIT = 1000;
+	// the name of the list is the only key of the scripts, the indexes are given as ARGV
+	private static final String REMOVE_SCRIPT = "local index = tonumber(ARGV[1]) local tail = redis.call('LRANGE', KEYS[1], index + 1, -1) redis.call('LTRIM', KEYS[1], 0, index - 1) for i = 1, #tail, 1000 do redis.call('RPUSH', KEYS[1], unpack(tail, i, math.min(i + 999, #tail))) end return 1";
+	private static final String SWAP_SCRIPT = "local value1 = redis.call('LINDEX', KEYS[1], ARGV[1]) local value2 = redis.call('LINDEX', KEYS[1], ARGV[2]) if not value1 or not value2 then return 0 end redis.call('LSET', KEYS[1], ARGV[1], value2) redis.call('LSET', KEYS[1], ARGV[2], value1) return 1";
+	// the index is checked before the list is modified, the values are given after the index as ARGV,
+	// and the tail of the list is rewritten by one LTRIM and chunked RPUSH commands, as an LINSERT looks up a value
+	private static final String INSERT_SCRIPT = "local index = tonumber(ARGV[1]) "
+			+ "local size = redis.call('LLEN', KEYS[1]) "
+			+ "if size < index then return -1 end "
+			+ "local tail = redis.call('LRANGE', KEYS[1], index, -1) "
+			+ "if index == 0 then redis.call('DEL', KEYS[1]) else redis.call('LTRIM', KEYS[1], 0, index - 1) end "
+			+ "for i = 2, #ARGV, 1000 do redis.call('RPUSH', KEYS[1], unpack(ARGV, i, math.min(i + 999, #ARGV))) end "
+			+ "for i = 1, #tail, 1000 do redis.call('RPUSH', KEYS[1], unpack(tail, i, math.min(i + 999, #tail))) end "
+			+ "return #ARGV - 1";
+
+	private final byte[] name;
+	private final RedisStructureCodec<String, V> codec;
+	private final RedisConnection<Object, V> connection;
+	// the scripts get the indexes as arguments, encoded as strings
+	private final RedisConnection<byte[], byte[]> scriptConnection;
+
+	/**
+	 * @param name the name of the list keeping the values
+	 */
+	public RedisListStorage(RedisURI uri, RedisMapper<?, V> mapper, String name, Long capacity) {
+		super(capacity);
+		this.name = name.getBytes(StandardCharsets.UTF_8);
+		this.codec = new RedisStructureCodec<>(this.name, new PrimitiveSerializer<>(String.class), mapper.getValueSerializer());
+		this.connection = new RedisConnection<>(uri, this.codec);
+		this.scriptConnection = new RedisConnection<>(uri, ByteArrayCodec.INSTANCE);
+	}
+
+	@Override
+	public Long entries() {
+		return this.connection.sync().llen(RedisStructureCodec.NAME);
+	}
+
+	@Override
+	public long fence() {
+		return this.entries();
+	}
+
+	/**
+	 * Appends the value by one RPUSH
+	 *
+	 * @return the index of the appended value
+	 */
+	@Override
+	public Long create(V value) {
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		return this.connection.sync().rpush(RedisStructureCodec.NAME, value) - 1L;
+	}
+
+	/**
+	 * Appends the values by one RPUSH
+	 */
+	@Override
+	public List<Long> createAll(List<V> values) {
+		List<Long> result = new ArrayList<>(values.size());
+		if (values.isEmpty()) {
+			return result;
+		}
+		if (this.maxSize != NO_MAX_SIZE && this.maxSize < this.entries() + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		long size = this.connection.sync().rpush(RedisStructureCodec.NAME, (V[]) values.toArray());
+		for (long index = size - values.size(); index < size; ++index) {
+			result.add(index);
+		}
+		return result;
+	}
+
+	@Override
+	public V get(long key) {
+		if (key < 0) {
+			return null;
+		}
+		return this.connection.sync().lindex(RedisStructureCodec.NAME, key);
+	}
+
+	/**
+	 * Reads the range by LRANGE
+	 */
+	@Override
+	public List<V> getRange(long from, long to) {
+		List<V> result = new ArrayList<>((int) Math.max(0L, to - from));
+		if (to <= from) {
+			return result;
+		}
+		result.addAll(this.connection.sync().lrange(RedisStructureCodec.NAME, from, to - 1));
+		while (result.size() < to - from) {
+			result.add(null);
+		}
+		return result;
+	}
+
+	/**
+	 * Overwrites an existing value by LSET, or appends the value if the key is the index after the last value
+	 *
+	 * @throws IndexOutOfBoundsException if the key is after the index following the last value
+	 */
+	@Override
+	public void put(long key, V value) {
+		long size = this.entries();
+		if (key < 0 || size < key) {
+			throw new IndexOutOfBoundsException("Cannot put value to " + key + " in a list of " + size + " values");
+		}
+		if (key == size) {
+			this.addLast(value);
+			return;
+		}
+		this.connection.sync().lset(RedisStructureCodec.NAME, key, value);
+	}
+
+	@Override
+	public boolean contains(long key) {
+		return 0 <= key && key < this.entries();
+	}
+
+	/**
+	 * Removes the value, and shifts the following values
+	 */
+	@Override
+	public void remove(long key) {
+		long size = this.entries();
+		if (key < 0 || size <= key) {
+			return;
+		}
+		if (key == 0) {
+			this.removeFirst();
+		} else if (key == size - 1) {
+			this.removeLast();
+		} else {
+			this.eval(REMOVE_SCRIPT, key);
+		}
+	}
+
+	@Override
+	public void swap(long key1, long key2) {
+		Long swapped = this.eval(SWAP_SCRIPT, key1, key2);
+		if (swapped == null || swapped != 1L) {
+			throw new KeyNotFoundException();
+		}
+	}
+
+	/**
+	 * Inserts the values by a lua script, which checks the index before the list is modified
+	 */
+	@Override
+	public void insertAll(long index, List<V> values) {
+		if (index < 0) {
+			throw new IndexOutOfBoundsException("Cannot insert values to " + index);
+		}
+		if (values.isEmpty()) {
+			return;
+		}
+		if (this.maxSize != NO_MAX_SIZE && this.maxSize < this.entries() + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		byte[][] args = new byte[values.size() + 1][];
+		args[0] = String.valueOf(index).getBytes(StandardCharsets.UTF_8);
+		for (int i = 0; i < values.size(); ++i) {
+			args[i + 1] = this.codec.encodeMember(values.get(i));
+		}
+		Long inserted = this.scriptConnection.sync().eval(INSERT_SCRIPT, ScriptOutputType.INTEGER, new byte[][]{this.name}, args);
+		if (inserted == null || inserted < 0) {
+			throw new IndexOutOfBoundsException("Cannot insert values to " + index + " in a list of " + this.entries() + " values");
+		}
+	}
+
+	@Override
+	public void addFirst(V value) {
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		this.connection.sync().lpush(RedisStructureCodec.NAME, value);
+	}
+
+	@Override
+	public void addLast(V value) {
+		if (this.isFull()) {
+			throw new OutOfSpaceException();
+		}
+		this.connection.sync().rpush(RedisStructureCodec.NAME, value);
+	}
+
+	@Override
+	public V removeFirst() {
+		return this.connection.sync().lpop(RedisStructureCodec.NAME);
+	}
+
+	@Override
+	public V removeLast() {
+		return this.connection.sync().rpop(RedisStructureCodec.NAME);
+	}
+
+	/**
+	 * Unlinks the list, the values are freed by Redis in the background
+	 */
+	@Override
+	public void clear() {
+		this.connection.sync().unlink(RedisStructureCodec.NAME);
+	}
+
+	/**
+	 * Closes the connections of the storage, and releases the Redis client it shares with the other storages.
+	 * The storage is owned by the one who created it, typically the caller of
+	 * {@link com.wobserver.vcollections.builders.RedisStorageBuilder#build()}: the collections and the storages
+	 * built on top of it do not close it, so it must be closed once the collections using it are not used anymore.
+	 */
+	@Override
+	public void close() {
+		this.connection.stop();
+		this.scriptConnection.stop();
+	}
+
+	/**
+	 * Reads the values page by page by LRANGE
+	 */
+	@Override
+	public Iterator<Map.Entry<Long, V>> iterator() {
+		return new RedisListIterator();
+	}
+
+	@Override
+	public Iterator<Long> keyIterator() {
+		long fence = this.fence();
+		return new Iterator<>() {
+			private long next = 0L;
+
+			@Override
+			public boolean hasNext() {
+				return this.next < fence;
+			}
+
+			@Override
+			public Long next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.next++;
+			}
+		};
+	}
+
+	@Override
+	public Iterator<V> valueIterator() {
+		Iterator<Map.Entry<Long, V>> iterator = this.iterator();
+		return new Iterator<>() {
+			@Override
+			public boolean hasNext() {
+				return iterator.hasNext();
+			}
+
+			@Override
+			public V next() {
+				return iterator.next().getValue();
+			}
+
+			@Override
+			public void remove() {
+				iterator.remove();
+			}
+		};
+	}
+
+	private Long eval(String script, long... indexes) {
+		byte[][] args = new byte[indexes.length][];
+		for (int i = 0; i < indexes.length; ++i) {
+			args[i] = String.valueOf(indexes[i]).getBytes(StandardCharsets.UTF_8);
+		}
+		return this.scriptConnection.sync().eval(script, ScriptOutputType.INTEGER, new byte[][]{this.name}, args);
+	}
+
+	private class RedisListIterator implements Iterator<Map.Entry<Long, V>> {
+		private final Queue<V> values = new LinkedList<>();
+		private long next = 0L;
+		private long last = -1L;
+		private boolean finished = false;
+
+		@Override
+		public boolean hasNext() {
+			if (this.values.isEmpty() && !this.finished) {
+				List<V> page = RedisListStorage.this.connection.sync().lrange(RedisStructureCodec.NAME, this.next, this.next + RANGE_LIMIT - 1);
+				this.values.addAll(page);
+				this.finished = page.size() < RANGE_LIMIT;
+			}
+			return !this.values.isEmpty();
+		}
+
+		@Override
+		public Map.Entry<Long, V> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.last = this.next++;
+			return new AbstractMap.SimpleEntry<>(this.last, this.values.poll());
+		}
+
+		/**
+		 * Removes the last returned value, the following values are shifted
+		 */
+		@Override
+		public void remove() {
+			if (this.last < 0) {
+				throw new IllegalStateException();
+			}
+			RedisListStorage.this.remove(this.last);
+			this.last = -1L;
+			--this.next;
+		}
+	}
+}
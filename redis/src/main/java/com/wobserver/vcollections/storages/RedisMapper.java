@@ -1,47 +1,121 @@
 package com.wobserver.vcollections.storages;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.lettuce.core.codec.ByteArrayCodec;
 import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.ToByteBufEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
-public class RedisMapper<K, V> implements RedisCodec<K, V> {
+/**
+ * A {@link RedisCodec} encoding the keys and the values by {@link ISerializer}s.
+ * <p>
+ * The buffers received from Redis are deserialized directly. As a {@link ToByteBufEncoder}
+ * the keys and the values are serialized straight into the pooled buffers of the connection,
+ * without an intermediate byte array.
+ * <p>
+ * A {@link RawKey} is encoded as its bytes, without the prefix and the serializer, so the keys not belonging
+ * to the entries (like the counter of a namespace) can be given to the scripts among the keys of the entries.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public class RedisMapper<K, V> implements RedisCodec<K, V>, ToByteBufEncoder<K, V> {
+
+	private static final int ESTIMATED_SIZE = 64;
+
 	private final Class<K> keyType;
 	private final Class<V> valueType;
-	private final ObjectMapper mapper;
-	private final ByteArrayCodec byteArrayCodec;
+	private final ISerializer<K> keySerializer;
+	private final ISerializer<V> valueSerializer;
+	private final byte[] keyPrefix;
 
 	public RedisMapper(Class<K> keyType, Class<V> valueType, ObjectMapper mapper) {
+		this(keyType, valueType, new JacksonSerializer<>(mapper, keyType), new JacksonSerializer<>(mapper, valueType));
+	}
+
+	public RedisMapper(Class<K> keyType, Class<V> valueType, ISerializer<K> keySerializer, ISerializer<V> valueSerializer) {
+		this(keyType, valueType, keySerializer, valueSerializer, new byte[0]);
+	}
+
+	private RedisMapper(Class<K> keyType, Class<V> valueType, ISerializer<K> keySerializer, ISerializer<V> valueSerializer, byte[] keyPrefix) {
 		this.keyType = keyType;
 		this.valueType = valueType;
-		this.mapper = mapper;
-		this.byteArrayCodec = new ByteArrayCodec();
+		this.keySerializer = keySerializer;
+		this.valueSerializer = valueSerializer;
+		this.keyPrefix = keyPrefix;
+	}
+
+	/**
+	 * Creates a mapper putting a prefix before the encoded keys, and removing it from the decoded keys.
+	 *
+	 * @param keyPrefix the bytes put before every key
+	 * @return a {@link RedisMapper} with the same serializers and the given key prefix
+	 */
+	public RedisMapper<K, V> withKeyPrefix(byte[] keyPrefix) {
+		return new RedisMapper<>(this.keyType, this.valueType, this.keySerializer, this.valueSerializer, keyPrefix);
 	}
 
 	@Override
 	public K decodeKey(ByteBuffer byteBuffer) {
-		byte[] bytes = this.byteArrayCodec.decodeKey(byteBuffer);
-		return this.decode(bytes, this.keyType);
+		byteBuffer.position(byteBuffer.position() + this.keyPrefix.length);
+		return this.keySerializer.deserialize(byteBuffer);
 	}
 
 	@Override
 	public V decodeValue(ByteBuffer byteBuffer) {
-		byte[] bytes = this.byteArrayCodec.decodeValue(byteBuffer);
-		return this.decode(bytes, this.valueType);
+		return this.valueSerializer.deserialize(byteBuffer);
 	}
 
 	@Override
 	public ByteBuffer encodeKey(K key) {
-		byte[] bytes = this.encode(key);
-		return this.byteArrayCodec.encodeKey(bytes);
+		if (key instanceof RawKey) {
+			return ByteBuffer.wrap(((RawKey) key).bytes);
+		}
+		ByteBuffer serialized = this.keySerializer.serialize(key);
+		if (this.keyPrefix.length == 0) {
+			return serialized;
+		}
+		ByteBuffer result = ByteBuffer.allocate(this.keyPrefix.length + serialized.remaining());
+		result.put(this.keyPrefix).put(serialized);
+		return result.flip();
 	}
 
 	@Override
 	public ByteBuffer encodeValue(V value) {
-		byte[] bytes = this.encode(value);
-		return this.byteArrayCodec.encodeKey(bytes);
+		return this.valueSerializer.serialize(value);
+	}
+
+	@Override
+	public void encodeKey(K key, ByteBuf target) {
+		if (key instanceof RawKey) {
+			target.writeBytes(((RawKey) key).bytes);
+			return;
+		}
+		target.writeBytes(this.keyPrefix);
+		try {
+			this.keySerializer.serialize(key, new ByteBufOutputStream(target));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void encodeValue(V value, ByteBuf target) {
+		try {
+			this.valueSerializer.serialize(value, new ByteBufOutputStream(target));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	/**
+	 * The target buffer grows if the serialized form is larger, so it is only an initial capacity
+	 */
+	@Override
+	public int estimateSize(Object keyOrValue) {
+		return ESTIMATED_SIZE;
 	}
 
 	public Class<K> getKeyType() {
@@ -52,23 +126,22 @@ public class RedisMapper<K, V> implements RedisCodec<K, V> {
 		return this.valueType;
 	}
 
-	private <T> T decode(byte[] bytes, Class<T> type) {
-		T result;
-		try {
-			result = this.mapper.readValue(bytes, type);
-		} catch (IOException e) {
-			throw new RuntimeException(e);
-		}
-		return result;
+	public ISerializer<K> getKeySerializer() {
+		return this.keySerializer;
 	}
 
-	private <T> byte[] encode(T value) {
-		byte[] result;
-		try {
-			result = this.mapper.writeValueAsBytes(value);
-		} catch (JsonProcessingException e) {
-			throw new RuntimeException(e);
+	public ISerializer<V> getValueSerializer() {
+		return this.valueSerializer;
+	}
+
+	/**
+	 * A key encoded as it is
+	 */
+	static final class RawKey {
+		private final byte[] bytes;
+
+		RawKey(byte[] bytes) {
+			this.bytes = bytes;
 		}
-		return result;
 	}
-}
\ No newline at end of file
+}
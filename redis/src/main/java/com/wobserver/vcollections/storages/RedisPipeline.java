@@ -0,0 +1,78 @@
+package com.wobserver.vcollections.storages;
+
+import io.lettuce.core.LettuceFutures;
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Queues commands on a connection not flushing its commands automatically,
+ * and sends them to Redis in batches, so a batch costs one round trip instead of one per command.
+ * <p>
+ * The queued commands are flushed when the batch size is reached and when the pipeline is closed,
+ * and the results of a batch are awaited before the next batch is queued. The connection is released
+ * after the pipeline is closed.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+class RedisPipeline<K, V> implements AutoCloseable {
+	private final StatefulRedisConnection<K, V> connection;
+	private final int batchSize;
+	private final Duration timeout;
+	private final List<RedisFuture<?>> futures;
+	private final Consumer<StatefulRedisConnection<K, V>> release;
+
+	RedisPipeline(StatefulRedisConnection<K, V> connection, int batchSize, Duration timeout, Consumer<StatefulRedisConnection<K, V>> release) {
+		this.connection = connection;
+		this.batchSize = batchSize;
+		this.timeout = timeout;
+		this.release = release;
+		this.futures = new ArrayList<>(batchSize);
+	}
+
+	/**
+	 * Queues a command
+	 *
+	 * @param command the command issued on the asynchronous commands of the connection
+	 * @param <T>     the type of the result of the command
+	 * @return the future of the result, which is completed after the batch of the command is flushed
+	 */
+	public <T> RedisFuture<T> add(Function<RedisAsyncCommands<K, V>, RedisFuture<T>> command) {
+		RedisFuture<T> result = command.apply(this.connection.async());
+		this.futures.add(result);
+		if (this.batchSize <= this.futures.size()) {
+			this.flush();
+		}
+		return result;
+	}
+
+	/**
+	 * Sends the queued commands to Redis, and waits for their results
+	 */
+	public void flush() {
+		if (this.futures.isEmpty()) {
+			return;
+		}
+		this.connection.flushCommands();
+		RedisFuture<?>[] batch = this.futures.toArray(new RedisFuture<?>[0]);
+		this.futures.clear();
+		if (!LettuceFutures.awaitAll(this.timeout, batch)) {
+			throw new RuntimeException("Pipelined commands are not completed in " + this.timeout);
+		}
+	}
+
+	@Override
+	public void close() {
+		try {
+			this.flush();
+		} finally {
+			this.release.accept(this.connection);
+		}
+	}
+}
@@ -0,0 +1,345 @@
+package com.wobserver.vcollections.storages;
+
+import io.lettuce.core.RedisFuture;
+import io.lettuce.core.RedisURI;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.ValueScanCursor;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * A storage keeping its keys as the members of one Redis set, backing a {@link com.wobserver.vcollections.VSet}.
+ * <p>
+ * The members are added by SADD, removed by SREM, counted by SCARD and iterated by SSCAN, and the value of every member
+ * is 1. Two sets on the same Redis database are combined by SUNIONSTORE, SINTERSTORE and SDIFFSTORE in one round trip,
+ * so {@link com.wobserver.vcollections.VSet#addAll(Collection)}, {@link com.wobserver.vcollections.VSet#retainAll(Collection)}
+ * and {@link com.wobserver.vcollections.VSet#removeAll(Collection)} between two such sets do not transfer the members.
+ *
+ * @param <K> the type of the members
+ */
+public class RedisSetStorage<K> implements ISetStorage<K>, Closeable {
+
+	private static final Integer PRESENT = 1;
+	private static final int MEMBER_SCAN_LIMIT = 1000;
+	private static final int PIPELINE_SIZE = 1000;
+	// the name of the other set is given as KEYS[2], the script returns the change of the cardinality
+	private static final String COMBINE_SCRIPT = "local before = redis.call('SCARD', KEYS[1]) return redis.call('%s', KEYS[1], KEYS[1], KEYS[2]) - before";
+	// the union is stored under the temporary key KEYS[3], and it replaces the set only if it fits into the capacity,
+	// otherwise the temporary key is deleted and -1 is returned
+	private static final String UNION_SCRIPT = "local before = redis.call('SCARD', KEYS[1]) "
+			+ "local after = redis.call('SUNIONSTORE', KEYS[3], KEYS[1], KEYS[2]) "
+			+ "if 0 <= %1$d and %1$d < after then redis.call('DEL', KEYS[3]) return -1 end "
+			+ "if after == 0 then return 0 end "
+			+ "redis.call('RENAME', KEYS[3], KEYS[1]) "
+			+ "return after - before";
+	private static final String UNION_SUFFIX = ".vcollections-union";
+
+	private final RedisURI uri;
+	private final String name;
+	private final Class<K> memberType;
+	private final ISerializer<K> memberSerializer;
+	private final long capacity;
+	private final Function<Object, K> keyConverter;
+	private final CapacityChecker<K> capacityChecker;
+	private final RedisConnection<Object, K> connection;
+	private final String unionScript;
+	private final String intersectScript;
+	private final String subtractScript;
+
+	/**
+	 * @param mapper the mapper whose key serializer encodes the members
+	 * @param name   the name of the set keeping the members
+	 */
+	public RedisSetStorage(RedisURI uri, RedisMapper<K, ?> mapper, String name, long capacity, Function<Object, K> keyConverter) {
+		this.uri = uri;
+		this.name = name;
+		this.memberType = mapper.getKeyType();
+		this.memberSerializer = mapper.getKeySerializer();
+		this.capacity = capacity;
+		this.keyConverter = keyConverter;
+		this.capacityChecker = new CapacityChecker<>(this, capacity);
+		RedisStructureCodec<String, K> codec = new RedisStructureCodec<>(name.getBytes(StandardCharsets.UTF_8), new PrimitiveSerializer<>(String.class), this.memberSerializer);
+		this.connection = new RedisConnection<>(uri, codec);
+		this.unionScript = String.format(UNION_SCRIPT, capacity);
+		this.intersectScript = String.format(COMBINE_SCRIPT, "SINTERSTORE");
+		this.subtractScript = String.format(COMBINE_SCRIPT, "SDIFFSTORE");
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.entries() == 0;
+	}
+
+	@Override
+	public boolean isFull() {
+		if (this.capacity == NO_MAX_SIZE) {
+			return false;
+		}
+		return this.capacity <= this.entries();
+	}
+
+	@Override
+	public Long entries() {
+		return this.connection.sync().scard(RedisStructureCodec.NAME);
+	}
+
+	@Override
+	public Long capacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * The members of a set are given by the caller, they are not generated
+	 */
+	@Override
+	public K create(Integer value) {
+		throw new UnsupportedOperationException("Create operation is not supported by a set.");
+	}
+
+	@Override
+	public Integer read(Object keyObject) {
+		if (this.has(keyObject)) {
+			return PRESENT;
+		}
+		return null;
+	}
+
+	@Override
+	public void update(K key, Integer value) {
+		this.capacityChecker.checkForUpdate(key);
+		this.connection.sync().sadd(RedisStructureCodec.NAME, key);
+	}
+
+	@Override
+	public boolean has(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		return this.connection.sync().sismember(RedisStructureCodec.NAME, key);
+	}
+
+	@Override
+	public void delete(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		this.connection.sync().srem(RedisStructureCodec.NAME, key);
+	}
+
+	@Override
+	public List<K> createAll(List<Integer> values) {
+		throw new UnsupportedOperationException("Create operation is not supported by a set.");
+	}
+
+	@Override
+	public Map<K, Integer> readAll(Collection<K> keys) {
+		Map<K, Integer> result = new HashMap<>();
+		Iterator<Boolean> memberships = this.isMembers(keys).iterator();
+		for (K key : keys) {
+			if (memberships.next()) {
+				result.put(key, PRESENT);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the keys by one SADD
+	 */
+	@Override
+	public void updateAll(Map<K, Integer> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		if (this.capacity != NO_MAX_SIZE) {
+			long existing = this.isMembers(entries.keySet()).stream().filter(Boolean::booleanValue).count();
+			if (this.capacity < this.entries() + entries.size() - existing) {
+				throw new OutOfSpaceException();
+			}
+		}
+		this.connection.sync().sadd(RedisStructureCodec.NAME, this.toMembers(entries.keySet()));
+	}
+
+	/**
+	 * Removes the keys by one SREM
+	 */
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.connection.sync().srem(RedisStructureCodec.NAME, this.toMembers(keys));
+	}
+
+	/**
+	 * Adds the key by SADD, which tells if the key has already been a member
+	 */
+	@Override
+	public Integer putIfAbsent(K key, Integer value) {
+		this.capacityChecker.checkForUpdate(key);
+		if (this.connection.sync().sadd(RedisStructureCodec.NAME, key) == 1L) {
+			return null;
+		}
+		return PRESENT;
+	}
+
+	/**
+	 * Checks the keys by pipelined SISMEMBER commands, as SMISMEMBER is not available in the used client
+	 */
+	@Override
+	public boolean hasAll(Collection<?> keys) {
+		return this.isMembers(keys).stream().allMatch(Boolean::booleanValue);
+	}
+
+	/**
+	 * @return true if the other storage is a {@link RedisSetStorage} of the same type of members
+	 * on the same Redis database, and the members of both sets are encoded alike. The members are encoded alike if
+	 * both sets use the same serializer, or both use a {@link PrimitiveSerializer}.
+	 */
+	@Override
+	public boolean isCombinable(IStorage<?, ?> other) {
+		if (!(other instanceof RedisSetStorage)) {
+			return false;
+		}
+		RedisSetStorage<?> otherSet = (RedisSetStorage<?>) other;
+		return this.memberType.equals(otherSet.memberType)
+				&& this.isEncodedAlike(otherSet.memberSerializer)
+				&& Objects.equals(this.uri.getHost(), otherSet.uri.getHost())
+				&& this.uri.getPort() == otherSet.uri.getPort()
+				&& this.uri.getDatabase() == otherSet.uri.getDatabase();
+	}
+
+	/**
+	 * Stores the union of the sets by SUNIONSTORE into a temporary key, which replaces the set if the union
+	 * fits into the capacity
+	 *
+	 * @throws OutOfSpaceException if the union exceeds the capacity, in which case the members are not changed
+	 */
+	@Override
+	public boolean union(IStorage<?, ?> other) {
+		long added = this.combine(this.unionScript, other);
+		if (added < 0) {
+			throw new OutOfSpaceException();
+		}
+		return 0 < added;
+	}
+
+	/**
+	 * Stores the intersection of the sets by SINTERSTORE
+	 */
+	@Override
+	public boolean intersect(IStorage<?, ?> other) {
+		return this.combine(this.intersectScript, other) < 0;
+	}
+
+	/**
+	 * Stores the difference of the sets by SDIFFSTORE
+	 */
+	@Override
+	public boolean subtract(IStorage<?, ?> other) {
+		return this.combine(this.subtractScript, other) < 0;
+	}
+
+	/**
+	 * Unlinks the set, the members are freed by Redis in the background
+	 */
+	@Override
+	public void clear() {
+		this.connection.sync().unlink(RedisStructureCodec.NAME);
+	}
+
+	/**
+	 * Closes the connections of the storage, and releases the Redis client it shares with the other storages.
+	 * The storage is owned by the one who created it, typically the caller of
+	 * {@link com.wobserver.vcollections.builders.RedisStorageBuilder#build()}: the collections and the storages
+	 * built on top of it do not close it, so it must be closed once the collections using it are not used anymore.
+	 */
+	@Override
+	public void close() {
+		this.connection.stop();
+	}
+
+	@Override
+	public Iterator<Map.Entry<K, Integer>> iterator() {
+		return new RedisSetIterator();
+	}
+
+	private long combine(String script, IStorage<?, ?> other) {
+		if (!this.isCombinable(other)) {
+			throw new IllegalArgumentException("The storage " + other + " cannot be combined with the set " + this.name);
+		}
+		String otherName = ((RedisSetStorage<?>) other).name;
+		Object[] keys = {RedisStructureCodec.NAME, otherName, this.name + UNION_SUFFIX};
+		Long result = this.connection.sync().eval(script, ScriptOutputType.INTEGER, keys);
+		return result == null ? 0L : result;
+	}
+
+	private boolean isEncodedAlike(ISerializer<?> otherSerializer) {
+		if (this.memberSerializer == otherSerializer) {
+			return true;
+		}
+		return this.memberSerializer instanceof PrimitiveSerializer && otherSerializer instanceof PrimitiveSerializer;
+	}
+
+	private List<Boolean> isMembers(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return List.of();
+		}
+		List<RedisFuture<Boolean>> futures = new ArrayList<>(keys.size());
+		try (RedisPipeline<Object, K> pipeline = this.connection.pipeline(PIPELINE_SIZE)) {
+			for (Object keyObject : keys) {
+				K key = this.keyConverter.apply(keyObject);
+				futures.add(pipeline.add(commands -> commands.sismember(RedisStructureCodec.NAME, key)));
+			}
+		}
+		List<Boolean> result = new ArrayList<>(futures.size());
+		for (RedisFuture<Boolean> future : futures) {
+			result.add(Boolean.TRUE.equals(future.toCompletableFuture().join()));
+		}
+		return result;
+	}
+
+	private K[] toMembers(Collection<?> keys) {
+		return (K[]) keys.stream().map(this.keyConverter).toArray();
+	}
+
+	/**
+	 * Scans the members of the set page by page by SSCAN
+	 */
+	private class RedisSetIterator implements Iterator<Map.Entry<K, Integer>> {
+		private ValueScanCursor<K> cursor = null;
+		private final Queue<K> members = new LinkedList<>();
+		private K lastMember = null;
+
+		@Override
+		public boolean hasNext() {
+			while (this.members.isEmpty() && (this.cursor == null || !this.cursor.isFinished())) {
+				ScanArgs scanArgs = ScanArgs.Builder.limit(MEMBER_SCAN_LIMIT);
+				if (this.cursor == null) {
+					this.cursor = RedisSetStorage.this.connection.sync().sscan(RedisStructureCodec.NAME, scanArgs);
+				} else {
+					this.cursor = RedisSetStorage.this.connection.sync().sscan(RedisStructureCodec.NAME, this.cursor, scanArgs);
+				}
+				this.members.addAll(this.cursor.getValues());
+			}
+			return !this.members.isEmpty();
+		}
+
+		@Override
+		public Map.Entry<K, Integer> next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastMember = this.members.poll();
+			return new AbstractMap.SimpleEntry<>(this.lastMember, PRESENT);
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastMember == null) {
+				throw new IllegalStateException();
+			}
+			RedisSetStorage.this.connection.sync().srem(RedisStructureCodec.NAME, this.lastMember);
+			this.lastMember = null;
+		}
+	}
+}
@@ -3,31 +3,141 @@ package com.wobserver.vcollections.storages;
 import com.wobserver.vcollections.keygenerators.IAccessKeyGenerator;
 import com.wobserver.vcollections.keygenerators.IKeyGenerator;
 import io.lettuce.core.KeyScanCursor;
+import io.lettuce.core.KeyValue;
+import io.lettuce.core.RedisFuture;
 import io.lettuce.core.RedisURI;
 import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScriptOutputType;
+import io.lettuce.core.TransactionResult;
+import io.lettuce.core.api.async.RedisAsyncCommands;
+import io.lettuce.core.api.sync.RedisCommands;
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
 import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
-public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K> {
+/**
+ * A storage keeping the entries in Redis.
+ * <p>
+ * Without a namespace the storage uses the whole database. With a namespace the keys are prefixed by the namespace,
+ * so several storages can share one database: the scans, the size and {@link #clear()} are scoped to the prefix.
+ * The number of entries of a namespace is kept in a counter maintained by the modifying scripts,
+ * unless the entries expire, as the expired keys are not subtracted from a counter.
+ *
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public class RedisStorage<K, V> implements IStorage<K, V>, IAsyncStorage<K, V>, IAccessKeyGenerator<K>, Closeable {
+
+	public static final int DEFAULT_PIPELINE_SIZE = 1000;
+	private static final int KEY_SCAN_LIMIT = 1000;
+	private static final int MIN_PAGE_SIZE = 16;
+	private static final int MAX_PAGE_SIZE = 16384;
+	private static final long TARGET_PAGE_LATENCY_IN_NS = 5_000_000L;
+	private static final String REPLACE_SCRIPT = "if redis.call('GET', KEYS[1]) == ARGV[1] then redis.call('SET', KEYS[1], ARGV[2]%s) return 1 end return 0";
+	// the present value is returned, or false, which is a nil reply, if the value is set
+	private static final String ABSENT_SCRIPT = "local present = redis.call('GET', KEYS[1]) if present then return present end redis.call('SET', KEYS[1], ARGV[1]%s) return false";
+	// a present value is returned after a 1, as a null value is stored in its serialized form, which is decoded back to null
+	private static final String LOOKUP_SCRIPT = "local value = redis.call('GET', KEYS[1]) if value then return {1, value} end return {0}";
+	private static final String DELETE_SCRIPT = "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end return 0";
+	private static final String NAMESPACE_SEPARATOR = ":";
+	private static final String COUNTER_SUFFIX = "#entries";
+	private static final int SCRIPT_BATCH_SIZE = 100;
+	// the counter of the namespace is given to the scripts as KEYS[1], followed by the keys of the entries
+	private static final String COUNTED_UPDATE_SCRIPT = "local created = 0 for i = 2, #KEYS do if redis.call('EXISTS', KEYS[i]) == 0 then created = created + 1 end redis.call('SET', KEYS[i], ARGV[i - 1]) end if 0 < created then redis.call('INCRBY', KEYS[1], created) end return created";
+	private static final String COUNTED_ABSENT_SCRIPT = "local present = redis.call('GET', KEYS[2]) if present then return present end redis.call('SET', KEYS[2], ARGV[1]) redis.call('INCR', KEYS[1]) return false";
+	private static final String COUNTED_DELETE_SCRIPT = "local deleted = redis.call('DEL', unpack(KEYS, 2)) if 0 < deleted then redis.call('DECRBY', KEYS[1], deleted) end return deleted";
+	private static final String COUNTED_UNLINK_SCRIPT = "local deleted = redis.call('UNLINK', unpack(KEYS, 2)) if 0 < deleted then redis.call('DECRBY', KEYS[1], deleted) end return deleted";
+	private static final String COUNTED_COMPARE_DELETE_SCRIPT = "if redis.call('GET', KEYS[2]) == ARGV[1] then redis.call('DECR', KEYS[1]) return redis.call('DEL', KEYS[2]) end return 0";
+	private static final String COUNT_SCRIPT = "return tonumber(redis.call('GET', KEYS[1]) or '0')";
 
 	private IKeyGenerator<K> keyGenerator;
 	private final long capacity;
+	private final int pipelineSize;
 	private final Function<Object, K> keyConverter;
 	private final CapacityChecker<K> capacityChecker;
 	private final RedisConnection<K, V> connection;
-	private BiConsumer<K, V> setter;
+	// the setter is bound to the commands it is issued on, as the transactions are issued on a dedicated connection
+	private Function<RedisCommands<K, V>, BiConsumer<K, V>> setter;
+	private Consumer<Map<K, V>> batchSetter;
+	private BiFunction<K, V, RedisFuture<?>> asyncSetter;
+	private final String absentScript;
+	private final String replaceScript;
+	private final String keyPattern;
+	// the counter of the entries of the namespace, or null if the entries are not counted
+	private final K counterKey;
 
 	public RedisStorage(RedisURI uri, RedisMapper<K, V> mapper, int expirationInS, long capacity, Function<Object, K> keyConverter) {
+		this(uri, mapper, expirationInS, capacity, keyConverter, DEFAULT_PIPELINE_SIZE);
+	}
+
+	/**
+	 * @param pipelineSize the number of commands the bulk writes send to Redis at once
+	 */
+	public RedisStorage(RedisURI uri, RedisMapper<K, V> mapper, int expirationInS, long capacity, Function<Object, K> keyConverter, int pipelineSize) {
+		this(uri, mapper, expirationInS, capacity, keyConverter, pipelineSize, null);
+	}
+
+	/**
+	 * @param pipelineSize the number of commands the bulk writes send to Redis at once
+	 * @param namespace    the prefix of the keys of the storage, or null to use the whole database
+	 */
+	public RedisStorage(RedisURI uri, RedisMapper<K, V> mapper, int expirationInS, long capacity, Function<Object, K> keyConverter, int pipelineSize, String namespace) {
 		this.capacity = capacity;
+		this.pipelineSize = pipelineSize;
 		this.keyConverter = keyConverter;
+		if (namespace != null) {
+			String prefix = namespace + NAMESPACE_SEPARATOR;
+			mapper = mapper.withKeyPrefix(prefix.getBytes(StandardCharsets.UTF_8));
+			this.keyPattern = toGlobLiteral(prefix) + "*";
+		} else {
+			this.keyPattern = null;
+		}
+		if (namespace != null && expirationInS == 0) {
+			this.counterKey = (K) new RedisMapper.RawKey((namespace + COUNTER_SUFFIX).getBytes(StandardCharsets.UTF_8));
+		} else {
+			this.counterKey = null;
+		}
 		this.connection = new RedisConnection<>(uri, mapper);
 		this.capacityChecker = new CapacityChecker<>(this, capacity);
 		if (0 < expirationInS) {
-			this.setter = (key, value) -> this.connection.sync().setex(key, expirationInS, value);
+			this.setter = commands -> (key, value) -> commands.setex(key, expirationInS, value);
+			// MSET does not support expiration, so the SETEX commands are pipelined
+			this.batchSetter = entries -> {
+				try (RedisPipeline<K, V> pipeline = this.connection.pipeline(this.pipelineSize)) {
+					entries.forEach((key, value) -> pipeline.add(commands -> commands.setex(key, expirationInS, value)));
+				}
+			};
+			this.asyncSetter = (key, value) -> this.connection.async().setex(key, expirationInS, value);
+			this.absentScript = String.format(ABSENT_SCRIPT, ", 'EX', " + expirationInS);
+			this.replaceScript = String.format(REPLACE_SCRIPT, ", 'EX', " + expirationInS);
+		} else if (this.isCounted()) {
+			this.setter = commands -> (key, value) -> commands.eval(COUNTED_UPDATE_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of(key)), value);
+			this.batchSetter = entries -> {
+				List<K> keys = new ArrayList<>(entries.keySet());
+				try (RedisPipeline<K, V> pipeline = this.connection.pipeline(this.pipelineSize)) {
+					for (int from = 0; from < keys.size(); from += SCRIPT_BATCH_SIZE) {
+						List<K> batch = keys.subList(from, Math.min(from + SCRIPT_BATCH_SIZE, keys.size()));
+						K[] batchKeys = this.toCountedKeys(batch);
+						V[] batchValues = (V[]) batch.stream().map(entries::get).toArray();
+						pipeline.add(commands -> commands.<Long>eval(COUNTED_UPDATE_SCRIPT, ScriptOutputType.INTEGER, batchKeys, batchValues));
+					}
+				}
+			};
+			this.asyncSetter = (key, value) -> this.connection.async().eval(COUNTED_UPDATE_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of(key)), value);
+			this.absentScript = COUNTED_ABSENT_SCRIPT;
+			this.replaceScript = String.format(REPLACE_SCRIPT, "");
 		} else {
-			this.setter = this.connection.sync()::set;
+			this.setter = commands -> commands::set;
+			this.batchSetter = entries -> this.connection.sync().mset(entries);
+			this.asyncSetter = (key, value) -> this.connection.async().set(key, value);
+			this.absentScript = String.format(ABSENT_SCRIPT, "");
+			this.replaceScript = String.format(REPLACE_SCRIPT, "");
 		}
 	}
 
@@ -44,9 +154,25 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 		return this.capacity <= this.entries();
 	}
 
+	/**
+	 * Counts the keys of the database without a namespace, reads the counter of a namespace,
+	 * and scans the keys of a namespace with expiring entries.
+	 */
 	@Override
 	public Long entries() {
-		return this.connection.sync().dbsize();
+		if (this.keyPattern == null) {
+			return this.connection.sync().dbsize();
+		}
+		if (this.isCounted()) {
+			return this.connection.sync().eval(COUNT_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of()));
+		}
+		long result = 0;
+		KeyScanCursor<K> cursor = null;
+		do {
+			cursor = this.scan(cursor, KEY_SCAN_LIMIT);
+			result += cursor.getKeys().size();
+		} while (!cursor.isFinished());
+		return result;
 	}
 
 	@Override
@@ -75,10 +201,22 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 		return value;
 	}
 
+	/**
+	 * Reads the presence and the value of the key by one lua script
+	 */
+	@Override
+	public Lookup<V> lookup(Object keyObject) {
+		List<Object> result = this.connection.sync().eval(LOOKUP_SCRIPT, ScriptOutputType.MULTI, this.toRedisKeys(List.of(keyObject)));
+		if (result == null || result.size() < 2) {
+			return Lookup.absent();
+		}
+		return Lookup.of((V) result.get(1));
+	}
+
 	@Override
 	public void update(K key, V value) {
 		this.capacityChecker.checkForUpdate(key);
-		this.setter.accept(key, value);
+		this.setter.apply(this.connection.sync()).accept(key, value);
 	}
 
 	@Override
@@ -89,8 +227,183 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 
 	@Override
 	public void delete(Object keyObject) {
+		this.deleteKeys(this.toRedisKeys(List.of(keyObject)));
+	}
+
+	@Override
+	public List<K> createAll(List<V> values) {
+		if (this.keyGenerator == null) {
+			throw new UnsupportedOperationException("Create operation without keyGenerator is not supported.");
+		}
+		if (this.capacity != NO_MAX_SIZE && this.capacity < this.entries() + values.size()) {
+			throw new OutOfSpaceException();
+		}
+		Map<K, V> entries = new HashMap<>();
+		List<K> result = new ArrayList<>(values.size());
+		for (V value : values) {
+			K key = this.keyGenerator.get();
+			entries.put(key, value);
+			result.add(key);
+		}
+		if (!entries.isEmpty()) {
+			this.batchSetter.accept(entries);
+		}
+		return result;
+	}
+
+	@Override
+	public Map<K, V> readAll(Collection<K> keys) {
+		Map<K, V> result = new HashMap<>();
+		if (keys.isEmpty()) {
+			return result;
+		}
+		List<KeyValue<K, V>> keyValues = this.connection.sync().mget(this.toRedisKeys(keys));
+		for (KeyValue<K, V> keyValue : keyValues) {
+			if (keyValue.hasValue()) {
+				result.put(keyValue.getKey(), keyValue.getValue());
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void updateAll(Map<K, V> entries) {
+		if (entries.isEmpty()) {
+			return;
+		}
+		if (this.capacity != NO_MAX_SIZE) {
+			long existing = this.connection.sync().exists(this.toRedisKeys(entries.keySet()));
+			if (this.capacity < this.entries() + entries.size() - existing) {
+				throw new OutOfSpaceException();
+			}
+		}
+		this.batchSetter.accept(entries);
+	}
+
+	@Override
+	public void deleteAll(Collection<?> keys) {
+		if (keys.isEmpty()) {
+			return;
+		}
+		this.deleteKeys(this.toRedisKeys(keys));
+	}
+
+	/**
+	 * Sets the value, or reads the present value, by one lua script, so the returned value
+	 * is the one the key had when the value was not set
+	 */
+	@Override
+	public V putIfAbsent(K key, V value) {
+		this.capacityChecker.checkForUpdate(key);
+		K[] keys = this.isCounted() ? this.toCountedKeys(List.of(key)) : this.toRedisKeys(List.of(key));
+		return this.connection.sync().eval(this.absentScript, ScriptOutputType.VALUE, keys, value);
+	}
+
+	/**
+	 * Compares and sets the value by a lua script
+	 */
+	@Override
+	public boolean replace(K key, V expected, V value) {
+		if (expected == null) {
+			return false;
+		}
+		Long replaced = this.connection.sync().eval(this.replaceScript, ScriptOutputType.INTEGER, this.toRedisKeys(List.of(key)), expected, value);
+		return replaced != null && replaced == 1L;
+	}
+
+	/**
+	 * Compares and deletes the value by a lua script
+	 */
+	@Override
+	public boolean delete(Object keyObject, Object expected) {
+		if (expected == null) {
+			return false;
+		}
+		Long deleted;
+		if (this.isCounted()) {
+			deleted = this.connection.sync().eval(COUNTED_COMPARE_DELETE_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of(keyObject)), (V) expected);
+		} else {
+			deleted = this.connection.sync().eval(DELETE_SCRIPT, ScriptOutputType.INTEGER, this.toRedisKeys(List.of(keyObject)), (V) expected);
+		}
+		return deleted != null && deleted == 1L;
+	}
+
+	/**
+	 * Computes the value optimistically: the key is watched while the new value is computed,
+	 * and the computation is repeated if the key has been modified before the transaction is executed.
+	 * The transaction is issued on a dedicated connection, so the commands of other threads are not part of it.
+	 */
+	@Override
+	public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+		return this.connection.dedicated(commands -> {
+			while (true) {
+				commands.watch(key);
+				V oldValue = commands.get(key);
+				V newValue = remappingFunction.apply(key, oldValue);
+				if (oldValue == null && newValue != null && this.isFull()) {
+					throw new OutOfSpaceException();
+				}
+				if (oldValue == null && newValue == null) {
+					commands.unwatch();
+					return null;
+				}
+				commands.multi();
+				if (newValue == null) {
+					this.deleteKeys(commands, this.toRedisKeys(List.of(key)));
+				} else {
+					this.setter.apply(commands).accept(key, newValue);
+				}
+				TransactionResult result = commands.exec();
+				if (!result.wasDiscarded()) {
+					return newValue;
+				}
+			}
+		});
+	}
+
+	@Override
+	public CompletableFuture<V> readAsync(Object keyObject) {
 		K key = this.keyConverter.apply(keyObject);
-		this.connection.sync().del(key);
+		return this.connection.async().get(key).toCompletableFuture();
+	}
+
+	@Override
+	public CompletableFuture<Void> updateAsync(K key, V value) {
+		if (this.capacity == NO_MAX_SIZE) {
+			return this.asyncSetter.apply(key, value).thenAccept(result -> {
+			}).toCompletableFuture();
+		}
+		RedisAsyncCommands<K, V> commands = this.connection.async();
+		return commands.exists(key).thenCompose(exists -> {
+			if (0 < exists) {
+				return CompletableFuture.completedFuture(exists);
+			}
+			return this.entriesAsync().thenApply(size -> {
+				if (this.capacity <= size) {
+					throw new OutOfSpaceException();
+				}
+				return size;
+			});
+		}).thenCompose(checked -> this.asyncSetter.apply(key, value)).thenAccept(result -> {
+		}).toCompletableFuture();
+	}
+
+	@Override
+	public CompletableFuture<Void> deleteAsync(Object keyObject) {
+		RedisFuture<Long> result;
+		if (this.isCounted()) {
+			result = this.connection.async().eval(COUNTED_DELETE_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of(keyObject)));
+		} else {
+			result = this.connection.async().del(this.toRedisKeys(List.of(keyObject)));
+		}
+		return result.thenAccept(deleted -> {
+		}).toCompletableFuture();
+	}
+
+	@Override
+	public CompletableFuture<Boolean> hasAsync(Object keyObject) {
+		K key = this.keyConverter.apply(keyObject);
+		return this.connection.async().exists(key).thenApply(exists -> exists == 1).toCompletableFuture();
 	}
 
 	@Override
@@ -99,17 +412,48 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 			throw new KeyNotFoundException();
 		}
 		V value1 = this.read(key1);
-		this.connection.sync().multi();
-		this.connection.sync().del(key1);
-		this.connection.sync().rename(key2, key1);
-		this.connection.sync().set(key2, value1);
-		this.connection.sync().exec();
-
+		this.connection.dedicated(commands -> {
+			commands.multi();
+			commands.del(key1);
+			commands.rename(key2, key1);
+			commands.set(key2, value1);
+			return commands.exec();
+		});
 	}
 
+	/**
+	 * Flushes the database without a namespace, and unlinks the scanned keys of a namespace
+	 */
 	@Override
 	public void clear() {
-		this.connection.async().flushall();
+		if (this.keyPattern == null) {
+			this.connection.async().flushall();
+			return;
+		}
+		KeyScanCursor<K> cursor = null;
+		do {
+			cursor = this.scan(cursor, KEY_SCAN_LIMIT);
+			List<K> keys = cursor.getKeys();
+			if (keys.isEmpty()) {
+				continue;
+			}
+			if (this.isCounted()) {
+				this.connection.sync().eval(COUNTED_UNLINK_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(keys));
+			} else {
+				this.connection.sync().unlink((K[]) keys.toArray());
+			}
+		} while (!cursor.isFinished());
+	}
+
+	/**
+	 * Closes the connections of the storage, and releases the Redis client it shares with the other storages.
+	 * The storage is owned by the one who created it, typically the caller of
+	 * {@link com.wobserver.vcollections.builders.RedisStorageBuilder#build()}: the collections and the storages
+	 * built on top of it do not close it, so it must be closed once the collections using it are not used anymore.
+	 */
+	@Override
+	public void close() {
+		this.connection.stop();
 	}
 
 	@Override
@@ -117,6 +461,19 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 		return new RedisIterator();
 	}
 
+	/**
+	 * Lists the keys by SCAN without reading the values
+	 */
+	@Override
+	public Iterator<K> keyIterator() {
+		return new RedisKeyIterator();
+	}
+
+	@Override
+	public IStorageCursor<K, V> cursor() {
+		return new RedisCursor();
+	}
+
 	@Override
 	public void setKeyGenerator(IKeyGenerator<K> value) {
 		this.keyGenerator = value;
@@ -127,38 +484,258 @@ public class RedisStorage<K, V> implements IStorage<K, V>, IAccessKeyGenerator<K
 		return this.keyGenerator;
 	}
 
+	private K[] toRedisKeys(Collection<?> keys) {
+		return (K[]) keys.stream().map(this.keyConverter).toArray();
+	}
+
+	/**
+	 * @return the counter of the namespace followed by the keys, as the counting scripts get them
+	 */
+	private K[] toCountedKeys(Collection<?> keys) {
+		Object[] result = new Object[keys.size() + 1];
+		result[0] = this.counterKey;
+		int i = 1;
+		for (Object key : keys) {
+			result[i++] = this.keyConverter.apply(key);
+		}
+		return (K[]) result;
+	}
+
+	private boolean isCounted() {
+		return this.counterKey != null;
+	}
+
+	private void deleteKeys(K[] keys) {
+		this.deleteKeys(this.connection.sync(), keys);
+	}
+
+	private void deleteKeys(RedisCommands<K, V> commands, K[] keys) {
+		if (this.isCounted()) {
+			// the keys are given to the script in batches, as lua unpacks a limited number of values
+			for (int from = 0; from < keys.length; from += KEY_SCAN_LIMIT) {
+				K[] batch = this.toCountedKeys(Arrays.asList(keys).subList(from, Math.min(from + KEY_SCAN_LIMIT, keys.length)));
+				commands.eval(COUNTED_DELETE_SCRIPT, ScriptOutputType.INTEGER, batch);
+			}
+		} else {
+			commands.del(keys);
+		}
+	}
+
+	private CompletionStage<Long> entriesAsync() {
+		if (this.keyPattern == null) {
+			return this.connection.async().dbsize();
+		}
+		if (this.isCounted()) {
+			return this.connection.async().eval(COUNT_SCRIPT, ScriptOutputType.INTEGER, this.toCountedKeys(List.of()));
+		}
+		return this.countAsync(null, 0L);
+	}
+
+	/**
+	 * Counts the scanned keys of the namespace page by page, without blocking the caller
+	 */
+	private CompletionStage<Long> countAsync(KeyScanCursor<K> cursor, long counted) {
+		ScanArgs scanArgs = this.scanArgs(KEY_SCAN_LIMIT);
+		RedisAsyncCommands<K, V> commands = this.connection.async();
+		RedisFuture<KeyScanCursor<K>> scanned = cursor == null ? commands.scan(scanArgs) : commands.scan(cursor, scanArgs);
+		return scanned.thenCompose(next -> {
+			long result = counted + next.getKeys().size();
+			if (next.isFinished()) {
+				return CompletableFuture.completedFuture(result);
+			}
+			return this.countAsync(next, result);
+		});
+	}
+
+	private ScanArgs scanArgs(int limit) {
+		ScanArgs result = ScanArgs.Builder.limit(limit);
+		if (this.keyPattern != null) {
+			result.match(this.keyPattern);
+		}
+		return result;
+	}
+
+	/**
+	 * Scans the next page of the keys, only the keys of the namespace if there is one
+	 *
+	 * @param cursor the cursor of the previous page, or null to scan the first page
+	 * @param limit  the number of keys scanned in one page
+	 * @return the cursor of the scanned page
+	 */
+	private KeyScanCursor<K> scan(KeyScanCursor<K> cursor, int limit) {
+		ScanArgs scanArgs = this.scanArgs(limit);
+		if (cursor == null) {
+			return this.connection.sync().scan(scanArgs);
+		}
+		return this.connection.sync().scan(cursor, scanArgs);
+	}
+
+	private static String toGlobLiteral(String value) {
+		return value.replaceAll("([\\\\*?\\[\\]])", "\\\\$1");
+	}
+
+	/**
+	 * Fetches the pages by a SCAN, and the values of the scanned keys by one MGET
+	 */
+	private class RedisCursor implements IStorageCursor<K, V> {
+		private KeyScanCursor<K> scanCursor = null;
+		private final Queue<K> keys = new LinkedList<>();
+
+		@Override
+		public List<Map.Entry<K, V>> fetch(int maxEntries) {
+			if (this.keys.isEmpty() && !this.isScanFinished()) {
+				this.scanCursor = RedisStorage.this.scan(this.scanCursor, maxEntries);
+				this.keys.addAll(this.scanCursor.getKeys());
+			}
+			List<K> pageKeys = new ArrayList<>();
+			while (pageKeys.size() < maxEntries && !this.keys.isEmpty()) {
+				pageKeys.add(this.keys.poll());
+			}
+			List<Map.Entry<K, V>> result = new ArrayList<>(pageKeys.size());
+			if (pageKeys.isEmpty()) {
+				return result;
+			}
+			List<KeyValue<K, V>> keyValues = RedisStorage.this.connection.sync().mget((K[]) pageKeys.toArray());
+			for (KeyValue<K, V> keyValue : keyValues) {
+				// MGET decodes a stored null to an empty value, so the entry is emitted with null
+				result.add(new AbstractMap.SimpleEntry<>(keyValue.getKey(), keyValue.getValueOrElse(null)));
+			}
+			return result;
+		}
+
+		@Override
+		public boolean isFinished() {
+			return this.keys.isEmpty() && this.isScanFinished();
+		}
+
+		private boolean isScanFinished() {
+			return this.scanCursor != null && this.scanCursor.isFinished();
+		}
+	}
+
+	private class RedisKeyIterator implements Iterator<K> {
+		private KeyScanCursor<K> cursor = null;
+		private final Queue<K> keys = new LinkedList<>();
+		private K lastKey = null;
+
+		@Override
+		public boolean hasNext() {
+			while (this.keys.isEmpty() && (this.cursor == null || !this.cursor.isFinished())) {
+				this.cursor = RedisStorage.this.scan(this.cursor, KEY_SCAN_LIMIT);
+				this.keys.addAll(this.cursor.getKeys());
+			}
+			return !this.keys.isEmpty();
+		}
+
+		@Override
+		public K next() {
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			this.lastKey = this.keys.poll();
+			return this.lastKey;
+		}
+
+		@Override
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException();
+			}
+			RedisStorage.this.deleteKeys(RedisStorage.this.toRedisKeys(List.of(this.lastKey)));
+			this.lastKey = null;
+		}
+	}
+
+	/**
+	 * Scans the keys page by page, and reads the values of a page by one MGET.
+	 * <p>
+	 * The next page is fetched asynchronously while the current one is consumed.
+	 * The size of the pages follows the observed latency: it is doubled while a page is fetched
+	 * faster than the target latency, and halved when it is slower.
+	 */
 	private class RedisIterator implements Iterator<Map.Entry<K, V>> {
-		private KeyScanCursor<K> cursor;
-		private Queue<K> keys;
+		private final Queue<Map.Entry<K, V>> entries = new LinkedList<>();
+		private CompletableFuture<Page> nextPage;
+		private int pageSize = KEY_SCAN_LIMIT;
+		private K lastKey = null;
 
 		RedisIterator() {
-			this.keys = null;
-			this.cursor = connection.sync().scan(ScanArgs.Builder.limit(50));
-			this.keys = new LinkedList<>(cursor.getKeys());
+			this.nextPage = this.fetch(null);
 		}
 
-		public final boolean hasNext() {
-			return !this.keys.isEmpty() || !this.cursor.isFinished();
+		@Override
+		public boolean hasNext() {
+			while (this.entries.isEmpty() && this.nextPage != null) {
+				Page page = this.nextPage.join();
+				this.adapt(page.elapsedInNs);
+				if (page.cursor.isFinished()) {
+					this.nextPage = null;
+				} else {
+					this.nextPage = this.fetch(page.cursor);
+				}
+				this.entries.addAll(page.entries);
+			}
+			return !this.entries.isEmpty();
 		}
 
 		@Override
 		public Map.Entry<K, V> next() {
-			if (this.keys.isEmpty()) {
-				this.cursor = RedisStorage.this.connection.sync().scan(cursor);
+			if (!this.hasNext()) {
+				throw new NoSuchElementException();
 			}
-			K key = this.keys.poll();
-			V value = RedisStorage.this.read(key);
-			return new AbstractMap.SimpleEntry<>(key, value);
+			Map.Entry<K, V> result = this.entries.poll();
+			this.lastKey = result.getKey();
+			return result;
 		}
 
 		@Override
-		public final void remove() {
+		public void remove() {
+			if (this.lastKey == null) {
+				throw new IllegalStateException();
+			}
+			RedisStorage.this.deleteKeys(RedisStorage.this.toRedisKeys(List.of(this.lastKey)));
+			this.lastKey = null;
+		}
 
+		private CompletableFuture<Page> fetch(KeyScanCursor<K> cursor) {
+			long started = System.nanoTime();
+			RedisAsyncCommands<K, V> commands = RedisStorage.this.connection.async();
+			ScanArgs scanArgs = RedisStorage.this.scanArgs(this.pageSize);
+			RedisFuture<KeyScanCursor<K>> scanned = cursor == null ? commands.scan(scanArgs) : commands.scan(cursor, scanArgs);
+			return scanned.thenCompose(scanCursor -> {
+				List<K> keys = scanCursor.getKeys();
+				if (keys.isEmpty()) {
+					return CompletableFuture.completedFuture(new Page(scanCursor, List.of(), System.nanoTime() - started));
+				}
+				return commands.mget((K[]) keys.toArray()).thenApply(keyValues -> {
+					List<Map.Entry<K, V>> result = new ArrayList<>(keyValues.size());
+					for (KeyValue<K, V> keyValue : keyValues) {
+						// MGET decodes a stored null to an empty value, so the entry is emitted with null
+						result.add(new AbstractMap.SimpleEntry<>(keyValue.getKey(), keyValue.getValueOrElse(null)));
+					}
+					return new Page(scanCursor, result, System.nanoTime() - started);
+				});
+			}).toCompletableFuture();
 		}
 
-		@Override
-		public void forEachRemaining(Consumer<? super Map.Entry<K, V>> action) {
+		private void adapt(long elapsedInNs) {
+			if (elapsedInNs < TARGET_PAGE_LATENCY_IN_NS / 2) {
+				this.pageSize = Math.min(MAX_PAGE_SIZE, this.pageSize * 2);
+			} else if (TARGET_PAGE_LATENCY_IN_NS < elapsedInNs) {
+				this.pageSize = Math.max(MIN_PAGE_SIZE, this.pageSize / 2);
+			}
+		}
+	}
+
+	private class Page {
+		private final KeyScanCursor<K> cursor;
+		private final List<Map.Entry<K, V>> entries;
+		private final long elapsedInNs;
 
+		Page(KeyScanCursor<K> cursor, List<Map.Entry<K, V>> entries, long elapsedInNs) {
+			this.cursor = cursor;
+			this.entries = entries;
+			this.elapsedInNs = elapsedInNs;
 		}
 	}
 }
@@ -0,0 +1,123 @@
+package com.wobserver.vcollections.storages;
+
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.ToByteBufEncoder;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link RedisCodec} for the storages keeping all of their entries in one Redis data structure (hash, list, set).
+ * <p>
+ * The key {@link #NAME} is encoded as the name of the data structure, any other key is encoded by the field serializer
+ * (the fields of a hash), and the values are encoded by the member serializer (the values of a hash,
+ * the elements of a list or the members of a set).
+ * <p>
+ * The scripts get the name as their only key, and the fields and the members encoded to bytes as their arguments,
+ * as a field is not a key of Redis.
+ *
+ * @param <F> the type of the fields
+ * @param <M> the type of the members
+ */
+class RedisStructureCodec<F, M> implements RedisCodec<Object, M>, ToByteBufEncoder<Object, M> {
+
+	/**
+	 * The key standing for the name of the data structure
+	 */
+	static final Object NAME = new Object();
+
+	private static final int ESTIMATED_SIZE = 64;
+
+	private final byte[] name;
+	private final ISerializer<F> fieldSerializer;
+	private final ISerializer<M> memberSerializer;
+
+	RedisStructureCodec(byte[] name, ISerializer<F> fieldSerializer, ISerializer<M> memberSerializer) {
+		this.name = name;
+		this.fieldSerializer = fieldSerializer;
+		this.memberSerializer = memberSerializer;
+	}
+
+	@Override
+	public Object decodeKey(ByteBuffer byteBuffer) {
+		return this.fieldSerializer.deserialize(byteBuffer);
+	}
+
+	@Override
+	public M decodeValue(ByteBuffer byteBuffer) {
+		return this.memberSerializer.deserialize(byteBuffer);
+	}
+
+	@Override
+	public ByteBuffer encodeKey(Object key) {
+		if (key == NAME) {
+			return ByteBuffer.wrap(this.name);
+		}
+		return this.fieldSerializer.serialize((F) key);
+	}
+
+	@Override
+	public ByteBuffer encodeValue(M value) {
+		return this.memberSerializer.serialize(value);
+	}
+
+	@Override
+	public void encodeKey(Object key, ByteBuf target) {
+		if (key == NAME) {
+			target.writeBytes(this.name);
+			return;
+		}
+		try {
+			this.fieldSerializer.serialize((F) key, new ByteBufOutputStream(target));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	@Override
+	public void encodeValue(M value, ByteBuf target) {
+		try {
+			this.memberSerializer.serialize(value, new ByteBufOutputStream(target));
+		} catch (IOException e) {
+			throw new RuntimeException(e.getMessage());
+		}
+	}
+
+	/**
+	 * @return the name of the data structure
+	 */
+	byte[] getName() {
+		return this.name;
+	}
+
+	/**
+	 * @param field the field given to a script as an argument
+	 * @return the encoded field
+	 */
+	byte[] encodeField(Object field) {
+		return toBytes(this.fieldSerializer.serialize((F) field));
+	}
+
+	/**
+	 * @param member the member given to a script as an argument
+	 * @return the encoded member
+	 */
+	byte[] encodeMember(M member) {
+		return toBytes(this.memberSerializer.serialize(member));
+	}
+
+	/**
+	 * The target buffer grows if the serialized form is larger, so it is only an initial capacity
+	 */
+	@Override
+	public int estimateSize(Object keyOrValue) {
+		return ESTIMATED_SIZE;
+	}
+
+	private static byte[] toBytes(ByteBuffer buffer) {
+		byte[] result = new byte[buffer.remaining()];
+		buffer.get(result);
+		return result;
+	}
+}
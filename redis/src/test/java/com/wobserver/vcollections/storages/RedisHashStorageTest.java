@@ -0,0 +1,99 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.wobserver.vcollections.builders.RedisMapperBuilder;
+import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
+import io.lettuce.core.RedisURI;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+class RedisHashStorageTest implements StorageTest<String, String, RedisHashStorage<String, String>> {
+
+	private static final int redisPort = 6368;
+
+	private RedisServer redisServer;
+
+	@BeforeEach
+	public void startRedis() throws IOException {
+		redisServer = new RedisServer(redisPort);
+		redisServer.start();
+	}
+
+	@AfterEach
+	public void stopRedis() {
+		redisServer.stop();
+	}
+
+	@Override
+	public String toKey(String key) {
+		if (key == null) {
+			return "null";
+		}
+		return key;
+	}
+
+	@Override
+	public String toValue(String value) {
+		if (value == null) {
+			return "null";
+		}
+		return value;
+	}
+
+	@Override
+	public IStorage<String, String> makeStorage(long maxSize, Map.Entry<String, String>... entries) {
+		RedisURI redisURI = RedisURI.builder()
+				.withHost("localhost")
+				.withPort(redisPort)
+				.withClientName("test")
+				.build();
+		RedisMapper<String, String> mapper = new RedisMapperBuilder()
+				.withKeyType(String.class.getName())
+				.withValueType(String.class.getName())
+				.build();
+		RedisHashStorage<String, String> result = new RedisHashStorage<>(redisURI, mapper, "test-hash", maxSize, Object::toString);
+		result.clear();
+		if (entries != null && 0 < entries.length) {
+			Map<String, String> initial = new HashMap<>();
+			for (Map.Entry<String, String> entry : entries) {
+				initial.put(toKey(entry.getKey()), toValue(entry.getValue()));
+			}
+			result.updateAll(initial);
+		}
+		result.setKeyGenerator(new KeyGeneratorFactory().make(String.class));
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: a {@link RedisHashStorage} having a field associated with null
+	 *
+	 * <p>When</p>: we look up the field and an absent field
+	 *
+	 * <p>Then</p> the field associated with null is present
+	 * <b>and</b> the absent field is not present
+	 */
+	@Test
+	public void shouldLookupNullValue() {
+		// Given
+		IStorage<String, String> storage = this.makeStorage(IStorage.NO_MAX_SIZE);
+		storage.update("key", null);
+
+		// When
+		Lookup<String> present = storage.lookup("key");
+		Lookup<String> absent = storage.lookup("absent");
+
+		// Then
+		assertTrue(present.isPresent());
+		assertNull(present.get());
+		assertFalse(absent.isPresent());
+	}
+}
+
@@ -0,0 +1,183 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wobserver.vcollections.VArrayList;
+import com.wobserver.vcollections.builders.RedisMapperBuilder;
+import io.lettuce.core.RedisURI;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+class RedisListStorageTest {
+
+	private static final int redisPort = 6369;
+
+	private RedisServer redisServer;
+
+	@BeforeEach
+	public void startRedis() throws IOException {
+		redisServer = new RedisServer(redisPort);
+		redisServer.start();
+	}
+
+	@AfterEach
+	public void stopRedis() {
+		redisServer.stop();
+	}
+
+	private RedisListStorage<String> makeStorage() {
+		RedisURI redisURI = RedisURI.builder()
+				.withHost("localhost")
+				.withPort(redisPort)
+				.build();
+		RedisMapper<Long, String> mapper = new RedisMapperBuilder()
+				.withKeyType(Long.class.getName())
+				.withValueType(String.class.getName())
+				.build();
+		return new RedisListStorage<>(redisURI, mapper, "test-list", IStorage.NO_MAX_SIZE);
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VArrayList} backed by a {@link RedisListStorage}
+	 *
+	 * <p>When</p>: we add and remove items at both ends and in the middle
+	 *
+	 * <p>Then</p> the list holds the items in order
+	 */
+	@Test
+	public void shouldBackArrayList() {
+		// Given
+		RedisListStorage<String> storage = this.makeStorage();
+		List<String> list = new VArrayList<>(storage, Long.class);
+
+		// When
+		list.addAll(List.of("b", "c", "d"));
+		list.add(0, "a");
+		list.add(2, "x");
+		list.remove(2);
+		list.add("e");
+		String first = list.remove(0);
+		String last = list.remove(3);
+
+		// Then
+		assertEquals("a", first);
+		assertEquals("e", last);
+		assertEquals(List.of("b", "c", "d"), list.stream().collect(Collectors.toList()));
+		assertEquals(3L, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: a {@link RedisListStorage} with more values than a page of LRANGE
+	 *
+	 * <p>When</p>: we iterate the values, and remove every second one
+	 *
+	 * <p>Then</p> the values are iterated in order
+	 * <b>and</b> the remaining values are shifted
+	 */
+	@Test
+	public void shouldIterateByPages() {
+		// Given
+		RedisListStorage<String> storage = this.makeStorage();
+		List<String> values = new ArrayList<>();
+		for (int i = 0; i < 2500; ++i) {
+			values.add("value" + i);
+		}
+		storage.createAll(values);
+
+		// When
+		List<String> iterated = new ArrayList<>();
+		for (var it = storage.valueIterator(); it.hasNext(); ) {
+			String value = it.next();
+			iterated.add(value);
+			if (iterated.size() % 2 == 0) {
+				it.remove();
+			}
+		}
+
+		// Then
+		assertEquals(values, iterated);
+		assertEquals(1250L, storage.entries());
+		assertEquals("value2", storage.get(1L));
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VArrayList} backed by a {@link RedisListStorage}
+	 *
+	 * <p>When</p>: we insert more items before the last item than the list has after the insertion point,
+	 * and insert values after the end of the list
+	 *
+	 * <p>Then</p> the items are inserted in order
+	 * <b>and</b> the invalid insertion is rejected without modifying the list
+	 */
+	@Test
+	public void shouldInsertWithoutEmptySlots() {
+		// Given
+		RedisListStorage<String> storage = this.makeStorage();
+		List<String> list = new VArrayList<>(storage, Long.class);
+		list.addAll(List.of("a", "b", "c"));
+
+		// When
+		list.addAll(2, List.of("x", "y", "z"));
+		assertThrows(IndexOutOfBoundsException.class, () -> storage.insertAll(10L, List.of("q")));
+
+		// Then
+		assertEquals(List.of("a", "b", "x", "y", "z", "c"), list.stream().collect(Collectors.toList()));
+		assertEquals(6L, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VArrayList} backed by a {@link RedisListStorage}
+	 *
+	 * <p>When</p>: we remove the items matching a filter, including adjacent ones
+	 *
+	 * <p>Then</p> every matching item is removed
+	 * <b>and</b> the removal is reported
+	 */
+	@Test
+	public void shouldRemoveIf() {
+		// Given
+		RedisListStorage<String> storage = this.makeStorage();
+		List<String> list = new VArrayList<>(storage, Long.class);
+		list.addAll(List.of("a", "b", "c", "a", "b"));
+
+		// When
+		boolean removed = list.removeIf(value -> value.compareTo("c") < 0);
+
+		// Then
+		assertTrue(removed);
+		assertEquals(List.of("c"), list.stream().collect(Collectors.toList()));
+		assertEquals(1L, storage.entries());
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VArrayList} backed by a {@link RedisListStorage}
+	 *
+	 * <p>When</p>: we retain the items of a collection, and then retain all of the remaining items
+	 *
+	 * <p>Then</p> every other item is removed
+	 * <b>and</b> only the first retain reports a modification
+	 */
+	@Test
+	public void shouldRetainAll() {
+		// Given
+		RedisListStorage<String> storage = this.makeStorage();
+		List<String> list = new VArrayList<>(storage, Long.class);
+		list.addAll(List.of("a", "b", "c", "d", "b"));
+
+		// When
+		boolean changed = list.retainAll(List.of("b", "d"));
+		boolean unchanged = list.retainAll(List.of("b", "d"));
+
+		// Then
+		assertTrue(changed);
+		assertFalse(unchanged);
+		assertEquals(List.of("b", "d", "b"), list.stream().collect(Collectors.toList()));
+		assertEquals(3L, storage.entries());
+	}
+}
@@ -0,0 +1,103 @@
+package com.wobserver.vcollections.storages;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wobserver.vcollections.VSet;
+import com.wobserver.vcollections.builders.RedisMapperBuilder;
+import io.lettuce.core.RedisURI;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import redis.embedded.RedisServer;
+
+class RedisSetStorageTest {
+
+	private static final int redisPort = 6370;
+
+	private RedisServer redisServer;
+
+	@BeforeEach
+	public void startRedis() throws IOException {
+		redisServer = new RedisServer(redisPort);
+		redisServer.start();
+	}
+
+	@AfterEach
+	public void stopRedis() {
+		redisServer.stop();
+	}
+
+	private RedisSetStorage<String> makeStorage(String name, long capacity) {
+		RedisURI redisURI = RedisURI.builder()
+				.withHost("localhost")
+				.withPort(redisPort)
+				.build();
+		RedisMapper<String, Integer> mapper = new RedisMapperBuilder()
+				.withKeyType(String.class.getName())
+				.withValueType(Integer.class.getName())
+				.build();
+		RedisSetStorage<String> result = new RedisSetStorage<>(redisURI, mapper, name, capacity, Object::toString);
+		result.clear();
+		return result;
+	}
+
+	/**
+	 * <p>Given</p>: two {@link VSet}s backed by {@link RedisSetStorage}s on the same Redis
+	 *
+	 * <p>When</p>: we add, retain and remove the members of one set to the other
+	 *
+	 * <p>Then</p> the sets are combined
+	 * <b>and</b> the other set is not modified
+	 */
+	@Test
+	public void shouldCombineSets() {
+		// Given
+		Set<String> set = new VSet<>(this.makeStorage("test-set", IStorage.NO_MAX_SIZE));
+		Set<String> other = new VSet<>(this.makeStorage("test-other", IStorage.NO_MAX_SIZE));
+		set.addAll(List.of("a", "b", "c"));
+		other.addAll(List.of("c", "d"));
+
+		// When
+		boolean added = set.addAll(other);
+		boolean addedAgain = set.addAll(other);
+		boolean removed = set.removeAll(Set.of("a"));
+		boolean retained = set.retainAll(other);
+
+		// Then
+		assertTrue(added);
+		assertFalse(addedAgain);
+		assertTrue(removed);
+		assertTrue(retained);
+		assertEquals(Set.of("c", "d"), new HashSet<>(set));
+		assertTrue(set.containsAll(List.of("c", "d")));
+		assertFalse(set.containsAll(List.of("c", "b")));
+		assertEquals(Set.of("c", "d"), new HashSet<>(other));
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VSet} backed by a {@link RedisSetStorage} with a capacity of 2
+	 *
+	 * <p>When</p>: we add the members of a set, which would exceed the capacity
+	 *
+	 * <p>Then</p> {@link OutOfSpaceException} is thrown
+	 * <b>and</b> the set is not modified
+	 */
+	@Test
+	public void shouldNotExceedCapacityByUnion() {
+		// Given
+		Set<String> set = new VSet<>(this.makeStorage("test-set", 2L));
+		Set<String> other = new VSet<>(this.makeStorage("test-other", IStorage.NO_MAX_SIZE));
+		set.add("a");
+		other.addAll(List.of("b", "c"));
+
+		// When
+		assertThrows(OutOfSpaceException.class, () -> set.addAll(other));
+
+		// Then
+		assertEquals(Set.of("a"), new HashSet<>(set));
+	}
+}
@@ -1,5 +1,11 @@
 package com.wobserver.vcollections.storages;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.wobserver.vcollections.VMap;
 import com.wobserver.vcollections.builders.RedisMapperBuilder;
 import com.wobserver.vcollections.keygenerators.KeyGeneratorFactory;
 import io.lettuce.core.KeyScanCursor;
@@ -9,11 +15,19 @@ import io.lettuce.core.ScanArgs;
 import io.lettuce.core.api.StatefulRedisConnection;
 import io.lettuce.core.api.sync.RedisCommands;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiConsumer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
 import redis.embedded.RedisServer;
 
 class RedisStorageTest implements StorageTest<String, String, RedisStorage<String, String>> {
@@ -110,4 +124,189 @@ class RedisStorageTest implements StorageTest<String, String, RedisStorage<Strin
 		return result;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>Given</p>: a {@link RedisStorage} with expiration
+	 *
+	 * <p>When</p>: we update more entries than the size of a pipeline
+	 *
+	 * <p>Then</p> all entries are stored
+	 * <b>and</b> all entries are iterated
+	 */
+	@Test
+	public void shouldPipelineBulkUpdates() {
+		// Given
+		IStorage<String, String> storage = this.makeStorage(IStorage.NO_MAX_SIZE, 60);
+		Map<String, String> entries = new HashMap<>();
+		for (int i = 0; i < 2 * RedisStorage.DEFAULT_PIPELINE_SIZE + 1; ++i) {
+			entries.put("key" + i, "value" + i);
+		}
+
+		// When
+		storage.updateAll(entries);
+
+		// Then
+		assertEquals(entries.size(), storage.entries());
+		Map<String, String> iterated = new HashMap<>();
+		for (Iterator<Map.Entry<String, String>> it = storage.iterator(); it.hasNext(); ) {
+			Map.Entry<String, String> entry = it.next();
+			iterated.put(entry.getKey(), entry.getValue());
+		}
+		assertEquals(entries, iterated);
+	}
+
+	/**
+	 * <p>Given</p>: two {@link RedisStorage}s in different namespaces of the same database
+	 *
+	 * <p>When</p>: we update entries in both of them, delete one, and clear the first storage
+	 *
+	 * <p>Then</p> the entries are counted per namespace
+	 * <b>and</b> the entries of the second storage are kept after the first is cleared
+	 */
+	@Test
+	public void shouldSeparateNamespaces() {
+		// Given
+		RedisURI redisURI = RedisURI.builder()
+				.withHost("localhost")
+				.withPort(redisPort)
+				.build();
+		RedisMapper<String, String> mapper = new RedisMapperBuilder()
+				.withKeyType(String.class.getName())
+				.withValueType(String.class.getName())
+				.build();
+		RedisStorage<String, String> first = new RedisStorage<>(redisURI, mapper, 0, IStorage.NO_MAX_SIZE, Object::toString, RedisStorage.DEFAULT_PIPELINE_SIZE, "first");
+		RedisStorage<String, String> second = new RedisStorage<>(redisURI, mapper, 0, IStorage.NO_MAX_SIZE, Object::toString, RedisStorage.DEFAULT_PIPELINE_SIZE, "second");
+
+		// When
+		first.updateAll(Map.of("key1", "value1", "key2", "value2"));
+		first.update("key1", "value3");
+		second.update("key1", "value4");
+		second.putIfAbsent("key2", "value5");
+		second.delete("key2");
+
+		// Then
+		assertEquals(2L, first.entries());
+		assertEquals(1L, second.entries());
+		assertEquals("value3", first.read("key1"));
+		assertEquals("value4", second.read("key1"));
+
+		first.clear();
+		assertEquals(0L, first.entries());
+		assertFalse(first.keyIterator().hasNext());
+		assertEquals(1L, second.entries());
+		assertEquals("value4", second.iterator().next().getValue());
+	}
+
+	/**
+	 * <p>Given</p>: two {@link RedisStorage}s of the same Redis
+	 *
+	 * <p>When</p>: several threads compute the same entry through both storages at once,
+	 * and the first storage is closed
+	 *
+	 * <p>Then</p> every computation is applied
+	 * <b>and</b> the second storage can be used after the first is closed
+	 */
+	@Test
+	public void shouldComputeConcurrentlyBySharedClient() throws InterruptedException, ExecutionException {
+		// Given
+		RedisURI redisURI = RedisURI.builder()
+				.withHost("localhost")
+				.withPort(redisPort)
+				.build();
+		RedisMapper<String, String> mapper = new RedisMapperBuilder()
+				.withKeyType(String.class.getName())
+				.withValueType(String.class.getName())
+				.build();
+		RedisStorage<String, String> first = new RedisStorage<>(redisURI, mapper, 0, IStorage.NO_MAX_SIZE, Object::toString);
+		RedisStorage<String, String> second = new RedisStorage<>(redisURI, mapper, 0, IStorage.NO_MAX_SIZE, Object::toString);
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Future<?>> futures = new ArrayList<>();
+
+		// When
+		for (int i = 0; i < 200; ++i) {
+			RedisStorage<String, String> storage = i % 2 == 0 ? first : second;
+			futures.add(executor.submit(() -> storage.compute("counter", (key, value) -> value == null ? "1" : String.valueOf(Integer.parseInt(value) + 1))));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+		first.close();
+
+		// Then
+		assertEquals("200", second.read("counter"));
+		second.update("key", "value");
+		assertEquals(2L, second.entries());
+		second.close();
+	}
+
+	/**
+	 * <p>Given</p>: a {@link VMap} backed by a {@link RedisStorage} having a key associated with null
+	 *
+	 * <p>When</p>: we look up the key and an absent key
+	 *
+	 * <p>Then</p> the key associated with null is present
+	 * <b>and</b> the absent key is not present
+	 */
+	@Test
+	public void shouldLookupNullValue() {
+		// Given
+		IStorage<String, String> storage = this.makeStorage(IStorage.NO_MAX_SIZE);
+		Map<String, String> map = new VMap<>(storage);
+		storage.update("key", null);
+
+		// When
+		Lookup<String> present = storage.lookup("key");
+		Lookup<String> absent = storage.lookup("absent");
+
+		// Then
+		assertTrue(present.isPresent());
+		assertNull(present.get());
+		assertFalse(absent.isPresent());
+		assertTrue(map.containsKey("key"));
+		assertNull(map.getOrDefault("key", "default"));
+		assertEquals("default", map.getOrDefault("absent", "default"));
+	}
+
+	/**
+	 * <p>Given</p>: a {@link RedisStorage} with more entries than a page of the iterator,
+	 * some of them associated with null
+	 *
+	 * <p>When</p>: we iterate the entries, and fetch them by a cursor in small pages
+	 *
+	 * <p>Then</p> all entries are iterated and fetched once
+	 * <b>and</b> the entries associated with null are included
+	 */
+	@Test
+	public void shouldIterateByPages() {
+		// Given
+		IStorage<String, String> storage = this.makeStorage(IStorage.NO_MAX_SIZE);
+		Map<String, String> entries = new HashMap<>();
+		for (int i = 0; i < 2500; ++i) {
+			entries.put("key" + i, i % 10 == 0 ? null : "value" + i);
+		}
+		storage.updateAll(entries);
+
+		// When
+		Map<String, String> iterated = new HashMap<>();
+		int iterations = 0;
+		for (Iterator<Map.Entry<String, String>> it = storage.iterator(); it.hasNext(); ++iterations) {
+			Map.Entry<String, String> entry = it.next();
+			iterated.put(entry.getKey(), entry.getValue());
+		}
+		Map<String, String> fetched = new HashMap<>();
+		int fetches = 0;
+		for (IStorageCursor<String, String> cursor = storage.cursor(); !cursor.isFinished(); ) {
+			for (Map.Entry<String, String> entry : cursor.fetch(7)) {
+				fetched.put(entry.getKey(), entry.getValue());
+				++fetches;
+			}
+		}
+
+		// Then
+		assertEquals(storage.entries(), iterations);
+		assertEquals(entries, iterated);
+		assertEquals(entries.size(), fetches);
+		assertEquals(entries, fetched);
+	}
+}
+